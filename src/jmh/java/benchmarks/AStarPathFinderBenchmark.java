@@ -0,0 +1,134 @@
+package benchmarks;
+
+import algorithms.AStarPathFinder;
+import algorithms.GameMap;
+import algorithms.IndexedAStarPathFinder;
+import algorithms.JumpPointPathFinder;
+import algorithms.Path;
+import algorithms.PathFinder;
+import algorithms.PathFinderType;
+import algorithms.UnitMover;
+import game.GameEngine;
+import game.Grid;
+import game.entities.Enemy;
+import game.gridobjects.Door;
+import game.gridobjects.GridObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AStarPathFinder}, {@link IndexedAStarPathFinder} and
+ * {@link JumpPointPathFinder} from every enemy to the agent, as the game does
+ * on each turn, and between random free tiles, on every bundled level.
+ * <p>
+ * With the doors closed most enemies can't reach the agent, which is the worst
+ * case: the search gives up only after exploring the whole area around them.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class AStarPathFinderBenchmark {
+
+    private static final int RANDOM_QUERIES = 200;
+
+    @Param({"BuildingLevel", "Level", "Level1", "MansionLevel", "StrangeLevel", "testlevel"})
+    public String level;
+
+    @Param({"closed", "open"})
+    public String doors;
+
+    @Param({"ASTAR", "INDEXED_ASTAR", "JUMP_POINT"})
+    public PathFinderType pathFinderType;
+
+    private PathFinder pathFinder;
+
+    private UnitMover mover;
+
+    private int[][] queries;
+
+    private int[][] randomQueries;
+
+    @Setup
+    public void setUp() {
+        GameEngine engine = new GameEngine();
+        engine.loadLevel(level);
+
+        if (doors.equals("open")) {
+            engine.getGameGrid().forEach((object, x, y) -> {
+                if (object instanceof Door) {
+                    ((Door) object).open();
+                }
+            });
+        }
+
+        pathFinder = createPathFinder(new GameMap(engine));
+        mover = new UnitMover();
+
+        int ax = (int) engine.getAgent().getX();
+        int ay = (int) engine.getAgent().getY();
+        List<Enemy> enemies = engine.getEntityList().getEnemies();
+
+        queries = new int[enemies.size()][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new int[]{(int) enemies.get(i).getX(), (int) enemies.get(i).getY(), ax, ay};
+        }
+
+        Grid<GridObject> grid = engine.getGameGrid();
+        List<int[]> free = new ArrayList<>();
+        grid.forEach((object, x, y) -> {
+            if (!grid.isBlocked(x, y)) {
+                free.add(new int[]{x, y});
+            }
+        });
+
+        Random random = new Random(42);
+        randomQueries = new int[RANDOM_QUERIES][];
+        for (int i = 0; i < randomQueries.length; i++) {
+            int[] from = free.get(random.nextInt(free.size()));
+            int[] to = free.get(random.nextInt(free.size()));
+            randomQueries[i] = new int[]{from[0], from[1], to[0], to[1]};
+        }
+    }
+
+    private PathFinder createPathFinder(GameMap map) {
+        switch (pathFinderType) {
+            case INDEXED_ASTAR:
+                return new IndexedAStarPathFinder(map, 500, false);
+            case JUMP_POINT:
+                return new JumpPointPathFinder(map, 500, false);
+            default:
+                return new AStarPathFinder(map, 500, false);
+        }
+    }
+
+    /**
+     * One search per enemy, i.e. the path finding of a whole turn.
+     */
+    @Benchmark
+    public void findPathFromEveryEnemy(Blackhole blackhole) {
+        for (int[] q : queries) {
+            Path path = pathFinder.findPath(mover, q[0], q[1], q[2], q[3]);
+            blackhole.consume(path);
+        }
+    }
+
+    /**
+     * The same random searches between free tiles on each call, most of them
+     * longer than the ones of the enemies.
+     */
+    @Benchmark
+    public void findRandomPaths(Blackhole blackhole) {
+        for (int[] q : randomQueries) {
+            Path path = pathFinder.findPath(mover, q[0], q[1], q[2], q[3]);
+            blackhole.consume(path);
+        }
+    }
+}
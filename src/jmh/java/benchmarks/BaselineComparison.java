@@ -0,0 +1,115 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files, e.g. a saved baseline and the latest run.
+ * <p>
+ * For every benchmark in both files it prints the score, the allocation per
+ * operation from the gc profiler and how much they changed. A benchmark has
+ * regressed when it got slower by more than the threshold and by more than
+ * the error of both runs; the exit status is 1 if any did.
+ * <p>
+ * Usage: {@code BaselineComparison <baseline.json> <results.json> [threshold %]}
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class BaselineComparison {
+
+    private static final double DEFAULT_THRESHOLD = 10;
+
+    private static final String ALLOCATION = "\u00b7gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <results.json> [threshold %]");
+            System.exit(2);
+        }
+
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        System.out.printf("%-90s %12s %12s %8s %12s %12s%n",
+                "benchmark", "baseline", "current", "change", "B/op before", "B/op after");
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+
+            if (before == null) {
+                System.out.printf("%-90s %12s %12.3f%n", entry.getKey(), "-", score(after));
+                continue;
+            }
+
+            double change = 100 * (score(after) - score(before)) / score(before);
+            boolean regressed = change > threshold
+                    && score(after) - score(before) > error(after) + error(before);
+
+            if (regressed) {
+                regressions++;
+            }
+
+            System.out.printf("%-90s %12.3f %12.3f %+7.1f%% %12.0f %12.0f%s%n", entry.getKey(),
+                    score(before), score(after), change, allocation(before), allocation(after),
+                    regressed ? "  REGRESSION" : "");
+        }
+
+        System.out.printf("%d regression(s) over %.0f%%%n", regressions, threshold);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /**
+     * @return the results of a file, by benchmark name and parameters
+     */
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText()
+                    .replaceFirst("^benchmarks\\.", ""));
+
+            JsonNode params = result.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+
+            results.put(key.toString(), result);
+        }
+
+        return results;
+    }
+
+    private static double score(JsonNode result) {
+        return result.get("primaryMetric").get("score").asDouble();
+    }
+
+    private static double error(JsonNode result) {
+        double error = result.get("primaryMetric").get("scoreError").asDouble();
+
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static double allocation(JsonNode result) {
+        JsonNode metrics = result.get("secondaryMetrics");
+
+        if (metrics == null || metrics.get(ALLOCATION) == null) {
+            return Double.NaN;
+        }
+
+        return metrics.get(ALLOCATION).get("score").asDouble();
+    }
+}
@@ -0,0 +1,132 @@
+package benchmarks;
+
+import algorithms.AStarPathFinder;
+import algorithms.DStarLitePathFinder;
+import algorithms.GameMap;
+import algorithms.IndexedAStarPathFinder;
+import algorithms.Path;
+import algorithms.PathFinder;
+import algorithms.PathFinderType;
+import game.GameEngine;
+import game.Grid;
+import game.entities.Enemy;
+import game.gridobjects.Door;
+import game.gridobjects.GridObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long chase on every bundled level, searched by {@link AStarPathFinder},
+ * {@link IndexedAStarPathFinder} or one {@link DStarLitePathFinder} per enemy.
+ * <p>
+ * The agent takes a random walk and a type of doors is opened every few turns,
+ * as players do. On each turn every enemy searches a path to the agent and
+ * follows it. The chase starts again from the level as loaded on each
+ * iteration, so they all replay the same turns.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class DStarLiteBenchmark {
+
+    private static final int TURNS_BETWEEN_DOOR_CHANGES = 25;
+
+    /**
+     * The enemies are slower than the agent, or they would all catch it
+     */
+    private static final int TURNS_BETWEEN_ENEMY_MOVES = 2;
+
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    @Param({"BuildingLevel", "Level", "Level1", "MansionLevel", "StrangeLevel", "testlevel"})
+    public String level;
+
+    @Param({"ASTAR", "INDEXED_ASTAR", "INCREMENTAL"})
+    public PathFinderType pathFinderType;
+
+    private GameEngine engine;
+
+    private List<Enemy> enemies;
+
+    /**
+     * The path finder of each enemy, the same one unless incremental
+     */
+    private List<PathFinder> pathFinders;
+
+    private List<Character> doorTypes;
+
+    private Random random;
+
+    private int turn;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setUp() {
+        engine = new GameEngine();
+        engine.loadLevel(level);
+
+        Grid<GridObject> grid = engine.getGameGrid();
+        GameMap map = new GameMap(engine);
+        PathFinder shared = pathFinderType == PathFinderType.ASTAR
+                ? new AStarPathFinder(map, 500, false)
+                : new IndexedAStarPathFinder(map, 500, false);
+
+        enemies = engine.getEntityList().getEnemies();
+        pathFinders = new ArrayList<>();
+        for (Enemy ignored : enemies) {
+            pathFinders.add(pathFinderType == PathFinderType.INCREMENTAL ? new DStarLitePathFinder(map, grid) : shared);
+        }
+
+        doorTypes = new ArrayList<>();
+        grid.forEach((object, x, y) -> {
+            if (object instanceof Door && !doorTypes.contains(((Door) object).getDoorType())) {
+                doorTypes.add(((Door) object).getDoorType());
+            }
+        });
+
+        random = new Random(11);
+        turn = 0;
+    }
+
+    /**
+     * One turn of the chase, i.e. a search per enemy.
+     */
+    @Benchmark
+    public void chase(Blackhole blackhole) {
+        Grid<GridObject> grid = engine.getGameGrid();
+
+        if (turn % TURNS_BETWEEN_DOOR_CHANGES == 0 && !doorTypes.isEmpty()) {
+            engine.openDoors(doorTypes.get(random.nextInt(doorTypes.size())));
+        }
+
+        int direction = random.nextInt(4);
+        int ax = (int) engine.getAgent().getX() + DX[direction];
+        int ay = (int) engine.getAgent().getY() + DY[direction];
+        if (ax >= 0 && ay >= 0 && ax < grid.getWidth() && ay < grid.getHeight() && engine.isNodeFree(ax, ay)) {
+            engine.getAgent().setPosition(ax, ay);
+        }
+
+        ax = (int) engine.getAgent().getX();
+        ay = (int) engine.getAgent().getY();
+
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            Path path = pathFinders.get(i).findPath(null, (int) enemy.getX(), (int) enemy.getY(), ax, ay);
+
+            if (path != null && turn % TURNS_BETWEEN_ENEMY_MOVES == 0) {
+                enemy.setPosition(path.getX(1), path.getY(1));
+            }
+            blackhole.consume(path);
+        }
+
+        turn++;
+    }
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import game.DoorIndex;
+import game.Grid;
+import game.gridobjects.Door;
+import game.gridobjects.GridObject;
+import game.gridobjects.Wall;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Switching the open type of doors on a large generated map, by walking the
+ * grid as the game engine used to and with a {@link DoorIndex}.
+ * <p>
+ * The number of doors is the same whatever the size of the map, so only the
+ * grid walk should get slower as the map grows.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class DoorIndexBenchmark {
+
+    private static final char[] DOOR_TYPES = {'A', 'B', 'C', 'D'};
+
+    private static final int DOORS = 2000;
+
+    @Param({"256", "1024", "4096"})
+    public int size;
+
+    private Grid<GridObject> grid;
+
+    private DoorIndex doorIndex;
+
+    private int turn;
+
+    @Setup
+    public void setUp() {
+        grid = new Grid<>(GridObject.class, size, size);
+        Random random = new Random(5);
+
+        // walls along every 16th row, with the doors in them
+        for (int y = 0; y < size; y += 16) {
+            for (int x = 0; x < size; x++) {
+                grid.put(Wall.INSTANCE, x, y);
+            }
+        }
+
+        for (int i = 0; i < DOORS; i++) {
+            int x = random.nextInt(size);
+            int y = 16 * random.nextInt(size / 16);
+            grid.put(new Door(DOOR_TYPES[i % DOOR_TYPES.length]), x, y);
+        }
+
+        doorIndex = new DoorIndex(grid);
+    }
+
+    @Benchmark
+    public int openWithGridWalk() {
+        char doorType = DOOR_TYPES[turn++ % DOOR_TYPES.length];
+
+        List<Door> doors = new ArrayList<>();
+        grid.forEach((object, x, y) -> {
+            if (object instanceof Door) {
+                doors.add((Door) object);
+            }
+        });
+
+        for (Door door : doors) {
+            if (door.getDoorType() == doorType) {
+                door.open();
+            } else {
+                door.close();
+            }
+        }
+
+        return grid.getVersion();
+    }
+
+    @Benchmark
+    public int openWithDoorIndex() {
+        doorIndex.openOnly(DOOR_TYPES[turn++ % DOOR_TYPES.length]);
+
+        return grid.getVersion();
+    }
+}
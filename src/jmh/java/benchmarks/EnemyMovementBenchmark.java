@@ -0,0 +1,80 @@
+package benchmarks;
+
+import algorithms.PathFinderType;
+import game.Direction;
+import game.GameEngine;
+import game.GameStatus;
+import game.Grid;
+import game.entities.Enemy;
+import game.gridobjects.GridObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole {@link GameEngine#handleMovement} turn for every
+ * {@link PathFinderType}, as the number of enemies on the level grows. The
+ * extra enemies are spawned on random free tiles, always the same ones.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class EnemyMovementBenchmark {
+
+    @Param({"ASTAR", "INDEXED_ASTAR", "JUMP_POINT", "HIERARCHICAL", "FLOW_FIELD", "INCREMENTAL"})
+    public PathFinderType pathFinderType;
+
+    @Param({"0", "100", "500", "1000"})
+    public int extraEnemies;
+
+    private GameEngine engine;
+
+    private int turn;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUpEngine() {
+        engine = new GameEngine();
+        engine.setPathFinderType(pathFinderType);
+    }
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setUpLevel() {
+        engine.loadLevel("MansionLevel");
+        addEnemies(engine, extraEnemies);
+        turn = 0;
+    }
+
+    @Benchmark
+    public GameStatus handleMovement() {
+        engine.handleMovement(turn++ % 2 == 0 ? Direction.EAST : Direction.WEST);
+
+        return engine.getGameStatus();
+    }
+
+    /**
+     * Spawn enemies on random free tiles, always the same ones for a level.
+     */
+    static void addEnemies(GameEngine engine, int count) {
+        Grid<GridObject> grid = engine.getGameGrid();
+        List<int[]> free = new ArrayList<>();
+        grid.forEach((object, x, y) -> {
+            if (!grid.isBlocked(x, y)) {
+                free.add(new int[]{x, y});
+            }
+        });
+
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            int[] tile = free.get(random.nextInt(free.size()));
+            Enemy enemy = new Enemy();
+            enemy.setPosition(tile[0], tile[1]);
+            engine.getEntityList().add(enemy);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import algorithms.PathFinderType;
+import game.Direction;
+import game.GameEngine;
+import game.GameStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole {@link GameEngine#handleMovement} turn: the agent moves, then every
+ * enemy chases it. The agent walks back and forth so that it moves on every
+ * turn, and the level is loaded again before each iteration so that all of
+ * them start from the same state.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class GameEngineTurnBenchmark {
+
+    @Param({"MansionLevel", "Level"})
+    public String level;
+
+    @Param({"ASTAR", "INDEXED_ASTAR"})
+    public PathFinderType pathFinderType;
+
+    private GameEngine engine;
+
+    private int turn;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUpEngine() {
+        engine = new GameEngine();
+        engine.setPathFinderType(pathFinderType);
+    }
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setUpLevel() {
+        engine.loadLevel(level);
+        turn = 0;
+    }
+
+    @Benchmark
+    public GameStatus handleMovement() {
+        engine.handleMovement(turn++ % 2 == 0 ? Direction.EAST : Direction.WEST);
+
+        return engine.getGameStatus();
+    }
+}
@@ -0,0 +1,122 @@
+package benchmarks;
+
+import game.Direction;
+import game.GameEngine;
+import game.GameStatus;
+import game.Level;
+import game.LevelCodec;
+import game.LevelGenerator;
+import game.LevelLoader;
+import org.openjdk.jmh.annotations.*;
+import utils.Serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding the game sent to the clients, with {@link Serializer}
+ * as the JSON status does and with {@link LevelCodec}, as a snapshot, as the
+ * state on a layout the client has, or as the changes of a move of the agent.
+ * The size of a frame in each format is printed when the benchmark starts.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class LevelCodecBenchmark {
+
+    /**
+     * A bundled level, or "generated" for a 500x500 level of
+     * {@link LevelGenerator}
+     */
+    @Param({"MansionLevel", "Level", "generated"})
+    public String level;
+
+    @Param({"serialized", "binary", "state", "delta"})
+    public String format;
+
+    private Level loaded;
+
+    private String serialized;
+
+    private byte[] encoded;
+
+    private GameEngine engine;
+
+    /**
+     * The state version before the move
+     */
+    private long since;
+
+    private Level decoded;
+
+    private byte[] delta;
+
+    private byte[] state;
+
+    private LevelCodec.Layout layout;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (level.equals("generated")) {
+            ByteArrayOutputStream text = new ByteArrayOutputStream();
+            new LevelGenerator(500, 500, 1).write(text);
+            loaded = LevelLoader.loadLevel(new ByteArrayInputStream(text.toByteArray()));
+        } else {
+            loaded = LevelLoader.loadLevel(level);
+        }
+
+        serialized = Serializer.toString(loaded);
+        encoded = LevelCodec.encode(GameStatus.RUNNING, 0, loaded);
+
+        engine = new GameEngine();
+        engine.loadLevel(loaded);
+        decoded = LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encode(engine, -1))).getLevel();
+        since = engine.getStateVersion();
+        engine.handleMovement(Direction.EAST);
+        delta = LevelCodec.encode(engine, since);
+        state = LevelCodec.encodeState(engine, -1);
+        layout = LevelCodec.getLayout(engine);
+
+        System.out.printf("%n%s: %d bytes serialized in Base64, %d bytes encoded, %d bytes of layout and %d of "
+                        + "state, %d bytes for a move%n", level, serialized.length(), encoded.length,
+                layout.getEncoded().length, state.length, delta.length);
+    }
+
+    @Benchmark
+    public Object encode() throws IOException {
+        switch (format) {
+            case "binary":
+                return LevelCodec.encode(GameStatus.RUNNING, 0, loaded);
+            case "state":
+                return LevelCodec.encodeState(engine, -1);
+            case "delta":
+                return LevelCodec.encode(engine, since);
+            default:
+                return Serializer.toString(loaded);
+        }
+    }
+
+    /**
+     * Decoding a delta includes applying it, which moves the entities to the
+     * same places every time.
+     */
+    @Benchmark
+    public Object decode() throws IOException, ClassNotFoundException {
+        switch (format) {
+            case "binary":
+                return LevelCodec.decode(ByteBuffer.wrap(encoded));
+            case "state":
+                return LevelCodec.decode(ByteBuffer.wrap(state)).applyTo(null, layout);
+            case "delta":
+                return LevelCodec.decode(ByteBuffer.wrap(delta)).applyTo(decoded);
+            default:
+                return Serializer.fromString(serialized);
+        }
+    }
+}
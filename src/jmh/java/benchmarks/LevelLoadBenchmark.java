@@ -0,0 +1,72 @@
+package benchmarks;
+
+import game.BinaryLevel;
+import game.GameEngine;
+import game.Level;
+import game.LevelCompiler;
+import game.LevelLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a level from its text file and from its compiled file, see
+ * {@link BinaryLevel}, alone and as part of resetting a game.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class LevelLoadBenchmark {
+
+    @Param({"BuildingLevel", "MansionLevel", "testlevel"})
+    public String level;
+
+    @Param({"txt", "lvl"})
+    public String format;
+
+    private File file;
+
+    private GameEngine engine;
+
+    @Setup
+    public void setUp() throws IOException {
+        File text = File.createTempFile(level, ".txt");
+        text.deleteOnExit();
+
+        String path = String.format("Levels/%s.txt", level);
+        try (InputStream stream = LevelLoader.class.getClassLoader().getResourceAsStream(path)) {
+            Files.copy(stream, text.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        file = text;
+        if (format.equals("lvl")) {
+            file = File.createTempFile(level, BinaryLevel.EXTENSION);
+            file.deleteOnExit();
+            LevelCompiler.compile(text, file);
+        }
+
+        engine = new GameEngine();
+    }
+
+    @Benchmark
+    public Level load() throws IOException {
+        return LevelLoader.loadLevel(file);
+    }
+
+    /**
+     * Load the level and build everything the engine needs to play it, as
+     * a new game does.
+     */
+    @Benchmark
+    public GameEngine resetGame() throws IOException {
+        engine.loadLevel(LevelLoader.loadLevel(file));
+
+        return engine;
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import game.Level;
+import game.LevelParser;
+import game.StreamingLevelParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and parsing a level file with {@link LevelParser} and with
+ * {@link StreamingLevelParser}. The file is read into memory once, so the disk
+ * is left out.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class LevelParserBenchmark {
+
+    @Param({"BuildingLevel", "Level", "Level1", "MansionLevel", "StrangeLevel", "testlevel"})
+    public String level;
+
+    private byte[] file;
+
+    @Setup
+    public void setUp() throws IOException {
+        String path = String.format("Levels/%s.txt", level);
+
+        try (InputStream stream = LevelParser.class.getClassLoader().getResourceAsStream(path)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+
+            for (int read; (read = stream.read(buffer)) != -1; ) {
+                bytes.write(buffer, 0, read);
+            }
+
+            file = bytes.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public LevelParser parse() {
+        LevelParser parser = new LevelParser(new ByteArrayInputStream(file));
+        parser.parse();
+
+        return parser;
+    }
+
+    @Benchmark
+    public Level parseStreaming() throws IOException {
+        return StreamingLevelParser.parse(new ByteArrayInputStream(file));
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import algorithms.PathFinderType;
+import game.Direction;
+import game.GameEngine;
+import game.GameStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole {@link GameEngine#handleMovement} turn with many enemies, as they
+ * are planned by more threads. The path cache is disabled so that every turn
+ * runs all the searches. That the enemies end up where the sequential run
+ * puts them is checked by ParallelPlanningTest.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ParallelPlanningBenchmark {
+
+    private static final int EXTRA_ENEMIES = 500;
+
+    @Param({"ASTAR", "INDEXED_ASTAR"})
+    public PathFinderType pathFinderType;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private GameEngine engine;
+
+    private int turn;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUpEngine() {
+        engine = new GameEngine();
+        engine.setPathCacheSize(0);
+        engine.setPathFinderType(pathFinderType);
+        engine.setPlanningParallelism(parallelism);
+    }
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setUpLevel() {
+        engine.loadLevel("MansionLevel");
+        EnemyMovementBenchmark.addEnemies(engine, EXTRA_ENEMIES);
+        turn = 0;
+    }
+
+    @Benchmark
+    public GameStatus handleMovement() {
+        engine.handleMovement(turn++ % 2 == 0 ? Direction.EAST : Direction.WEST);
+
+        return engine.getGameStatus();
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import game.Level;
+import game.LevelLoader;
+import org.openjdk.jmh.annotations.*;
+import utils.Serializer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Serializer} round trips of a {@link Level}, i.e. what the server
+ * sends to the clients on every request.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SerializerBenchmark {
+
+    @Param({"MansionLevel", "Level"})
+    public String level;
+
+    private Level loaded;
+
+    private String serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        loaded = LevelLoader.loadLevel(level);
+        serialized = Serializer.toString(loaded);
+    }
+
+    @Benchmark
+    public String toString() {
+        try {
+            return Serializer.toString(loaded);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public Object fromString() throws IOException, ClassNotFoundException {
+        return Serializer.fromString(serialized);
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import game.GameEngine;
+import org.openjdk.jmh.annotations.*;
+import server.Application;
+import server.controllers.StatusController;
+import server.responses.Status;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the response of {@code /status}, {@code /play/move} and the other
+ * endpoints returning the whole game: once per state version, then from the
+ * cache, and as the 304 of a client that has the current version.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class StatusBenchmark {
+
+    @Param({"MansionLevel", "Level"})
+    public String level;
+
+    private GameEngine engine;
+
+    private StatusController controller;
+
+    private String eTag;
+
+    private String encodedETag;
+
+    private boolean open;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine();
+        engine.loadLevel(level);
+
+        Application.engine = engine;
+        controller = new StatusController();
+        eTag = controller.status(null).getHeaders().getETag();
+        encodedETag = controller.encodedStatus(-1, null).getHeaders().getETag();
+    }
+
+    @Benchmark
+    public Status fromGameEngine() {
+        return Status.fromGameEngine(engine);
+    }
+
+    /**
+     * A door is opened or closed before each status, so it is built every
+     * time; compare with {@link #toggleDoors()}.
+     */
+    @Benchmark
+    public Status fromGameEngineChanged() {
+        toggleDoors();
+
+        return Status.fromGameEngine(engine);
+    }
+
+    @Benchmark
+    public void toggleDoors() {
+        if (open) {
+            engine.closeDoors('O');
+        } else {
+            engine.openDoors('O');
+        }
+        open = !open;
+    }
+
+    @Benchmark
+    public Object notModified() {
+        return controller.status(eTag);
+    }
+
+    @Benchmark
+    public Object encodedNotModified() {
+        return controller.encodedStatus(engine.getStateVersion(), encodedETag);
+    }
+}
@@ -0,0 +1,204 @@
+package benchmarks;
+
+import client.PlayerModel;
+import client.StateSubscription;
+import game.GameEngine;
+import game.LevelCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import server.Application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long a change made by one player takes to reach the other one, as the
+ * client polls /state every 250 ms and as it is pushed the changes on
+ * /events. The requests are made with {@link HttpURLConnection} rather than
+ * Unirest.
+ * <p>
+ * One player opens doors, a random time after the previous change; the other
+ * applies the frames to its model as the client does, and the time from
+ * sending the request to the model having the version of the change is
+ * measured. Drawing the level is the same in both modes and is left out.
+ * Without a host, e.g. {@code -p host=http://localhost:8080}, the server is
+ * started here on a free port.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(time = 5)
+@Measurement(time = 10)
+@State(Scope.Benchmark)
+public class UpdateLatencyBenchmark {
+
+    /**
+     * As in client.PlayerController
+     */
+    private static final int POLLING_PERIOD = 250;
+
+    private static final char[] DOOR_TYPES = {'O', 'P'};
+
+    @Param({""})
+    public String host;
+
+    @Param({"polling", "push"})
+    public String mode;
+
+    private ConfigurableApplicationContext server;
+
+    private String url;
+
+    private Watcher watcher;
+
+    private ScheduledExecutorService poller;
+
+    private StateSubscription subscription;
+
+    private final Random random = new Random(1);
+
+    private int change;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws IOException {
+        url = host;
+        if (url.isEmpty()) {
+            Application.engine = new GameEngine();
+            server = SpringApplication.run(Application.class, "--server.port=0");
+            url = "http://localhost:" + server.getEnvironment().getProperty("local.server.port");
+        }
+
+        watcher = new Watcher(url);
+        watcher.update(fetch(url, -1));
+
+        if (mode.equals("push")) {
+            subscription = new StateSubscription(url, watcher);
+            subscription.start();
+        } else {
+            poller = Executors.newSingleThreadScheduledExecutor();
+            poller.scheduleAtFixedRate(watcher::poll, 0, POLLING_PERIOD, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        if (subscription != null) {
+            subscription.stop();
+        }
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * Leave a random time between the changes, so that they don't fall at
+     * the same point of the polling period.
+     */
+    @Setup(org.openjdk.jmh.annotations.Level.Invocation)
+    public void waitBeforeChange() throws InterruptedException {
+        Thread.sleep(300 + random.nextInt(300));
+    }
+
+    /**
+     * Open a type of doors and wait for the other player to see it.
+     */
+    @Benchmark
+    public long openDoors() throws IOException, InterruptedException {
+        long version = get(url + "/doors/open?type=" + DOOR_TYPES[change++ % DOOR_TYPES.length]).getStateVersion();
+
+        return watcher.awaitVersion(version);
+    }
+
+    private static LevelCodec.Frame fetch(String url, long since) throws IOException {
+        return get(url + "/state?since=" + since);
+    }
+
+    private static LevelCodec.Frame get(String url) throws IOException {
+        try (InputStream body = open(url)) {
+            return LevelCodec.decode(body);
+        }
+    }
+
+    private static InputStream open(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestProperty("Accept", LevelCodec.MEDIA_TYPE);
+
+        return connection.getInputStream();
+    }
+
+    /**
+     * The other player, keeping the time each state version is reached
+     */
+    private static class Watcher extends PlayerModel implements StateSubscription.Listener {
+
+        private final String url;
+
+        private final ConcurrentSkipListMap<Long, Long> reached = new ConcurrentSkipListMap<>();
+
+        Watcher(String url) {
+            this.url = url;
+        }
+
+        void poll() {
+            try {
+                update(fetch(url, getStateVersion()));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        protected LevelCodec.Layout fetchLayout(String hash) throws IOException {
+            try (InputStream body = open(url + "/layout/" + hash)) {
+                return LevelCodec.decodeLayout(body);
+            }
+        }
+
+        synchronized void update(LevelCodec.Frame frame) throws IOException {
+            if (!updateLevelFromFrame(frame)) {
+                updateLevelFromFrame(fetch(url, -1));
+            }
+
+            reached.putIfAbsent(getStateVersion(), System.nanoTime());
+            notifyAll();
+        }
+
+        /**
+         * @return when the version, or a later one, was reached
+         */
+        synchronized long awaitVersion(long version) throws InterruptedException {
+            while (reached.ceilingEntry(version) == null) {
+                wait();
+            }
+
+            return reached.ceilingEntry(version).getValue();
+        }
+
+        @Override
+        public void frameReceived(LevelCodec.Frame frame) {
+            try {
+                update(frame);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public void subscriptionFailed(Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
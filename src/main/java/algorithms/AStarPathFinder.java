@@ -26,6 +26,8 @@ public class AStarPathFinder implements PathFinder {
 	private boolean allowDiagMovement;
 	/** The heuristic we're applying to determine which nodes to search first */
 	private AStarHeuristic heuristic;
+	/** The current search, used to reset nodes left over from an earlier one */
+	private int searchId;
 	
 	/**
 	 * Create a path finder with the default heuristic - closest to target.
@@ -70,15 +72,19 @@ public class AStarPathFinder implements PathFinder {
 			return null;
 		}
 		
+		// a new search, any node touched by the previous one is stale
+		// and gets reset the first time this search reaches it
+		searchId++;
+		
 		// initial state for A*. The closed group is empty. Only the starting
 		// tile is in the open list and it's cost is zero, i.e. we're already there
-		nodes[sx][sy].cost = 0;
-		nodes[sx][sy].depth = 0;
+		getNode(sx, sy).cost = 0;
+		getNode(sx, sy).depth = 0;
 		closed.clear();
 		open.clear();
-		open.add(nodes[sx][sy]);
+		open.add(getNode(sx, sy));
 		
-		nodes[tx][ty].parent = null;
+		getNode(tx, ty).parent = null;
 		
 		// while we haven't found the goal and haven't exceeded our max search depth
 		int maxDepth = 0;
@@ -86,7 +92,7 @@ public class AStarPathFinder implements PathFinder {
 			// pull out the first node in our open list, this is determined to 
 			// be the most likely to be the next step based on our heuristic
 			Node current = getFirstInOpen();
-			if (current == nodes[tx][ty]) {
+			if (current == getNode(tx, ty)) {
 				break;
 			}
 			
@@ -119,7 +125,7 @@ public class AStarPathFinder implements PathFinder {
 						// cost to reach this node. Note that the heursitic value is only used
 						// in the sorted open list
 						float nextStepCost = current.cost + getMovementCost(mover, current.x, current.y, xp, yp);
-						Node neighbour = nodes[xp][yp];
+						Node neighbour = getNode(xp, yp);
 						map.pathFinderVisited(xp, yp);
 						
 						// if the new cost we've determined for this node is lower than 
@@ -151,7 +157,7 @@ public class AStarPathFinder implements PathFinder {
 
 		// since we've got an empty open list or we've run out of search 
 		// there was no path. Just return null
-		if (nodes[tx][ty].parent == null) {
+		if (getNode(tx, ty).parent == null) {
 			return null;
 		}
 		
@@ -159,8 +165,8 @@ public class AStarPathFinder implements PathFinder {
 		// references of the nodes to find out way from the target location back
 		// to the start recording the nodes on the way.
 		Path path = new Path();
-		Node target = nodes[tx][ty];
-		while (target != nodes[sx][sy]) {
+		Node target = getNode(tx, ty);
+		while (target != getNode(sx, sy)) {
 			path.prependStep(target.x, target.y);
 			target = target.parent;
 		}
@@ -170,6 +176,24 @@ public class AStarPathFinder implements PathFinder {
 		return path;
 	}
 
+	/**
+	 * Get the node at the given location, resetting it if it was last touched
+	 * by a previous search. This lets a path finder be reused without clearing
+	 * the whole node array, only the nodes a search actually reaches.
+	 * 
+	 * @param x The x coordinate of the node
+	 * @param y The y coordinate of the node
+	 * @return The node, in its initial state for the current search
+	 */
+	private Node getNode(int x, int y) {
+		Node node = nodes[x][y];
+		if (node.searchId != searchId) {
+			node.reset(searchId);
+		}
+		
+		return node;
+	}
+
 	/**
 	 * Get the first element from the open list. This is the next
 	 * one to be searched.
@@ -365,6 +389,8 @@ public class AStarPathFinder implements PathFinder {
 		private float heuristic;
 		/** The search depth of this node */
 		private int depth;
+		/** The search this node was last reset for */
+		private int searchId;
 		
 		/**
 		 * Create a new node
@@ -377,6 +403,19 @@ public class AStarPathFinder implements PathFinder {
 			this.y = y;
 		}
 		
+		/**
+		 * Reset this node to its initial state for a new search
+		 * 
+		 * @param searchId The search the node is being reset for
+		 */
+		public void reset(int searchId) {
+			this.searchId = searchId;
+			cost = 0;
+			heuristic = 0;
+			depth = 0;
+			parent = null;
+		}
+		
 		/**
 		 * Set the parent of this node
 		 * 
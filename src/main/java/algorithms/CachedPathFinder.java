@@ -0,0 +1,189 @@
+package algorithms;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * A path finder that remembers the paths found by another one.
+ * <p>
+ * The results are keyed by start, target and the version of the map topology
+ * at the time of the search, so a path is never reused once a tile has been
+ * changed or a door has been opened or closed. Targets that can't be reached
+ * are remembered too. When the cache holds more entries than its budget, the
+ * least recently used entry is evicted.
+ * <p>
+ * The cached paths are shared between the callers and must not be modified.
+ * The mover is not part of the key: all the searches are assumed to be made
+ * on behalf of movers with the same abilities.
+ * <p>
+ * The cache is thread safe as long as the wrapped path finder is, e.g. a
+ * {@link PathFinderPool}. Searches run outside the lock.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class CachedPathFinder implements PathFinder {
+
+    /**
+     * Stands for "no path" in the cache
+     */
+    private static final Path NO_PATH = new Path();
+
+    private final PathFinder pathFinder;
+
+    /**
+     * Supplies the current version of the map topology
+     */
+    private final IntSupplier version;
+
+    private final Map<Key, Path> cache;
+
+    private final int capacity;
+
+    /**
+     * The version of the entries in the cache
+     */
+    private int cachedVersion;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Create a cache.
+     *
+     * @param pathFinder the path finder used on a miss
+     * @param version    supplies the current version of the map topology
+     * @param capacity   the maximum number of paths to keep
+     */
+    public CachedPathFinder(PathFinder pathFinder, IntSupplier version, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+
+        this.pathFinder = Objects.requireNonNull(pathFinder);
+        this.version = Objects.requireNonNull(version);
+        this.capacity = capacity;
+
+        cache = new LinkedHashMap<Key, Path>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Path> eldest) {
+                return size() > CachedPathFinder.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @see PathFinder#findPath(Mover, int, int, int, int)
+     */
+    @Override
+    public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
+        Key key = new Key(sx, sy, tx, ty, version.getAsInt());
+        Path path;
+
+        synchronized (cache) {
+            // the entries of an older version can't be hit anymore
+            if (key.version != cachedVersion) {
+                cache.clear();
+                cachedVersion = key.version;
+            }
+
+            path = cache.get(key);
+        }
+
+        if (path != null) {
+            hits.incrementAndGet();
+
+            return path == NO_PATH ? null : path;
+        }
+
+        misses.incrementAndGet();
+        path = pathFinder.findPath(mover, sx, sy, tx, ty);
+
+        synchronized (cache) {
+            if (key.version == cachedVersion) {
+                cache.put(key, path == null ? NO_PATH : path);
+            }
+        }
+
+        return path;
+    }
+
+    /**
+     * @return the number of searches answered from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of searches passed to the path finder
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of paths in the cache
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * @return the maximum number of paths kept
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Reset the hit and miss counters.
+     */
+    public void resetCounters() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    private static final class Key {
+        private final int sx;
+        private final int sy;
+        private final int tx;
+        private final int ty;
+        private final int version;
+
+        private Key(int sx, int sy, int tx, int ty, int version) {
+            this.sx = sx;
+            this.sy = sy;
+            this.tx = tx;
+            this.ty = ty;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) other;
+
+            return sx == key.sx && sy == key.sy && tx == key.tx && ty == key.ty && version == key.version;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = sx;
+            result = 31 * result + sy;
+            result = 31 * result + tx;
+            result = 31 * result + ty;
+
+            return 31 * result + version;
+        }
+    }
+}
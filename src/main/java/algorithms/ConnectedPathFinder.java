@@ -0,0 +1,46 @@
+package algorithms;
+
+import java.util.Objects;
+
+/**
+ * A path finder that gives up straight away when the target can't be reached,
+ * instead of letting another path finder search the whole area around the
+ * mover first.
+ * <p>
+ * Searches from a tile that can't be walked on, e.g. a door closed while the
+ * mover was on it, are always passed on: the mover can still step off it.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class ConnectedPathFinder implements PathFinder {
+
+    private final PathFinder pathFinder;
+
+    private final ConnectivityIndex connectivity;
+
+    /**
+     * Create a path finder.
+     *
+     * @param pathFinder   the path finder used when the target can be reached
+     * @param connectivity the components of the map being searched
+     */
+    public ConnectedPathFinder(PathFinder pathFinder, ConnectivityIndex connectivity) {
+        this.pathFinder = Objects.requireNonNull(pathFinder);
+        this.connectivity = Objects.requireNonNull(connectivity);
+    }
+
+    /**
+     * @see PathFinder#findPath(Mover, int, int, int, int)
+     */
+    @Override
+    public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
+        int start = connectivity.getComponent(sx, sy);
+
+        if (start != ConnectivityIndex.NONE && start != connectivity.getComponent(tx, ty)) {
+            return null;
+        }
+
+        return pathFinder.findPath(mover, sx, sy, tx, ty);
+    }
+}
@@ -0,0 +1,161 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Tells which tiles of a level can reach each other with the doors as they
+ * are, without searching.
+ * <p>
+ * The rooms of a {@link RoomGraph} never change, so the connected components
+ * are found by joining the rooms through the open doors with a union-find.
+ * This only costs O(rooms + doors) after the doors have been opened or closed,
+ * see {@link #update()}; the queries are then O(1).
+ * <p>
+ * Movement is 4-connected, like the enemies in the game engine.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class ConnectivityIndex {
+
+    /**
+     * The component of the tiles that can't be walked on
+     */
+    public static final int NONE = RoomGraph.NONE;
+
+    private final RoomGraph graph;
+
+    /**
+     * The rooms and the doors next to each door, found once
+     */
+    private final int[][] doorRooms;
+    private final int[][] doorDoors;
+
+    /**
+     * The component of each room, followed by the component of each door.
+     * Replaced as a whole on every update, so that a reader never sees half
+     * of an update.
+     */
+    private volatile int[] components;
+
+    /**
+     * The union-find forest, reused by the updates
+     */
+    private final int[] parent;
+
+    public ConnectivityIndex(RoomGraph graph) {
+        this.graph = graph;
+
+        int doors = graph.getDoorCount();
+        doorRooms = new int[doors][];
+        doorDoors = new int[doors][];
+        parent = new int[graph.getRoomCount() + doors];
+
+        int[] rooms = new int[RoomGraph.directions()];
+        int[] neighbourDoors = new int[RoomGraph.directions()];
+        for (int door = 0; door < doors; door++) {
+            int roomCount = 0;
+            int doorCount = 0;
+
+            for (int i = 0; i < RoomGraph.directions(); i++) {
+                int neighbour = graph.neighbour(graph.getDoorTile(door), i);
+                if (neighbour == NONE) {
+                    continue;
+                }
+
+                int x = neighbour % graph.getWidth();
+                int y = neighbour / graph.getWidth();
+                if (graph.getRoom(x, y) != NONE) {
+                    rooms[roomCount++] = graph.getRoom(x, y);
+                } else if (graph.getDoor(x, y) != NONE) {
+                    neighbourDoors[doorCount++] = graph.getDoor(x, y);
+                }
+            }
+
+            doorRooms[door] = Arrays.copyOf(rooms, roomCount);
+            doorDoors[door] = Arrays.copyOf(neighbourDoors, doorCount);
+        }
+
+        update();
+    }
+
+    /**
+     * Join the rooms again through the doors that are open now. Call it after
+     * {@link RoomGraph#updateDoorStates()}.
+     */
+    public synchronized void update() {
+        int roomCount = graph.getRoomCount();
+
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+
+        for (int door = 0; door < doorRooms.length; door++) {
+            if (!graph.isDoorOpen(door)) {
+                continue;
+            }
+
+            for (int room : doorRooms[door]) {
+                union(roomCount + door, room);
+            }
+            for (int other : doorDoors[door]) {
+                if (graph.isDoorOpen(other)) {
+                    union(roomCount + door, roomCount + other);
+                }
+            }
+        }
+
+        int[] updated = new int[parent.length];
+        for (int i = 0; i < parent.length; i++) {
+            updated[i] = find(i);
+        }
+
+        components = updated;
+    }
+
+    /**
+     * @return the component of the tile, or {@link #NONE} if it can't be
+     * walked on
+     */
+    public int getComponent(int x, int y) {
+        int room = graph.getRoom(x, y);
+        if (room != NONE) {
+            return components[room];
+        }
+
+        int door = graph.getDoor(x, y);
+        if (door != NONE && graph.isDoorOpen(door)) {
+            return components[graph.getRoomCount() + door];
+        }
+
+        return NONE;
+    }
+
+    /**
+     * @return true if both tiles can be walked on and there is a way from
+     * one to the other
+     */
+    public boolean sameComponent(int x1, int y1, int x2, int y2) {
+        int component = getComponent(x1, y1);
+
+        return component != NONE && component == getComponent(x2, y2);
+    }
+
+    private int find(int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+
+        return node;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+
+        if (rootA != rootB) {
+            parent[rootA] = rootB;
+        }
+    }
+}
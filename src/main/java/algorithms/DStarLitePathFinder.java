@@ -0,0 +1,402 @@
+package algorithms;
+
+import game.Grid;
+import game.interfaces.Griddable;
+
+import java.util.Arrays;
+
+/**
+ * An incremental path finder implementation that uses D* Lite.
+ * <p>
+ * The search runs backwards, from the target to the mover, and is kept between
+ * calls. When the mover has taken a few steps, the target has moved or a tile
+ * has become blocked or free, only the part of the previous search affected
+ * by the change is repaired. A path finder is meant to follow a single mover:
+ * chasing the same target from another place works, but throws away most of
+ * the benefit. See {@link PerMoverPathFinder}.
+ * <p>
+ * The target is joined to a virtual goal node, the root of the search. Moving
+ * the target only changes the edges of that node, which D* Lite handles like
+ * any other change of edge costs.
+ * <p>
+ * Movement is 4-connected and every step costs 1, the map costs are ignored.
+ * Changes to the map are picked up from the tiles the grid says have changed,
+ * see {@link Grid#getChangedTile(long)}, so that opening a door only looks at
+ * the tiles of the door. The map is scanned again only when more tiles have
+ * changed than the grid remembers.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class DStarLitePathFinder implements PathFinder {
+
+    /**
+     * The cost of a blocked edge and the distance of an unreachable tile
+     */
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private static final int[] DX = {-1, 0, 0, 1};
+    private static final int[] DY = {0, -1, 1, 0};
+
+    /**
+     * The map being searched
+     */
+    private final TileBasedMap map;
+
+    /**
+     * The grid the map is made of, which tells the tiles that changed
+     */
+    private final Grid<? extends Griddable> grid;
+
+    private final int width;
+
+    private final int height;
+
+    /**
+     * The distance to the target of each tile, as of the last expansion
+     */
+    private final int[] g;
+
+    /**
+     * The one step lookahead of the distance to the target of each tile
+     */
+    private final int[] rhs;
+
+    /**
+     * The tiles whose distance is not consistent with their neighbours
+     */
+    private final IndexedMinHeap open;
+
+    /**
+     * Whether each tile was blocked, as of the grid change searched
+     */
+    private final boolean[] blocked;
+
+    /**
+     * The number of grid changes searched, see {@link #blocked}
+     */
+    private long changesSearched;
+
+    /**
+     * Whether there is a previous search to repair
+     */
+    private boolean initialized;
+
+    /**
+     * The total heuristic distance moved by the mover, used to keep the
+     * keys of the previous search valid
+     */
+    private int km;
+
+    private int start = -1;
+
+    private int goal = -1;
+
+    /**
+     * The number of tiles expanded since the path finder was created
+     */
+    private long nodesExpanded;
+
+    /**
+     * Create a path finder.
+     *
+     * @param map  The map to be searched
+     * @param grid The grid the map is made of
+     */
+    public DStarLitePathFinder(TileBasedMap map, Grid<? extends Griddable> grid) {
+        this.map = map;
+        this.grid = grid;
+
+        width = map.getWidthInTiles();
+        height = map.getHeightInTiles();
+
+        g = new int[width * height];
+        rhs = new int[width * height];
+        open = new IndexedMinHeap(width * height);
+        blocked = new boolean[width * height];
+    }
+
+    /**
+     * @see PathFinder#findPath(Mover, int, int, int, int)
+     */
+    @Override
+    public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
+        if (!initialized) {
+            initialize(mover, ty * width + tx);
+        } else {
+            updateMap(mover);
+        }
+
+        // easy first check, if the destination is blocked, we can't get there
+        if (blocked[ty * width + tx]) {
+            return null;
+        }
+
+        int newStart = sy * width + sx;
+        if (start != -1) {
+            km += heuristic(start, newStart);
+        }
+        start = newStart;
+
+        moveGoal(ty * width + tx);
+        computeShortestPath();
+
+        if (start == goal || rhs[start] >= INFINITY) {
+            return null;
+        }
+
+        return buildPath();
+    }
+
+    /**
+     * @return the number of tiles expanded since the path finder was created
+     */
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    private void initialize(Mover mover, int target) {
+        for (int tile = 0; tile < blocked.length; tile++) {
+            blocked[tile] = map.blocked(mover, tile % width, tile / width);
+        }
+        changesSearched = grid.getChangeCount();
+
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        open.clear();
+        km = 0;
+        start = -1;
+
+        goal = target;
+        rhs[goal] = 0;
+        open.add(goal, 0, 0);
+
+        initialized = true;
+    }
+
+    /**
+     * Look at the tiles that changed since the last search and update the
+     * distances of the tiles around them.
+     */
+    private void updateMap(Mover mover) {
+        long changeCount = grid.getChangeCount();
+
+        if (changeCount - changesSearched > 0 && grid.getChangedTile(changesSearched) == -1) {
+            // the grid forgot some of the tiles
+            for (int tile = 0; tile < blocked.length; tile++) {
+                updateTile(mover, tile);
+            }
+        } else {
+            for (long change = changesSearched; change < changeCount; change++) {
+                updateTile(mover, grid.getChangedTile(change));
+            }
+        }
+
+        changesSearched = changeCount;
+    }
+
+    private void updateTile(Mover mover, int tile) {
+        boolean nowBlocked = map.blocked(mover, tile % width, tile / width);
+        if (nowBlocked == blocked[tile]) {
+            return;
+        }
+
+        blocked[tile] = nowBlocked;
+
+        // the edges into the tile have changed
+        for (int i = 0; i < DX.length; i++) {
+            int neighbour = neighbour(tile, i);
+            if (neighbour != -1) {
+                updateRhs(neighbour);
+            }
+        }
+    }
+
+    /**
+     * Move the target, i.e. the only tile joined to the virtual goal node.
+     */
+    private void moveGoal(int target) {
+        if (target == goal) {
+            return;
+        }
+
+        int previous = goal;
+        goal = target;
+
+        updateRhs(previous);
+        rhs[goal] = 0;
+        updateVertex(goal);
+    }
+
+    private void computeShortestPath() {
+        while (!open.isEmpty() && (compareTopKey(start) < 0 || rhs[start] > g[start])) {
+            double oldPrimary = open.peekPrimary();
+            long oldSecondary = open.peekSecondary();
+            int u = open.peek();
+            int primary = primaryKey(u);
+            int secondary = secondaryKey(u);
+
+            if (oldPrimary < primary || (oldPrimary == primary && oldSecondary < secondary)) {
+                open.update(u, primary, secondary);
+                continue;
+            }
+
+            nodesExpanded++;
+            open.poll();
+
+            if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+
+                for (int i = 0; i < DX.length; i++) {
+                    int s = neighbour(u, i);
+                    if (s != -1 && s != goal) {
+                        int candidate = add(cost(s, u), g[u]);
+                        if (candidate < rhs[s]) {
+                            rhs[s] = candidate;
+                            updateVertex(s);
+                        }
+                    }
+                }
+            } else {
+                int oldG = g[u];
+                g[u] = INFINITY;
+
+                if (u != goal && rhs[u] == oldG) {
+                    rhs[u] = lookahead(u);
+                }
+                updateVertex(u);
+
+                for (int i = 0; i < DX.length; i++) {
+                    int s = neighbour(u, i);
+                    if (s != -1 && s != goal && rhs[s] == add(cost(s, u), oldG)) {
+                        rhs[s] = lookahead(s);
+                        updateVertex(s);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Follow the cheapest neighbours from the mover to the target.
+     */
+    private Path buildPath() {
+        Path path = new Path(rhs[start] + 1, false);
+        path.appendStep(start % width, start / width);
+
+        int current = start;
+        for (int steps = 0; current != goal && steps < blocked.length; steps++) {
+            int best = -1;
+            int bestCost = INFINITY;
+
+            for (int i = 0; i < DX.length; i++) {
+                int s = neighbour(current, i);
+                if (s == -1) {
+                    continue;
+                }
+
+                int candidate = add(cost(current, s), g[s]);
+                if (candidate < bestCost) {
+                    best = s;
+                    bestCost = candidate;
+                }
+            }
+
+            if (best == -1) {
+                return null;
+            }
+
+            current = best;
+            path.appendStep(current % width, current / width);
+        }
+
+        return current == goal ? path : null;
+    }
+
+    /**
+     * Recompute the lookahead of a tile after its edges changed.
+     */
+    private void updateRhs(int u) {
+        if (u != goal) {
+            rhs[u] = lookahead(u);
+        }
+
+        updateVertex(u);
+    }
+
+    private int lookahead(int u) {
+        int best = INFINITY;
+
+        for (int i = 0; i < DX.length; i++) {
+            int s = neighbour(u, i);
+            if (s != -1) {
+                best = Math.min(best, add(cost(u, s), g[s]));
+            }
+        }
+
+        return best;
+    }
+
+    private void updateVertex(int u) {
+        if (g[u] != rhs[u]) {
+            open.add(u, primaryKey(u), secondaryKey(u));
+        } else if (open.contains(u)) {
+            open.remove(u);
+        }
+    }
+
+    /**
+     * Compare the smallest key in the open set with the key of a tile.
+     */
+    private int compareTopKey(int u) {
+        int primary = primaryKey(u);
+
+        if (open.peekPrimary() != primary) {
+            return open.peekPrimary() < primary ? -1 : 1;
+        }
+
+        return Long.compare(open.peekSecondary(), secondaryKey(u));
+    }
+
+    private int primaryKey(int u) {
+        return add(add(Math.min(g[u], rhs[u]), heuristic(start, u)), km);
+    }
+
+    private int secondaryKey(int u) {
+        return Math.min(g[u], rhs[u]);
+    }
+
+    /**
+     * The Manhattan distance between two tiles, 0 before the first search
+     */
+    private int heuristic(int from, int to) {
+        if (from == -1) {
+            return 0;
+        }
+
+        return Math.abs(from % width - to % width) + Math.abs(from / width - to / width);
+    }
+
+    /**
+     * Moving into a blocked tile is not allowed, moving out of one is: the
+     * mover may be standing on a door that has just been closed.
+     */
+    private int cost(int from, int to) {
+        return blocked[to] ? INFINITY : 1;
+    }
+
+    private static int add(int a, int b) {
+        return a >= INFINITY || b >= INFINITY ? INFINITY : a + b;
+    }
+
+    private int neighbour(int tile, int direction) {
+        int x = tile % width + DX[direction];
+        int y = tile / width + DY[direction];
+
+        if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+            return -1;
+        }
+
+        return y * width + x;
+    }
+}
@@ -0,0 +1,221 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A distance field towards a single target, shared by every mover chasing it.
+ * <p>
+ * {@link #update(Mover, int, int)} runs one breadth first search outwards from
+ * the target, after which any mover can take its next step by reading the
+ * neighbour closest to the target. The cost is O(tiles) per update whatever the
+ * number of movers, instead of one search per mover.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class FlowField {
+
+    /**
+     * The distance of the tiles the target cannot be reached from
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * The map being searched
+     */
+    private final TileBasedMap map;
+
+    /**
+     * True if we allow diagonal movement
+     */
+    private final boolean allowDiagMovement;
+
+    private final int width;
+
+    private final int height;
+
+    /**
+     * The number of steps from each tile to the target
+     */
+    private final int[] distance;
+
+    /**
+     * The update in which each tile was last reached
+     */
+    private final int[] reached;
+
+    /**
+     * The queue of the breadth first search
+     */
+    private final int[] queue;
+
+    /**
+     * The current update, used to tell stale distances apart
+     */
+    private int generation = 0;
+
+    public FlowField(TileBasedMap map, boolean allowDiagMovement) {
+        this.map = map;
+        this.allowDiagMovement = allowDiagMovement;
+
+        width = map.getWidthInTiles();
+        height = map.getHeightInTiles();
+
+        distance = new int[width * height];
+        reached = new int[width * height];
+        queue = new int[width * height];
+    }
+
+    /**
+     * Recompute the distances towards the given target.
+     *
+     * @param mover The entity that will be moving along the field
+     * @param tx    The x coordinate of the target location
+     * @param ty    The y coordinate of the target location
+     */
+    public void update(Mover mover, int tx, int ty) {
+        nextGeneration();
+
+        // the target is unreachable from anywhere, e.g. it's behind a closed door
+        if (map.blocked(mover, tx, ty)) {
+            return;
+        }
+
+        int head = 0;
+        int tail = 0;
+
+        int target = ty * width + tx;
+        reach(target, 0);
+        queue[tail++] = target;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int cx = current % width;
+            int cy = current / width;
+
+            for (int x = -1; x < 2; x++) {
+                for (int y = -1; y < 2; y++) {
+                    if (!isNeighbour(x, y)) {
+                        continue;
+                    }
+
+                    int xp = cx + x;
+                    int yp = cy + y;
+
+                    if (isOutOfBounds(xp, yp)) {
+                        continue;
+                    }
+
+                    int neighbour = yp * width + xp;
+                    if (reached[neighbour] == generation || map.blocked(mover, xp, yp)) {
+                        continue;
+                    }
+
+                    reach(neighbour, distance[current] + 1);
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @return the number of steps to the target, or {@link #UNREACHABLE}
+     */
+    public int getDistance(int x, int y) {
+        int index = y * width + x;
+
+        return reached[index] == generation ? distance[index] : UNREACHABLE;
+    }
+
+    /**
+     * Get the neighbour to move to from the given tile, i.e. the closest one to
+     * the target. The tile itself does not need to be free: a mover standing on
+     * a blocked tile can still leave it.
+     *
+     * @param x The x coordinate of the tile
+     * @param y The y coordinate of the tile
+     * @return the index of the next tile (y * width + x), or -1 if there is none
+     */
+    public int nextStep(int x, int y) {
+        int best = -1;
+        int bestDistance = getDistance(x, y);
+
+        for (int dx = -1; dx < 2; dx++) {
+            for (int dy = -1; dy < 2; dy++) {
+                if (!isNeighbour(dx, dy) || isOutOfBounds(x + dx, y + dy)) {
+                    continue;
+                }
+
+                int d = getDistance(x + dx, y + dy);
+                if (d != UNREACHABLE && (bestDistance == UNREACHABLE || d < bestDistance)) {
+                    best = (y + dy) * width + (x + dx);
+                    bestDistance = d;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Follow the field from the given tile to the target.
+     *
+     * @param sx The x coordinate of the start location
+     * @param sy The y coordinate of the start location
+     * @return the path to the target, or null if the target can't be reached
+     */
+    public Path getPath(int sx, int sy) {
+        int next = nextStep(sx, sy);
+        if (next == -1) {
+            return null;
+        }
+
+        Path path = new Path(distance[sy * width + sx] + 1, false);
+        path.appendStep(sx, sy);
+
+        while (next != -1) {
+            int x = next % width;
+            int y = next / width;
+            path.appendStep(x, y);
+
+            next = distance[next] == 0 ? -1 : nextStep(x, y);
+        }
+
+        return path;
+    }
+
+    /**
+     * @return the width of the field, to decode the tile indices
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    private boolean isNeighbour(int x, int y) {
+        if ((x == 0) && (y == 0)) {
+            return false;
+        }
+
+        return allowDiagMovement || (x == 0) || (y == 0);
+    }
+
+    private boolean isOutOfBounds(int x, int y) {
+        return (x < 0) || (y < 0) || (x >= width) || (y >= height);
+    }
+
+    private void reach(int index, int steps) {
+        reached[index] = generation;
+        distance[index] = steps;
+    }
+
+    private void nextGeneration() {
+        generation++;
+
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            generation = 1;
+        }
+    }
+}
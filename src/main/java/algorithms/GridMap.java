@@ -0,0 +1,50 @@
+package algorithms;
+
+import game.Grid;
+import game.interfaces.Griddable;
+
+/**
+ * A map over a single grid where every step costs the same: 1 for a straight
+ * step and sqrt(2) for a diagonal one.
+ * <p>
+ * Unlike {@link GameMap} it does not need a running {@link game.GameEngine},
+ * which makes it handy to compare path finders on any level.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class GridMap implements TileBasedMap {
+
+    private static final float DIAGONAL_COST = (float) Math.sqrt(2);
+
+    private final Grid<? extends Griddable> grid;
+
+    public GridMap(Grid<? extends Griddable> grid) {
+        this.grid = grid;
+    }
+
+    @Override
+    public int getWidthInTiles() {
+        return grid.getWidth();
+    }
+
+    @Override
+    public int getHeightInTiles() {
+        return grid.getHeight();
+    }
+
+    @Override
+    public void pathFinderVisited(int x, int y) {
+
+    }
+
+    @Override
+    public boolean blocked(Mover mover, int x, int y) {
+        return grid.isBlocked(x, y);
+    }
+
+    @Override
+    public float getCost(Mover mover, int sx, int sy, int tx, int ty) {
+        return (sx != tx && sy != ty) ? DIAGONAL_COST : 1;
+    }
+}
@@ -0,0 +1,388 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A path finder that plans over the rooms and doors of a {@link RoomGraph}
+ * (hierarchical path finding, HPA*).
+ * <p>
+ * When start and target are in different rooms the route is first found on the
+ * abstract graph, whose nodes are the doors, and then refined one leg at a time
+ * with a search confined to the room that leg walks through. The cost of a query
+ * depends on the number of doors and on the size of the rooms on the route, not
+ * on the size of the map.
+ * <p>
+ * Paths are as short as the abstract graph allows: a leg never leaves its room,
+ * so a path can be slightly longer than the one A* would find when a shortcut
+ * goes out of a room and back in. Movement is 4-connected and the map costs are
+ * ignored, as in the {@link RoomGraph}, and so is the search distance: the
+ * abstract graph is small enough to be searched whole.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class HierarchicalPathFinder implements PathFinder {
+
+    private static final int NONE = RoomGraph.NONE;
+
+    private final RoomGraph graph;
+
+    private final int width;
+
+    /*
+     * The state of the searches inside a room
+     */
+    private final int[] tileParent;
+    private final int[] tileReached;
+    private final int[] queue;
+    private int tileGeneration = 0;
+
+    /*
+     * The state of the search on the abstract graph. The doors are numbered
+     * as in the graph, the target is the extra node at the end.
+     */
+    private final IndexedMinHeap open;
+    private final int[] cost;
+    private final int[] parent;
+    private final int[] reached;
+    private final int[] closed;
+    private final int[] targetCost;
+    private final int[] targetReached;
+    private int generation = 0;
+
+    /**
+     * The doors on the route of the last search, from the start
+     */
+    private final int[] route;
+
+    /**
+     * The number of abstract nodes expanded by the last search
+     */
+    private int nodesExpanded;
+
+    public HierarchicalPathFinder(RoomGraph graph) {
+        this.graph = graph;
+
+        width = graph.getWidth();
+        int tiles = graph.getWidth() * graph.getHeight();
+        int doors = graph.getDoorCount();
+
+        tileParent = new int[tiles];
+        tileReached = new int[tiles];
+        queue = new int[tiles];
+
+        open = new IndexedMinHeap(doors + 1);
+        cost = new int[doors + 1];
+        parent = new int[doors + 1];
+        reached = new int[doors + 1];
+        closed = new int[doors + 1];
+        targetCost = new int[doors];
+        targetReached = new int[doors];
+        route = new int[doors];
+    }
+
+    /**
+     * @see PathFinder#findPath(Mover, int, int, int, int)
+     */
+    @Override
+    public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
+        int start = sy * width + sx;
+        int target = ty * width + tx;
+        nodesExpanded = 0;
+
+        // the destination is blocked, or we're already there
+        if (!isFree(target) || start == target) {
+            return null;
+        }
+
+        int startRoom = graph.getRoom(sx, sy);
+        int targetRoom = graph.getRoom(tx, ty);
+
+        // no need to look at the doors inside a single room
+        if (startRoom != NONE && startRoom == targetRoom) {
+            Path path = new Path();
+            path.appendStep(sx, sy);
+
+            return appendLeg(path, startRoom, start, target) ? path : null;
+        }
+
+        int doors = findRoute(start, startRoom, target, targetRoom);
+        if (doors == -1) {
+            return null;
+        }
+
+        // refine the route, one room at a time
+        Path path = new Path();
+        path.appendStep(sx, sy);
+
+        int from = start;
+        int room = startRoom;
+        for (int i = 0; i < doors; i++) {
+            int door = graph.getDoorTile(route[i]);
+
+            if (i > 0) {
+                room = linkRoom(route[i - 1], route[i]);
+            }
+
+            if (from != door) {
+                if (room == NONE) {
+                    path.appendStep(door % width, door / width);
+                } else if (!appendLeg(path, room, from, door)) {
+                    return null;
+                }
+            }
+
+            from = door;
+        }
+
+        if (from != target && !appendLeg(path, targetRoom, from, target)) {
+            return null;
+        }
+
+        return path;
+    }
+
+    /**
+     * @return the number of abstract nodes expanded by the last search
+     */
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Find the doors to go through on the abstract graph and store them in
+     * {@link #route}.
+     *
+     * @return the number of doors on the route, or -1 if there is none
+     */
+    private int findRoute(int start, int startRoom, int target, int targetRoom) {
+        int doors = graph.getDoorCount();
+        int goal = doors;
+
+        nextGeneration();
+        open.clear();
+
+        // how far the target is from the doors around it
+        int targetDoor = graph.getDoor(target % width, target / width);
+        if (targetDoor != NONE) {
+            setTargetCost(targetDoor, 0);
+        } else {
+            walkToDoors(target, targetRoom, target, false);
+        }
+
+        // and how far the doors around the start are
+        int startDoor = graph.getDoor(start % width, start / width);
+        if (startDoor != NONE) {
+            // we can always step off the door we're standing on
+            relax(startDoor, 0, NONE, target);
+        } else if (startRoom != NONE) {
+            walkToDoors(start, startRoom, target, true);
+        } else {
+            return -1;
+        }
+
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            if (current == goal) {
+                break;
+            }
+
+            closed[current] = generation;
+            nodesExpanded++;
+
+            if (targetReached[current] == generation) {
+                relax(goal, cost[current] + targetCost[current], current, target);
+            }
+
+            int[] linked = graph.getLinkedDoors(current);
+            int[] costs = graph.getLinkCosts(current);
+            for (int i = 0; i < linked.length; i++) {
+                if (graph.isDoorOpen(linked[i]) && closed[linked[i]] != generation) {
+                    relax(linked[i], cost[current] + costs[i], current, target);
+                }
+            }
+        }
+
+        if (reached[goal] != generation) {
+            return -1;
+        }
+
+        int count = 0;
+        for (int door = parent[goal]; door != NONE; door = parent[door]) {
+            count++;
+        }
+        for (int door = parent[goal], i = count - 1; door != NONE; door = parent[door], i--) {
+            route[i] = door;
+        }
+
+        return count;
+    }
+
+    /**
+     * Walk a room from the given tile and record the distance to each door
+     * around it, either as a starting cost or as a cost to the target.
+     */
+    private void walkToDoors(int from, int room, int target, boolean fromStart) {
+        nextTileGeneration();
+
+        int head = 0;
+        int tail = 0;
+        tileReached[from] = tileGeneration;
+        tileParent[from] = 0;
+        queue[tail++] = from;
+
+        // the parent array holds the distance while walking to the doors
+        while (head < tail) {
+            int current = queue[head++];
+
+            for (int i = 0; i < RoomGraph.directions(); i++) {
+                int next = graph.neighbour(current, i);
+                if (next == NONE || tileReached[next] == tileGeneration) {
+                    continue;
+                }
+
+                int door = graph.getDoor(next % width, next / width);
+                int steps = tileParent[current] + 1;
+                tileReached[next] = tileGeneration;
+
+                if (door != NONE) {
+                    if (!fromStart) {
+                        setTargetCost(door, steps);
+                    } else if (graph.isDoorOpen(door)) {
+                        relax(door, steps, NONE, target);
+                    }
+                } else if (graph.getRoom(next % width, next / width) == room) {
+                    tileParent[next] = steps;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    private void setTargetCost(int door, int steps) {
+        if (targetReached[door] != generation || steps < targetCost[door]) {
+            targetReached[door] = generation;
+            targetCost[door] = steps;
+        }
+    }
+
+    private void relax(int node, int nodeCost, int nodeParent, int target) {
+        if (reached[node] == generation && cost[node] <= nodeCost) {
+            return;
+        }
+
+        reached[node] = generation;
+        cost[node] = nodeCost;
+        parent[node] = nodeParent;
+
+        open.add(node, nodeCost + heuristic(node, target), 0);
+    }
+
+    /**
+     * The Manhattan distance from a door to the target, never more than
+     * the actual number of steps.
+     */
+    private int heuristic(int node, int target) {
+        if (node == graph.getDoorCount()) {
+            return 0;
+        }
+
+        int tile = graph.getDoorTile(node);
+
+        return Math.abs(tile % width - target % width) + Math.abs(tile / width - target / width);
+    }
+
+    /**
+     * @return the room two linked doors are walked through, or
+     * {@link RoomGraph#NONE} if they touch
+     */
+    private int linkRoom(int from, int to) {
+        int[] linked = graph.getLinkedDoors(from);
+        int[] rooms = graph.getLinkRooms(from);
+
+        for (int i = 0; i < linked.length; i++) {
+            if (linked[i] == to) {
+                return rooms[i];
+            }
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Search inside a room from one tile to another and append the steps after
+     * the first one to the path. Both tiles can be doors around the room.
+     *
+     * @return false if the room does not connect them
+     */
+    private boolean appendLeg(Path path, int room, int from, int to) {
+        nextTileGeneration();
+
+        int head = 0;
+        int tail = 0;
+        tileReached[from] = tileGeneration;
+        tileParent[from] = NONE;
+        queue[tail++] = from;
+
+        while (head < tail && tileReached[to] != tileGeneration) {
+            int current = queue[head++];
+
+            for (int i = 0; i < RoomGraph.directions(); i++) {
+                int next = graph.neighbour(current, i);
+
+                if (next == NONE || tileReached[next] == tileGeneration) {
+                    continue;
+                }
+
+                if (next == to || graph.getRoom(next % width, next / width) == room) {
+                    tileReached[next] = tileGeneration;
+                    tileParent[next] = current;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        if (tileReached[to] != tileGeneration) {
+            return false;
+        }
+
+        // the steps are found backwards, reuse the queue to reverse them
+        int steps = 0;
+        for (int tile = to; tile != from; tile = tileParent[tile]) {
+            queue[steps++] = tile;
+        }
+        for (int i = steps - 1; i >= 0; i--) {
+            path.appendStep(queue[i] % width, queue[i] / width);
+        }
+
+        return true;
+    }
+
+    private boolean isFree(int tile) {
+        int x = tile % width;
+        int y = tile / width;
+        int door = graph.getDoor(x, y);
+
+        return door != NONE ? graph.isDoorOpen(door) : graph.getRoom(x, y) != NONE;
+    }
+
+    private void nextGeneration() {
+        generation++;
+
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(closed, 0);
+            Arrays.fill(targetReached, 0);
+            generation = 1;
+        }
+    }
+
+    private void nextTileGeneration() {
+        tileGeneration++;
+
+        if (tileGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(tileReached, 0);
+            tileGeneration = 1;
+        }
+    }
+}
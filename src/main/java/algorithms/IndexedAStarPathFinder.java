@@ -0,0 +1,277 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * An A* path finder that works on tile indices instead of node objects.
+ * <p>
+ * The open set is an {@link IndexedMinHeap} with decrease-key, and the open/closed
+ * membership of each tile is tracked with generation stamps, so no per-search
+ * clearing of the node arrays is needed. It explores the map in the same order
+ * as {@link AStarPathFinder}: ties on the estimated cost are resolved first in,
+ * first out.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class IndexedAStarPathFinder implements PathFinder {
+
+    /**
+     * The map being searched
+     */
+    private final TileBasedMap map;
+
+    /**
+     * The maximum depth of search we're willing to accept before giving up
+     */
+    private final int maxSearchDistance;
+
+    /**
+     * True if we allow diagonal movement
+     */
+    private final boolean allowDiagMovement;
+
+    /**
+     * The heuristic we're applying to determine which tiles to search first
+     */
+    private final AStarHeuristic heuristic;
+
+    private final int width;
+
+    private final int height;
+
+    /**
+     * The open set, keyed by estimated total cost
+     */
+    private final IndexedMinHeap open;
+
+    /**
+     * The path cost of each tile
+     */
+    private final float[] cost;
+
+    /**
+     * The tile each tile has been reached from
+     */
+    private final int[] parent;
+
+    /**
+     * The search depth of each tile
+     */
+    private final int[] depth;
+
+    /**
+     * The search in which each tile was last reached
+     */
+    private final int[] reached;
+
+    /**
+     * The search in which each tile was last closed
+     */
+    private final int[] closed;
+
+    /**
+     * The current search, used to tell stale tile data apart
+     */
+    private int generation = 0;
+
+    /**
+     * The counter used to order tiles with the same estimated cost
+     */
+    private long insertions;
+
+    /**
+     * The number of tiles expanded by the last search
+     */
+    private int nodesExpanded;
+
+    /**
+     * Create a path finder with the default heuristic - closest to target.
+     *
+     * @param map               The map to be searched
+     * @param maxSearchDistance The maximum depth we'll search before giving up
+     * @param allowDiagMovement True if the search should try diagonal movement
+     */
+    public IndexedAStarPathFinder(TileBasedMap map, int maxSearchDistance, boolean allowDiagMovement) {
+        this(map, maxSearchDistance, allowDiagMovement, new ClosestHeuristic());
+    }
+
+    /**
+     * Create a path finder.
+     *
+     * @param map               The map to be searched
+     * @param maxSearchDistance The maximum depth we'll search before giving up
+     * @param allowDiagMovement True if the search should try diagonal movement
+     * @param heuristic         The heuristic used to determine the search order of the map
+     */
+    public IndexedAStarPathFinder(TileBasedMap map, int maxSearchDistance,
+                                  boolean allowDiagMovement, AStarHeuristic heuristic) {
+        this.map = map;
+        this.maxSearchDistance = maxSearchDistance;
+        this.allowDiagMovement = allowDiagMovement;
+        this.heuristic = heuristic;
+
+        width = map.getWidthInTiles();
+        height = map.getHeightInTiles();
+
+        int tiles = width * height;
+        open = new IndexedMinHeap(tiles);
+        cost = new float[tiles];
+        parent = new int[tiles];
+        depth = new int[tiles];
+        reached = new int[tiles];
+        closed = new int[tiles];
+    }
+
+    /**
+     * @see PathFinder#findPath(Mover, int, int, int, int)
+     */
+    @Override
+    public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
+        // easy first check, if the destination is blocked, we can't get there
+        if (map.blocked(mover, tx, ty)) {
+            return null;
+        }
+
+        nextGeneration();
+        open.clear();
+        insertions = 0;
+        nodesExpanded = 0;
+
+        int start = sy * width + sx;
+        int target = ty * width + tx;
+
+        reach(start, 0, -1, 0);
+        open.add(start, getHeuristicCost(mover, sx, sy, tx, ty), insertions++);
+
+        int maxDepth = 0;
+        while ((maxDepth < maxSearchDistance) && !open.isEmpty()) {
+            int current = open.peek();
+            if (current == target) {
+                break;
+            }
+
+            open.poll();
+            closed[current] = generation;
+            nodesExpanded++;
+
+            int cx = current % width;
+            int cy = current / width;
+
+            for (int x = -1; x < 2; x++) {
+                for (int y = -1; y < 2; y++) {
+                    if ((x == 0) && (y == 0)) {
+                        continue;
+                    }
+
+                    if (!allowDiagMovement && (x != 0) && (y != 0)) {
+                        continue;
+                    }
+
+                    int xp = cx + x;
+                    int yp = cy + y;
+
+                    if (!isValidLocation(mover, sx, sy, xp, yp)) {
+                        continue;
+                    }
+
+                    int neighbour = yp * width + xp;
+                    float nextStepCost = cost[current] + map.getCost(mover, cx, cy, xp, yp);
+                    map.pathFinderVisited(xp, yp);
+
+                    boolean seen = reached[neighbour] == generation;
+
+                    // if the new cost is lower than the one we've found before
+                    // the tile has to be re-evaluated, wherever it currently is
+                    if (seen && nextStepCost < cost[neighbour]) {
+                        open.remove(neighbour);
+                        closed[neighbour] = 0;
+                        seen = false;
+                    }
+
+                    if (!seen) {
+                        reach(neighbour, nextStepCost, current, depth[current] + 1);
+                        maxDepth = Math.max(maxDepth, depth[neighbour]);
+
+                        float f = nextStepCost + getHeuristicCost(mover, xp, yp, tx, ty);
+                        open.add(neighbour, f, insertions++);
+                    }
+                }
+            }
+        }
+
+        if (reached[target] != generation || target == start) {
+            return null;
+        }
+
+        Path path = new Path(depth[target] + 1, true);
+        for (int node = target; node != start; node = parent[node]) {
+            path.prependStep(node % width, node / width);
+        }
+        path.prependStep(sx, sy);
+
+        return path;
+    }
+
+    /**
+     * @return the number of tiles expanded by the last search
+     */
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    private void reach(int node, float nodeCost, int nodeParent, int nodeDepth) {
+        reached[node] = generation;
+        cost[node] = nodeCost;
+        parent[node] = nodeParent;
+        depth[node] = nodeDepth;
+    }
+
+    /**
+     * Start a new search. When the counter wraps around the stamps are
+     * cleared, so a stale stamp can never match the current generation.
+     */
+    private void nextGeneration() {
+        generation++;
+
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Check if a given location is valid for the supplied mover
+     *
+     * @param mover The mover that would hold a given location
+     * @param sx    The starting x coordinate
+     * @param sy    The starting y coordinate
+     * @param x     The x coordinate of the location to check
+     * @param y     The y coordinate of the location to check
+     * @return True if the location is valid for the given mover
+     */
+    protected boolean isValidLocation(Mover mover, int sx, int sy, int x, int y) {
+        boolean invalid = (x < 0) || (y < 0) || (x >= width) || (y >= height);
+
+        if ((!invalid) && ((sx != x) || (sy != y))) {
+            invalid = map.blocked(mover, x, y);
+        }
+
+        return !invalid;
+    }
+
+    /**
+     * Get the heuristic cost for the given location.
+     *
+     * @param mover The entity that is being moved
+     * @param x     The x coordinate of the tile whose cost is being determined
+     * @param y     The y coordinate of the tile whose cost is being determined
+     * @param tx    The x coordinate of the target location
+     * @param ty    The y coordinate of the target location
+     * @return The heuristic cost assigned to the tile
+     */
+    public float getHeuristicCost(Mover mover, int x, int y, int tx, int ty) {
+        return heuristic.getCost(map, mover, x, y, tx, ty);
+    }
+}
@@ -0,0 +1,245 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap over the integer indices 0..capacity-1.
+ * <p>
+ * Every index can be in the heap at most once and its position is tracked,
+ * so membership checks are O(1) and key updates (decrease-key) are O(log n).
+ * Entries are ordered by their primary key and then by their secondary key.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class IndexedMinHeap {
+
+    /**
+     * The indices stored in the heap, in heap order
+     */
+    private final int[] heap;
+
+    /**
+     * The position of each index within the heap, -1 if absent
+     */
+    private final int[] position;
+
+    /**
+     * The primary key of each index
+     */
+    private final double[] primary;
+
+    /**
+     * The secondary key of each index, used to break ties
+     */
+    private final long[] secondary;
+
+    /**
+     * The number of elements in the heap
+     */
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        primary = new double[capacity];
+        secondary = new long[capacity];
+
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * @return the number of elements in the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index the index to check for
+     * @return true if the index is in the heap
+     */
+    public boolean contains(int index) {
+        return position[index] != -1;
+    }
+
+    /**
+     * @return the index with the lowest key, without removing it
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * @return the primary key of the index with the lowest key
+     */
+    public double peekPrimary() {
+        return primary[heap[0]];
+    }
+
+    /**
+     * @return the secondary key of the index with the lowest key
+     */
+    public long peekSecondary() {
+        return secondary[heap[0]];
+    }
+
+    /**
+     * Add an index to the heap, or update its keys if it is already there.
+     *
+     * @param index the index
+     * @param primaryKey the primary key
+     * @param secondaryKey the secondary key
+     */
+    public void add(int index, double primaryKey, long secondaryKey) {
+        if (contains(index)) {
+            update(index, primaryKey, secondaryKey);
+            return;
+        }
+
+        primary[index] = primaryKey;
+        secondary[index] = secondaryKey;
+        heap[size] = index;
+        position[index] = size;
+        size++;
+
+        siftUp(size - 1);
+    }
+
+    /**
+     * Change the keys of an index already in the heap.
+     *
+     * @param index the index
+     * @param primaryKey the new primary key
+     * @param secondaryKey the new secondary key
+     */
+    public void update(int index, double primaryKey, long secondaryKey) {
+        boolean decreased = compareKeys(primaryKey, secondaryKey, primary[index], secondary[index]) < 0;
+
+        primary[index] = primaryKey;
+        secondary[index] = secondaryKey;
+
+        if (decreased) {
+            siftUp(position[index]);
+        } else {
+            siftDown(position[index]);
+        }
+    }
+
+    /**
+     * Remove and return the index with the lowest key.
+     *
+     * @return the index removed
+     */
+    public int poll() {
+        int first = heap[0];
+        removeAt(0);
+
+        return first;
+    }
+
+    /**
+     * Remove an index from the heap. Nothing happens if it is not there.
+     *
+     * @param index the index to remove
+     */
+    public void remove(int index) {
+        if (contains(index)) {
+            removeAt(position[index]);
+        }
+    }
+
+    /**
+     * Empty the heap. This only touches the elements still in the heap.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+
+        size = 0;
+    }
+
+    private void removeAt(int pos) {
+        int removed = heap[pos];
+        size--;
+
+        if (pos != size) {
+            int moved = heap[size];
+            heap[pos] = moved;
+            position[moved] = pos;
+
+            siftDown(pos);
+            if (position[moved] == pos) {
+                siftUp(pos);
+            }
+        }
+
+        position[removed] = -1;
+    }
+
+    private void siftUp(int pos) {
+        int index = heap[pos];
+
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int parent = heap[parentPos];
+
+            if (compare(index, parent) >= 0) {
+                break;
+            }
+
+            heap[pos] = parent;
+            position[parent] = pos;
+            pos = parentPos;
+        }
+
+        heap[pos] = index;
+        position[index] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int index = heap[pos];
+        int half = size >>> 1;
+
+        while (pos < half) {
+            int childPos = 2 * pos + 1;
+            int child = heap[childPos];
+            int rightPos = childPos + 1;
+
+            if (rightPos < size && compare(heap[rightPos], child) < 0) {
+                childPos = rightPos;
+                child = heap[childPos];
+            }
+
+            if (compare(index, child) <= 0) {
+                break;
+            }
+
+            heap[pos] = child;
+            position[child] = pos;
+            pos = childPos;
+        }
+
+        heap[pos] = index;
+        position[index] = pos;
+    }
+
+    private int compare(int a, int b) {
+        return compareKeys(primary[a], secondary[a], primary[b], secondary[b]);
+    }
+
+    private static int compareKeys(double primaryA, long secondaryA, double primaryB, long secondaryB) {
+        if (primaryA < primaryB) {
+            return -1;
+        } else if (primaryA > primaryB) {
+            return 1;
+        }
+
+        return Long.compare(secondaryA, secondaryB);
+    }
+}
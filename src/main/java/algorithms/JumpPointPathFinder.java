@@ -0,0 +1,412 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A path finder implementation that uses Jump Point Search.
+ * <p>
+ * On a grid where every step costs the same, most paths have many symmetric
+ * alternatives that A* would all expand. Jump Point Search only expands the
+ * tiles where a path is forced to turn (the jump points) and jumps over the
+ * straight runs between them, while still returning a shortest path.
+ * <p>
+ * The map costs are ignored: a straight step costs 1 and a diagonal step costs
+ * sqrt(2). As with {@link AStarPathFinder}, a diagonal step may cut the corner
+ * of a blocked tile. The returned path lists every tile, like the other path
+ * finders.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class JumpPointPathFinder implements PathFinder {
+
+    private static final double DIAGONAL_COST = Math.sqrt(2);
+
+    /**
+     * The map being searched
+     */
+    private final TileBasedMap map;
+
+    /**
+     * The maximum length of path we're willing to search before giving up
+     */
+    private final int maxSearchDistance;
+
+    /**
+     * True if we allow diagonal movement
+     */
+    private final boolean allowDiagMovement;
+
+    private final int width;
+
+    private final int height;
+
+    /**
+     * The open set of jump points, keyed by estimated total cost
+     */
+    private final IndexedMinHeap open;
+
+    /**
+     * The path cost of each jump point
+     */
+    private final double[] cost;
+
+    /**
+     * The jump point each jump point has been reached from
+     */
+    private final int[] parent;
+
+    /**
+     * The search in which each tile was last reached
+     */
+    private final int[] reached;
+
+    /**
+     * The search in which each tile was last closed
+     */
+    private final int[] closed;
+
+    /**
+     * The current search, used to tell stale tile data apart
+     */
+    private int generation = 0;
+
+    /**
+     * The counter used to order jump points with the same estimated cost
+     */
+    private long insertions;
+
+    /**
+     * The number of jump points expanded by the last search
+     */
+    private int nodesExpanded;
+
+    /*
+     * The state of the current search
+     */
+    private Mover mover;
+    private int startX;
+    private int startY;
+    private int targetX;
+    private int targetY;
+
+    /**
+     * The neighbours to jump towards from the tile being expanded, as
+     * direction pairs
+     */
+    private final int[] directions = new int[16];
+
+    /**
+     * Create a path finder.
+     *
+     * @param map               The map to be searched
+     * @param maxSearchDistance The maximum path length we'll search before giving up
+     * @param allowDiagMovement True if the search should try diagonal movement
+     */
+    public JumpPointPathFinder(TileBasedMap map, int maxSearchDistance, boolean allowDiagMovement) {
+        this.map = map;
+        this.maxSearchDistance = maxSearchDistance;
+        this.allowDiagMovement = allowDiagMovement;
+
+        width = map.getWidthInTiles();
+        height = map.getHeightInTiles();
+
+        int tiles = width * height;
+        open = new IndexedMinHeap(tiles);
+        cost = new double[tiles];
+        parent = new int[tiles];
+        reached = new int[tiles];
+        closed = new int[tiles];
+    }
+
+    /**
+     * @see PathFinder#findPath(Mover, int, int, int, int)
+     */
+    @Override
+    public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
+        // easy first check, if the destination is blocked, we can't get there
+        if (map.blocked(mover, tx, ty)) {
+            return null;
+        }
+
+        this.mover = mover;
+        startX = sx;
+        startY = sy;
+        targetX = tx;
+        targetY = ty;
+
+        nextGeneration();
+        open.clear();
+        insertions = 0;
+        nodesExpanded = 0;
+
+        int start = sy * width + sx;
+        int target = ty * width + tx;
+
+        reach(start, 0, -1);
+        open.add(start, heuristic(sx, sy), insertions++);
+
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            if (current == target) {
+                break;
+            }
+
+            closed[current] = generation;
+            nodesExpanded++;
+
+            int cx = current % width;
+            int cy = current / width;
+            int count = prunedNeighbours(current, cx, cy);
+
+            for (int i = 0; i < count; i += 2) {
+                int jumpPoint = jump(cx + directions[i], cy + directions[i + 1], directions[i], directions[i + 1]);
+                if (jumpPoint == -1 || closed[jumpPoint] == generation) {
+                    continue;
+                }
+
+                int jx = jumpPoint % width;
+                int jy = jumpPoint / width;
+                double nextCost = cost[current] + distance(cx, cy, jx, jy);
+
+                if (nextCost > maxSearchDistance) {
+                    continue;
+                }
+
+                if (reached[jumpPoint] != generation || nextCost < cost[jumpPoint]) {
+                    reach(jumpPoint, nextCost, current);
+                    open.add(jumpPoint, nextCost + heuristic(jx, jy), insertions++);
+                }
+            }
+        }
+
+        this.mover = null;
+
+        if (reached[target] != generation || target == start) {
+            return null;
+        }
+
+        return buildPath(start, target);
+    }
+
+    /**
+     * @return the number of jump points expanded by the last search
+     */
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    /**
+     * Walk back the jump points from the target and fill in the tiles between
+     * them. Consecutive jump points always lie on a straight or diagonal line.
+     */
+    private Path buildPath(int start, int target) {
+        int jumpPoints = 0;
+        for (int node = target; node != -1; node = parent[node]) {
+            jumpPoints++;
+        }
+
+        int[] route = new int[jumpPoints];
+        for (int node = target, i = jumpPoints - 1; node != -1; node = parent[node], i--) {
+            route[i] = node;
+        }
+
+        Path path = new Path();
+        path.appendStep(start % width, start / width);
+
+        for (int i = 1; i < route.length; i++) {
+            int x = route[i - 1] % width;
+            int y = route[i - 1] / width;
+            int ex = route[i] % width;
+            int ey = route[i] / width;
+            int dx = Integer.signum(ex - x);
+            int dy = Integer.signum(ey - y);
+
+            while (x != ex || y != ey) {
+                x += dx;
+                y += dy;
+                path.appendStep(x, y);
+            }
+        }
+
+        return path;
+    }
+
+    /**
+     * Fill {@link #directions} with the directions worth jumping towards from a
+     * tile, given the direction we reached it from.
+     *
+     * @return the number of values written, two per direction
+     */
+    private int prunedNeighbours(int node, int x, int y) {
+        int count = 0;
+
+        if (parent[node] == -1) {
+            for (int dx = -1; dx < 2; dx++) {
+                for (int dy = -1; dy < 2; dy++) {
+                    if ((dx == 0 && dy == 0) || (!allowDiagMovement && dx != 0 && dy != 0)) {
+                        continue;
+                    }
+
+                    count = addDirection(count, dx, dy);
+                }
+            }
+
+            return count;
+        }
+
+        int dx = Integer.signum(x - parent[node] % width);
+        int dy = Integer.signum(y - parent[node] / width);
+
+        if (allowDiagMovement) {
+            if (dx != 0 && dy != 0) {
+                count = addDirection(count, 0, dy);
+                count = addDirection(count, dx, 0);
+                count = addDirection(count, dx, dy);
+
+                if (!walkable(x - dx, y)) {
+                    count = addDirection(count, -dx, dy);
+                }
+                if (!walkable(x, y - dy)) {
+                    count = addDirection(count, dx, -dy);
+                }
+            } else if (dx == 0) {
+                count = addDirection(count, 0, dy);
+
+                if (!walkable(x + 1, y)) {
+                    count = addDirection(count, 1, dy);
+                }
+                if (!walkable(x - 1, y)) {
+                    count = addDirection(count, -1, dy);
+                }
+            } else {
+                count = addDirection(count, dx, 0);
+
+                if (!walkable(x, y + 1)) {
+                    count = addDirection(count, dx, 1);
+                }
+                if (!walkable(x, y - 1)) {
+                    count = addDirection(count, dx, -1);
+                }
+            }
+        } else if (dx != 0) {
+            count = addDirection(count, 0, -1);
+            count = addDirection(count, 0, 1);
+            count = addDirection(count, dx, 0);
+        } else {
+            count = addDirection(count, -1, 0);
+            count = addDirection(count, 1, 0);
+            count = addDirection(count, 0, dy);
+        }
+
+        return count;
+    }
+
+    private int addDirection(int count, int dx, int dy) {
+        directions[count] = dx;
+        directions[count + 1] = dy;
+
+        return count + 2;
+    }
+
+    /**
+     * Move from (x, y) in the given direction until a jump point is found.
+     *
+     * @return the index of the jump point, or -1 if the run hits a blocked tile
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        while (true) {
+            if (!walkable(x, y)) {
+                return -1;
+            }
+
+            if (x == targetX && y == targetY) {
+                return y * width + x;
+            }
+
+            if (allowDiagMovement) {
+                if (dx != 0 && dy != 0) {
+                    if ((walkable(x - dx, y + dy) && !walkable(x - dx, y)) ||
+                            (walkable(x + dx, y - dy) && !walkable(x, y - dy))) {
+                        return y * width + x;
+                    }
+
+                    // a diagonal run stops where a straight run would find something
+                    if (jump(x + dx, y, dx, 0) != -1 || jump(x, y + dy, 0, dy) != -1) {
+                        return y * width + x;
+                    }
+                } else if (dx != 0) {
+                    if ((walkable(x + dx, y + 1) && !walkable(x, y + 1)) ||
+                            (walkable(x + dx, y - 1) && !walkable(x, y - 1))) {
+                        return y * width + x;
+                    }
+                } else {
+                    if ((walkable(x + 1, y + dy) && !walkable(x + 1, y)) ||
+                            (walkable(x - 1, y + dy) && !walkable(x - 1, y))) {
+                        return y * width + x;
+                    }
+                }
+            } else if (dx != 0) {
+                if ((walkable(x, y - 1) && !walkable(x - dx, y - 1)) ||
+                        (walkable(x, y + 1) && !walkable(x - dx, y + 1))) {
+                    return y * width + x;
+                }
+            } else {
+                if ((walkable(x - 1, y) && !walkable(x - 1, y - dy)) ||
+                        (walkable(x + 1, y) && !walkable(x + 1, y - dy))) {
+                    return y * width + x;
+                }
+
+                // a vertical run stops where a horizontal run would find something
+                if (jump(x + 1, y, 1, 0) != -1 || jump(x - 1, y, -1, 0) != -1) {
+                    return y * width + x;
+                }
+            }
+
+            x += dx;
+            y += dy;
+        }
+    }
+
+    /**
+     * The starting tile is always walkable, the mover is already there.
+     */
+    private boolean walkable(int x, int y) {
+        if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+            return false;
+        }
+
+        return (x == startX && y == startY) || !map.blocked(mover, x, y);
+    }
+
+    private double distance(int x, int y, int tx, int ty) {
+        int dx = Math.abs(tx - x);
+        int dy = Math.abs(ty - y);
+
+        return Math.max(dx, dy) + (DIAGONAL_COST - 1) * Math.min(dx, dy);
+    }
+
+    private double heuristic(int x, int y) {
+        if (allowDiagMovement) {
+            return distance(x, y, targetX, targetY);
+        }
+
+        return Math.abs(targetX - x) + Math.abs(targetY - y);
+    }
+
+    private void reach(int node, double nodeCost, int nodeParent) {
+        reached[node] = generation;
+        cost[node] = nodeCost;
+        parent[node] = nodeParent;
+    }
+
+    private void nextGeneration() {
+        generation++;
+
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+}
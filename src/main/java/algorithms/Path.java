@@ -1,23 +1,46 @@
 package algorithms;
 
-import java.util.ArrayList;
-
 /**
  * A path determined by some path finding algorithm. A series of steps from
  * the starting location to the target location. This includes a step for the
  * initial location.
+ * <p>
+ * The coordinates are packed in a single int array with room at both ends, so
+ * that appending and prepending a step are both O(1) amortized. Reading the
+ * steps through {@link #getX(int)} and {@link #getY(int)} does not allocate;
+ * {@link #getStep(int)} creates a {@link Step} for the callers that want one.
  * 
  * @author Kevin Glass
  */
 public class Path {
-	/** The list of steps building up this path */
-	private ArrayList steps = new ArrayList();
+	/** The number of steps a path has room for when it's created */
+	private static final int DEFAULT_CAPACITY = 8;
+
+	/** The coordinates of the steps, x then y, starting from 2 * first */
+	private int[] coordinates;
+	/** The index of the first step in the coordinates */
+	private int first;
+	/** The number of steps in this path */
+	private int length;
 	
 	/**
 	 * Create an empty path
 	 */
 	public Path() {
-		
+		coordinates = new int[2 * DEFAULT_CAPACITY];
+		first = DEFAULT_CAPACITY / 2;
+	}
+	
+	/**
+	 * Create an empty path with room for the given number of steps, all
+	 * added at the same end, so that it never has to grow
+	 *
+	 * @param capacity The number of steps expected
+	 * @param prepend True if the steps will be prepended, false if appended
+	 */
+	public Path(int capacity, boolean prepend) {
+		coordinates = new int[2 * Math.max(capacity, 1)];
+		first = prepend ? coordinates.length / 2 : 0;
 	}
 
 	/**
@@ -26,7 +49,7 @@ public class Path {
 	 * @return The number of steps in this path
 	 */
 	public int getLength() {
-		return steps.size();
+		return length;
 	}
 	
 	/**
@@ -37,7 +60,7 @@ public class Path {
 	 * @return The step information, the position on the map.
 	 */
 	public Step getStep(int index) {
-		return (Step) steps.get(index);
+		return new Step(getX(index), getY(index));
 	}
 	
 	/**
@@ -47,7 +70,8 @@ public class Path {
 	 * @return The x coordinate at the step
 	 */
 	public int getX(int index) {
-		return getStep(index).x;
+		checkIndex(index);
+		return coordinates[2 * (first + index)];
 	}
 
 	/**
@@ -57,7 +81,8 @@ public class Path {
 	 * @return The y coordinate at the step
 	 */
 	public int getY(int index) {
-		return getStep(index).y;
+		checkIndex(index);
+		return coordinates[2 * (first + index) + 1];
 	}
 	
 	/**
@@ -67,7 +92,13 @@ public class Path {
 	 * @param y The y coordinate of the new step
 	 */
 	public void appendStep(int x, int y) {
-		steps.add(new Step(x,y));
+		if (2 * (first + length) == coordinates.length) {
+			grow();
+		}
+
+		coordinates[2 * (first + length)] = x;
+		coordinates[2 * (first + length) + 1] = y;
+		length++;
 	}
 
 	/**
@@ -77,7 +108,14 @@ public class Path {
 	 * @param y The y coordinate of the new step
 	 */
 	public void prependStep(int x, int y) {
-		steps.add(0, new Step(x, y));
+		if (first == 0) {
+			grow();
+		}
+
+		first--;
+		coordinates[2 * first] = x;
+		coordinates[2 * first + 1] = y;
+		length++;
 	}
 	
 	/**
@@ -88,7 +126,33 @@ public class Path {
 	 * @return True if the path contains the given step
 	 */
 	public boolean contains(int x, int y) {
-		return steps.contains(new Step(x,y));
+		for (int i = 2 * first; i < 2 * (first + length); i += 2) {
+			if ((coordinates[i] == x) && (coordinates[i + 1] == y)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Double the room for the steps, and leave the same room free at both
+	 * ends so that a path built from either end keeps growing in O(1).
+	 */
+	private void grow() {
+		int capacity = 2 * (coordinates.length / 2) + DEFAULT_CAPACITY;
+		int[] grown = new int[2 * capacity];
+		int newFirst = (capacity - length) / 2;
+
+		System.arraycopy(coordinates, 2 * first, grown, 2 * newFirst, 2 * length);
+		coordinates = grown;
+		first = newFirst;
+	}
+
+	private void checkIndex(int index) {
+		if ((index < 0) || (index >= length)) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+		}
 	}
 	
 	/**
@@ -135,7 +199,7 @@ public class Path {
 		 * @see Object#hashCode()
 		 */
 		public int hashCode() {
-			return x*y;
+			return 31 * x + y;
 		}
 
 		/**
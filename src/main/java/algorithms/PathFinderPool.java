@@ -0,0 +1,49 @@
+package algorithms;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A pool of path finders over the same map, one per thread.
+ * <p>
+ * Path finders keep per-tile search state and are not thread safe, so each
+ * thread gets its own instance the first time it asks for a path and keeps
+ * reusing it. Searches then cost only the tiles they reach instead of
+ * allocating the whole node array every time.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class PathFinderPool implements PathFinder {
+
+    /**
+     * The path finder owned by each thread
+     */
+    private final ThreadLocal<PathFinder> pathFinders;
+
+    /**
+     * Create a pool.
+     *
+     * @param factory creates the path finder for a thread
+     */
+    public PathFinderPool(Supplier<? extends PathFinder> factory) {
+        Objects.requireNonNull(factory);
+
+        pathFinders = ThreadLocal.withInitial(factory);
+    }
+
+    /**
+     * @return the path finder confined to the calling thread
+     */
+    public PathFinder get() {
+        return pathFinders.get();
+    }
+
+    /**
+     * @see PathFinder#findPath(Mover, int, int, int, int)
+     */
+    @Override
+    public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
+        return get().findPath(mover, sx, sy, tx, ty);
+    }
+}
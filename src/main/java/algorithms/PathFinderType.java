@@ -0,0 +1,34 @@
+package algorithms;
+
+/**
+ * The path finding implementations the game engine can move the enemies with.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public enum PathFinderType {
+    /**
+     * {@link AStarPathFinder}, sorted open list and closed list
+     */
+    ASTAR,
+    /**
+     * {@link IndexedAStarPathFinder}, binary heap open set and generation stamps
+     */
+    INDEXED_ASTAR,
+    /**
+     * {@link JumpPointPathFinder}, expands only the tiles where a path turns
+     */
+    JUMP_POINT,
+    /**
+     * {@link HierarchicalPathFinder}, plans over the rooms and doors first
+     */
+    HIERARCHICAL,
+    /**
+     * {@link DStarLitePathFinder} for each enemy, repairs the previous search
+     */
+    INCREMENTAL,
+    /**
+     * {@link FlowField}, one search from the target shared by all the enemies
+     */
+    FLOW_FIELD
+}
@@ -0,0 +1,56 @@
+package algorithms;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A path finder that keeps a separate path finder for each mover.
+ * <p>
+ * Incremental path finders, e.g. {@link DStarLitePathFinder}, keep the state of
+ * the previous search to repair it on the next one. They only pay off when they
+ * always follow the same mover, so each mover gets its own the first time it
+ * asks for a path. The path finders are dropped when their mover is no longer
+ * referenced, e.g. a killed enemy.
+ * <p>
+ * Movers are told apart by equality, so they should not override
+ * {@link Object#equals(Object)} in terms of their position.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class PerMoverPathFinder implements PathFinder {
+
+    /**
+     * The path finder of each mover
+     */
+    private final Map<Mover, PathFinder> pathFinders = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Supplier<? extends PathFinder> factory;
+
+    /**
+     * Create a path finder.
+     *
+     * @param factory creates the path finder for a mover
+     */
+    public PerMoverPathFinder(Supplier<? extends PathFinder> factory) {
+        this.factory = Objects.requireNonNull(factory);
+    }
+
+    /**
+     * @return the path finder following the mover
+     */
+    public PathFinder get(Mover mover) {
+        return pathFinders.computeIfAbsent(Objects.requireNonNull(mover), m -> factory.get());
+    }
+
+    /**
+     * @see PathFinder#findPath(Mover, int, int, int, int)
+     */
+    @Override
+    public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
+        return get(mover).findPath(mover, sx, sy, tx, ty);
+    }
+}
@@ -0,0 +1,376 @@
+package algorithms;
+
+import game.Grid;
+import game.gridobjects.Door;
+import game.gridobjects.GridObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The abstract graph of a level: rooms joined by doors.
+ * <p>
+ * A room is a group of connected free tiles that does not cross any door.
+ * Each door is a node of the graph, linked to every other door it shares a
+ * room with by the length of the shortest walk between them inside that room.
+ * The links are computed once, the first time they are needed: opening or
+ * closing a door only changes whether the door can be crossed, see
+ * {@link #updateDoorStates()}.
+ * <p>
+ * Movement is 4-connected, like the enemies in the game engine.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class RoomGraph {
+
+    /**
+     * The value used for tiles that are not in a room or not a door
+     */
+    public static final int NONE = -1;
+
+    private static final int[] DX = {-1, 0, 0, 1};
+    private static final int[] DY = {0, -1, 1, 0};
+
+    private final int width;
+
+    private final int height;
+
+    /**
+     * The room of each tile, {@link #NONE} for walls and doors
+     */
+    private final int[] rooms;
+
+    /**
+     * The door of each tile, {@link #NONE} for the other tiles
+     */
+    private final int[] doorIds;
+
+    private final int roomCount;
+
+    /**
+     * The tile index of each door
+     */
+    private final int[] doorTiles;
+
+    private final Door[] doors;
+
+    /**
+     * Whether each door can be crossed
+     */
+    private final boolean[] open;
+
+    /*
+     * The links of each door: the door at the other end, the number of steps
+     * to get there and the room walked through (NONE if the doors touch)
+     */
+    private int[][] linkedDoors;
+    private int[][] linkCosts;
+    private int[][] linkRooms;
+
+    /**
+     * Whether the links have been computed, see {@link #ensureLinked()}
+     */
+    private volatile boolean linked;
+
+    public RoomGraph(Grid<GridObject> grid) {
+        width = grid.getWidth();
+        height = grid.getHeight();
+
+        rooms = new int[width * height];
+        doorIds = new int[width * height];
+        Arrays.fill(rooms, NONE);
+        Arrays.fill(doorIds, NONE);
+
+        List<Door> doorList = new ArrayList<>();
+        List<Integer> doorTileList = new ArrayList<>();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                GridObject object = grid.get(x, y);
+
+                if (object instanceof Door) {
+                    doorIds[y * width + x] = doorList.size();
+                    doorList.add((Door) object);
+                    doorTileList.add(y * width + x);
+                }
+            }
+        }
+
+        doors = doorList.toArray(new Door[0]);
+        doorTiles = new int[doors.length];
+        for (int i = 0; i < doors.length; i++) {
+            doorTiles[i] = doorTileList.get(i);
+        }
+        open = new boolean[doors.length];
+        updateDoorStates();
+
+        roomCount = labelRooms(grid);
+    }
+
+    /**
+     * Read the state of every door again. This is all that needs to happen
+     * when doors are opened or closed, and it costs O(doors).
+     */
+    public void updateDoorStates() {
+        for (int i = 0; i < doors.length; i++) {
+            open[i] = doors[i].isOpen();
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the room of the tile, or {@link #NONE} for walls and doors
+     */
+    public int getRoom(int x, int y) {
+        return rooms[y * width + x];
+    }
+
+    /**
+     * @return the door on the tile, or {@link #NONE}
+     */
+    public int getDoor(int x, int y) {
+        return doorIds[y * width + x];
+    }
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    public int getDoorCount() {
+        return doors.length;
+    }
+
+    /**
+     * @return the tile index (y * width + x) of the door
+     */
+    public int getDoorTile(int door) {
+        return doorTiles[door];
+    }
+
+    public boolean isDoorOpen(int door) {
+        return open[door];
+    }
+
+    int[] getLinkedDoors(int door) {
+        ensureLinked();
+        return linkedDoors[door];
+    }
+
+    int[] getLinkCosts(int door) {
+        ensureLinked();
+        return linkCosts[door];
+    }
+
+    int[] getLinkRooms(int door) {
+        ensureLinked();
+        return linkRooms[door];
+    }
+
+    /**
+     * Link the doors the first time the links are needed. Walking the rooms
+     * can take a while on a large level, and only the hierarchical path
+     * finder needs the links.
+     */
+    private void ensureLinked() {
+        if (!linked) {
+            synchronized (this) {
+                if (!linked) {
+                    linkDoors();
+                    linked = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Flood fill the free tiles that are not doors.
+     *
+     * @return the number of rooms
+     */
+    private int labelRooms(Grid<GridObject> grid) {
+        int[] queue = new int[width * height];
+        int count = 0;
+
+        for (int tile = 0; tile < rooms.length; tile++) {
+            if (rooms[tile] != NONE || !isRoomTile(grid, tile)) {
+                continue;
+            }
+
+            int head = 0;
+            int tail = 0;
+            rooms[tile] = count;
+            queue[tail++] = tile;
+
+            while (head < tail) {
+                int current = queue[head++];
+
+                for (int i = 0; i < DX.length; i++) {
+                    int neighbour = neighbour(current, i);
+
+                    if (neighbour != NONE && rooms[neighbour] == NONE && isRoomTile(grid, neighbour)) {
+                        rooms[neighbour] = count;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+
+            count++;
+        }
+
+        return count;
+    }
+
+    private boolean isRoomTile(Grid<GridObject> grid, int tile) {
+        return doorIds[tile] == NONE && !grid.isBlocked(tile % width, tile / width);
+    }
+
+    /**
+     * Link every door to the doors it touches and to the doors it shares a
+     * room with, walking each room once from each of its doors.
+     */
+    private void linkDoors() {
+        linkedDoors = new int[doors.length][];
+        linkCosts = new int[doors.length][];
+        linkRooms = new int[doors.length][];
+
+        List<List<int[]>> links = new ArrayList<>();
+        for (int i = 0; i < doors.length; i++) {
+            links.add(new ArrayList<>());
+        }
+
+        int[] distance = new int[width * height];
+        int[] reached = new int[width * height];
+        int[] queue = new int[width * height];
+        int[] bestCost = new int[doors.length];
+        int[] bestRoom = new int[doors.length];
+        int[] linked = new int[doors.length];
+        int[] walkedRooms = new int[DX.length];
+        int generation = 0;
+
+        Arrays.fill(bestCost, Integer.MAX_VALUE);
+
+        for (int door = 0; door < doors.length; door++) {
+            int linkedCount = 0;
+            Arrays.fill(walkedRooms, NONE);
+            int start = doorTiles[door];
+
+            for (int i = 0; i < DX.length; i++) {
+                int neighbour = neighbour(start, i);
+                if (neighbour == NONE) {
+                    continue;
+                }
+
+                // doors next to each other
+                if (doorIds[neighbour] != NONE) {
+                    if (bestCost[doorIds[neighbour]] == Integer.MAX_VALUE) {
+                        linked[linkedCount++] = doorIds[neighbour];
+                    }
+                    bestCost[doorIds[neighbour]] = 1;
+                    bestRoom[doorIds[neighbour]] = NONE;
+                    continue;
+                }
+
+                int room = rooms[neighbour];
+                if (room == NONE) {
+                    continue;
+                }
+
+                // walk the room, unless another side of the door already did
+                if (walked(walkedRooms, i, room)) {
+                    continue;
+                }
+                walkedRooms[i] = room;
+
+                generation++;
+                int head = 0;
+                int tail = 0;
+                reached[neighbour] = generation;
+                distance[neighbour] = 1;
+                queue[tail++] = neighbour;
+
+                while (head < tail) {
+                    int current = queue[head++];
+
+                    for (int j = 0; j < DX.length; j++) {
+                        int next = neighbour(current, j);
+                        if (next == NONE || reached[next] == generation) {
+                            continue;
+                        }
+
+                        int other = doorIds[next];
+                        if (other != NONE) {
+                            if (other != door && distance[current] + 1 < bestCost[other]) {
+                                if (bestCost[other] == Integer.MAX_VALUE) {
+                                    linked[linkedCount++] = other;
+                                }
+                                bestCost[other] = distance[current] + 1;
+                                bestRoom[other] = room;
+                            }
+                        } else if (rooms[next] == room) {
+                            reached[next] = generation;
+                            distance[next] = distance[current] + 1;
+                            queue[tail++] = next;
+                        }
+                    }
+                }
+            }
+
+            for (int i = 0; i < linkedCount; i++) {
+                int other = linked[i];
+                links.get(door).add(new int[]{other, bestCost[other], bestRoom[other]});
+                bestCost[other] = Integer.MAX_VALUE;
+            }
+        }
+
+        for (int door = 0; door < doors.length; door++) {
+            List<int[]> doorLinks = links.get(door);
+
+            linkedDoors[door] = new int[doorLinks.size()];
+            linkCosts[door] = new int[doorLinks.size()];
+            linkRooms[door] = new int[doorLinks.size()];
+
+            for (int i = 0; i < doorLinks.size(); i++) {
+                linkedDoors[door][i] = doorLinks.get(i)[0];
+                linkCosts[door][i] = doorLinks.get(i)[1];
+                linkRooms[door][i] = doorLinks.get(i)[2];
+            }
+        }
+    }
+
+    private static boolean walked(int[] walkedRooms, int sides, int room) {
+        for (int i = 0; i < sides; i++) {
+            if (walkedRooms[i] == room) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the index of the neighbour of the tile in the given direction,
+     * or {@link #NONE} if it is outside the map
+     */
+    int neighbour(int tile, int direction) {
+        int x = tile % width + DX[direction];
+        int y = tile / width + DY[direction];
+
+        if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+            return NONE;
+        }
+
+        return y * width + x;
+    }
+
+    static int directions() {
+        return DX.length;
+    }
+}
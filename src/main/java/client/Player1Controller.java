@@ -15,7 +15,7 @@ public class Player1Controller extends PlayerController {
             model = new Player1Model();
             try {
                 model.initGame();
-                startTimer();
+                startUpdates();
             } catch (UnirestException e) {
                 e.printStackTrace();
             }
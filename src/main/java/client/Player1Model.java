@@ -6,10 +6,12 @@ import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.async.Callback;
 import com.mashape.unirest.http.exceptions.UnirestException;
 import game.Direction;
+import game.LevelCodec;
 import javafx.application.Platform;
 import javafx.geometry.Point2D;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public class Player1Model extends PlayerModel {
@@ -43,10 +45,13 @@ public class Player1Model extends PlayerModel {
         long startTime = System.currentTimeMillis();
 
         try {
-            HttpResponse<JsonNode> response = Unirest.get(String.format("%s/play/move?d=%s", Main.getHost(), direction.getCode())).asJson();
+            HttpResponse<InputStream> response = Unirest.get(String.format("%s/play/move?d=%s", Main.getHost(), direction.getCode()))
+                    .header("accept", LevelCodec.MEDIA_TYPE)
+                    .queryString("since", stateVersion)
+                    .asBinary();
 
-            this.updateLevelFromJsonResponse(response);
-        } catch (UnirestException | IOException | ClassNotFoundException e) {
+            this.updateLevelFromFrame(response);
+        } catch (UnirestException | IOException e) {
             e.printStackTrace();
         }
 
@@ -59,10 +64,13 @@ public class Player1Model extends PlayerModel {
 
     public void shootSync(Direction direction){
         try {
-            HttpResponse<JsonNode> response = Unirest.get(String.format("%s/action/attack?direction=%s", Main.getHost(), direction.getCode())).asJson();
+            HttpResponse<InputStream> response = Unirest.get(String.format("%s/action/attack?direction=%s", Main.getHost(), direction.getCode()))
+                    .header("accept", LevelCodec.MEDIA_TYPE)
+                    .queryString("since", stateVersion)
+                    .asBinary();
 
-            this.updateLevelFromJsonResponse(response);
-        } catch (UnirestException | IOException | ClassNotFoundException e) {
+            this.updateLevelFromFrame(response);
+        } catch (UnirestException | IOException e) {
             e.printStackTrace();
         }
     }
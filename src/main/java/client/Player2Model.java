@@ -4,13 +4,18 @@ import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.JsonNode;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
+import game.LevelCodec;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 public class Player2Model extends PlayerModel {
     public void openDoors(char code) throws UnirestException, IOException, ClassNotFoundException {
-        HttpResponse<JsonNode> response = Unirest.get(String.format("%s/doors/open?type=%C", Main.getHost(), code)).asJson();
+        HttpResponse<InputStream> response = Unirest.get(String.format("%s/doors/open?type=%C", Main.getHost(), code))
+                .header("accept", LevelCodec.MEDIA_TYPE)
+                .queryString("since", stateVersion)
+                .asBinary();
 
-        updateLevelFromJsonResponse(response);
+        updateLevelFromFrame(response);
     }
 }
@@ -1,6 +1,7 @@
 package client;
 
 import com.mashape.unirest.http.exceptions.UnirestException;
+import game.LevelCodec;
 import game.entities.Agent;
 import game.entities.Enemy;
 import game.entities.Entity;
@@ -169,6 +170,46 @@ public abstract class PlayerController {
         return 40;
     }
 
+    /**
+     * Keep the level up to date with the frames the server pushes, or by
+     * polling it if they can't be had or the "client.updates" system
+     * property is "polling".
+     */
+    public void startUpdates() {
+        if ("polling".equals(System.getProperty("client.updates"))) {
+            startTimer();
+            return;
+        }
+
+        try {
+            new StateSubscription(Main.getHost(), new StateSubscription.Listener() {
+                @Override
+                public void frameReceived(LevelCodec.Frame frame) {
+                    Platform.runLater(() -> {
+                        try {
+                            if (!model.updateLevelFromFrame(frame)) {
+                                // a frame was missed
+                                model.updateGridGrid();
+                            }
+                            draw();
+                        } catch (UnirestException | IOException | ClassNotFoundException e) {
+                            e.printStackTrace();
+                        }
+                    });
+                }
+
+                @Override
+                public void subscriptionFailed(Exception e) {
+                    System.out.printf("No updates pushed (%s), polling instead.%n", e.getMessage());
+                    startTimer();
+                }
+            }).start();
+        } catch (IOException e) {
+            e.printStackTrace();
+            startTimer();
+        }
+    }
+
     public void startTimer(){
         Timer timer = new java.util.Timer();
 
@@ -4,31 +4,163 @@ import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.JsonNode;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.request.HttpRequest;
 import game.Entities;
 import game.Grid;
 import game.Level;
+import game.LevelCodec;
 import game.gridobjects.GridObject;
 import utils.Serializer;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class PlayerModel {
+
+    /**
+     * The layouts fetched so far, by hash: the state frames of a level only
+     * have its hash
+     */
+    private static final Map<String, LevelCodec.Layout> LAYOUTS = new ConcurrentHashMap<>();
+
     protected Level level;
 
+    /**
+     * The state version of the level, -1 before the first one
+     */
+    protected long stateVersion = -1;
+
+    /**
+     * The ETag of the last status, and the state version it came with
+     */
+    private String statusETag;
+    private long statusETagVersion = -1;
+
+    /**
+     * @return the state version of the level, -1 before the first one
+     */
+    public synchronized long getStateVersion() {
+        return stateVersion;
+    }
+
     public Grid<GridObject> getGameGrid() {
         return level.getGameGrid();
     }
 
     public void updateGridGrid() throws UnirestException, IOException, ClassNotFoundException {
-        HttpResponse<JsonNode> jsonResponseStatus = Unirest.get(Main.getHost() + "/status")
-                .header("accept", "application/json")
-                .asJson();
+        HttpRequest request = Unirest.get(Main.getHost() + "/state")
+                .header("accept", LevelCodec.MEDIA_TYPE)
+                .queryString("since", stateVersion);
+
+        // the level hasn't changed since then if the ETag still matches
+        String eTag = getStatusETag();
+        if (eTag != null) {
+            request.header("If-None-Match", eTag);
+        }
 
-        String serializedLevel = jsonResponseStatus.getBody().getObject().getString("serializedLevel");
+        HttpResponse<InputStream> response = request.asBinary();
+        if (response.getStatus() == 304) {
+            return;
+        }
 
-        level = (Level) Serializer.fromString(serializedLevel);
+        updateLevelFromFrame(response);
+
+        synchronized (this) {
+            statusETag = response.getHeaders().getFirst("ETag");
+            statusETagVersion = stateVersion;
+        }
+    }
+
+    /**
+     * @return the ETag of the last status, if it is the one of our state
+     * version
+     */
+    private synchronized String getStatusETag() {
+        return stateVersion >= 0 && statusETagVersion == stateVersion ? statusETag : null;
+    }
+
+    /**
+     * Bring the level up to date with a {@link LevelCodec} frame, either the
+     * whole level or the changes since our state version.
+     */
+    protected void updateLevelFromFrame(HttpResponse<InputStream> response) throws IOException {
+        try (InputStream body = response.getBody()) {
+            updateLevelFromFrame(LevelCodec.decode(body));
+        }
+    }
+
+    /**
+     * Bring the level up to date with a frame, if it applies to it. The
+     * layout of a state frame is fetched the first time it is seen.
+     *
+     * @return false if the frame holds the changes since a version we don't
+     * have, and the whole state is needed: our state version is then -1
+     */
+    public synchronized boolean updateLevelFromFrame(LevelCodec.Frame frame) throws IOException {
+        if (frame.isDelta() && frame.getBaseVersion() != stateVersion) {
+            // another frame has been applied in the meantime, or one has
+            // been missed
+            if (frame.getStateVersion() <= stateVersion) {
+                return true;
+            }
+
+            stateVersion = -1;
+            return false;
+        }
+
+        String layoutHash = frame.getLayoutHash();
+        level = frame.applyTo(level, layoutHash == null ? null : getLayout(layoutHash));
+        stateVersion = frame.getStateVersion();
 
         assert level != null;
+
+        return true;
+    }
+
+    private LevelCodec.Layout getLayout(String hash) throws IOException {
+        LevelCodec.Layout layout = LAYOUTS.get(hash);
+        if (layout != null) {
+            return layout;
+        }
+
+        long startTime = System.currentTimeMillis();
+
+        layout = fetchLayout(hash);
+
+        // the layout is addressed by its content
+        if (!layout.getHash().equals(hash)) {
+            throw new IOException("Fetched the layout " + layout.getHash() + " for " + hash);
+        }
+
+        System.out.println((System.currentTimeMillis() - startTime) + " ms elapsed for the layout request.");
+
+        LAYOUTS.put(hash, layout);
+
+        return layout;
+    }
+
+    /**
+     * Fetch a layout from the server, the first time its hash is seen.
+     */
+    protected LevelCodec.Layout fetchLayout(String hash) throws IOException {
+        HttpResponse<InputStream> response;
+        try {
+            response = Unirest.get(Main.getHost() + "/layout/" + hash)
+                    .header("accept", LevelCodec.MEDIA_TYPE)
+                    .asBinary();
+        } catch (UnirestException e) {
+            throw new IOException("Can't fetch the layout " + hash, e);
+        }
+
+        if (response.getStatus() != 200) {
+            throw new IOException("Can't fetch the layout " + hash + ": " + response.getStatus());
+        }
+
+        try (InputStream body = response.getBody()) {
+            return LevelCodec.decodeLayout(body);
+        }
     }
 
     public void updateEntityList() throws UnirestException, IOException, ClassNotFoundException {
@@ -60,6 +192,7 @@ public abstract class PlayerModel {
 
         //noinspection unchecked
         level = (Level) Serializer.fromString(serializedLevel);
+        stateVersion = jsonResponseStatus.getBody().getObject().getLong("stateVersion");
 
         assert level != null;
     }
@@ -67,17 +200,17 @@ public abstract class PlayerModel {
     public void initGame() throws UnirestException {
         long startTime = System.currentTimeMillis();
 
-        HttpResponse<JsonNode> jsonResponse = Unirest.get(Main.getHost() + "/play")
-                .header("accept", "application/json")
-                .asJson();
+        HttpResponse<InputStream> response = Unirest.get(Main.getHost() + "/play")
+                .header("accept", LevelCodec.MEDIA_TYPE)
+                .asBinary();
 
         long estimatedTime = System.currentTimeMillis() - startTime;
 
         System.out.println(estimatedTime + " ms elapsed for the init request.");
 
         try {
-            updateLevelFromJsonResponse(jsonResponse);
-        } catch (IOException | ClassNotFoundException e) {
+            updateLevelFromFrame(response);
+        } catch (IOException e) {
             e.printStackTrace();
         }
 
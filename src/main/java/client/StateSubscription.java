@@ -0,0 +1,134 @@
+package client;
+
+import game.LevelCodec;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The frames pushed by the server on /events, read on a thread of their own.
+ * <p>
+ * When the server ends the stream the subscription is made again; when it
+ * can't be made, e.g. the server is an older one, the listener is told and
+ * the subscription stops, for the client to poll instead.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class StateSubscription implements Runnable {
+
+    public interface Listener {
+        /**
+         * A frame was pushed, on the thread of the subscription.
+         */
+        void frameReceived(LevelCodec.Frame frame);
+
+        /**
+         * The subscription could not be made and has stopped.
+         */
+        void subscriptionFailed(Exception e);
+    }
+
+    private static final String EVENT_NAME = "frame";
+
+    /**
+     * How long to wait for the server to answer, not for the next event
+     */
+    private static final int CONNECT_TIMEOUT = 5000;
+
+    private final URL url;
+
+    private final Listener listener;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param host     the server, as in {@link Main#getHost()}
+     * @param listener told of the frames
+     */
+    public StateSubscription(String host, Listener listener) throws IOException {
+        this.url = new URL(host + "/events");
+        this.listener = listener;
+    }
+
+    /**
+     * Start reading the frames on a daemon thread.
+     */
+    public void start() {
+        Thread thread = new Thread(this, "state-subscription");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop telling the listener of the frames. The thread ends with the next
+     * event, as a stream being read can't be closed from another thread
+     * without waiting for it.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                subscribe();
+            } catch (IOException e) {
+                if (running) {
+                    running = false;
+                    listener.subscriptionFailed(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the events until the stream ends.
+     */
+    private void subscribe() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setRequestProperty("Accept", "text/event-stream");
+
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Subscription refused with " + connection.getResponseCode());
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String event = null;
+            StringBuilder data = new StringBuilder();
+
+            for (String line; running && (line = reader.readLine()) != null; ) {
+                if (line.isEmpty()) {
+                    if (running && EVENT_NAME.equals(event) && data.length() > 0) {
+                        byte[] frame = Base64.getDecoder().decode(data.toString());
+                        listener.frameReceived(LevelCodec.decode(ByteBuffer.wrap(frame)));
+                    }
+
+                    event = null;
+                    data.setLength(0);
+                } else if (line.startsWith("event:")) {
+                    event = field(line);
+                } else if (line.startsWith("data:")) {
+                    data.append(field(line));
+                }
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String field(String line) {
+        int start = line.indexOf(':') + 1;
+
+        return line.startsWith(" ", start) ? line.substring(start + 1) : line.substring(start);
+    }
+}
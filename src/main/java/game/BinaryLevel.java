@@ -0,0 +1,250 @@
+package game;
+
+import game.entities.Agent;
+import game.entities.Enemy;
+import game.entities.Entity;
+import game.gridobjects.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The compiled form of a level, which is read without parsing any text.
+ * <p>
+ * All the numbers are big-endian ints, unless said otherwise:
+ * <pre>
+ * magic, version
+ * width, height
+ * door count, then for each door in row order: type (byte), closed (byte)
+ * entity count, then for each entity: kind (byte, see below), x, y
+ * width * height tiles, row by row (bytes)
+ * </pre>
+ * The two low bits of a tile are the object on it (none, wall, exit or door),
+ * the next two are the floor (none, floor or grass). The doors take their
+ * type and state from the door table, in the order they are found.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class BinaryLevel {
+
+    /**
+     * The extension of the compiled levels
+     */
+    public static final String EXTENSION = ".lvl";
+
+    private static final int MAGIC = 0x4C564C00; // "LVL\0"
+
+    private static final int VERSION = 1;
+
+    /**
+     * The codes of the tiles and of the entities, also used by
+     * {@link LevelCodec}
+     */
+    static final int OBJECT_MASK = 0x3;
+    static final int NO_OBJECT = 0;
+    static final int WALL = 1;
+    static final int EXIT = 2;
+    static final int DOOR = 3;
+
+    static final int FLOOR_SHIFT = 2;
+    static final int NO_FLOOR = 0;
+    static final int FLOOR = 1;
+    static final int GRASS = 2;
+
+    static final int AGENT = 0;
+    static final int ENEMY = 1;
+
+    private BinaryLevel() {
+    }
+
+    /**
+     * Write a level in the compiled form.
+     *
+     * @param level  the level
+     * @param stream where to write it, left open
+     * @throws IOException if the stream can't be written
+     * @throws IllegalArgumentException if the level has objects or entities
+     *                                  the format doesn't know
+     */
+    public static void write(Level level, OutputStream stream) throws IOException {
+        Grid<GridObject> objects = level.getGameGrid();
+        Grid<Floor> floors = level.getFloorGrid();
+        int width = objects.getWidth();
+        int height = objects.getHeight();
+
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(width);
+        out.writeInt(height);
+
+        int[] doors = new int[1];
+        objects.forEach((object, x, y) -> {
+            if (object instanceof Door) {
+                doors[0]++;
+            }
+        });
+
+        out.writeInt(doors[0]);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                GridObject object = objects.get(x, y);
+
+                if (object instanceof Door) {
+                    out.writeByte(((Door) object).getDoorType());
+                    out.writeByte(object.isBlocking() ? 1 : 0);
+                }
+            }
+        }
+
+        Entities entities = level.getEntities();
+        out.writeInt(entities.size());
+        for (Entity entity : entities) {
+            out.writeByte(entityKind(entity));
+            out.writeInt((int) entity.getX());
+            out.writeInt((int) entity.getY());
+        }
+
+        byte[] row = new byte[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = (byte) (objectCode(objects.get(x, y)) | floorCode(floors.get(x, y)) << FLOOR_SHIFT);
+            }
+
+            out.write(row);
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Map a compiled level file into memory and read it.
+     *
+     * @param file the compiled level
+     * @return the level
+     * @throws IOException if the file can't be read or is not a compiled level
+     */
+    public static Level map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            return read(buffer);
+        }
+    }
+
+    /**
+     * Read a compiled level from its bytes.
+     *
+     * @param buffer the bytes of the level, from its position
+     * @return the level
+     * @throws IOException if the bytes are not a compiled level
+     */
+    public static Level read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a compiled level, or compiled by another version");
+            }
+
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+
+            Door[] doors = new Door[buffer.getInt()];
+            for (int i = 0; i < doors.length; i++) {
+                char type = (char) (buffer.get() & 0xFF);
+                doors[i] = new Door(type, buffer.get() != 0);
+            }
+
+            Entities entities = new Entities();
+            int entityCount = buffer.getInt();
+            for (int i = 0; i < entityCount; i++) {
+                int kind = buffer.get();
+                if (kind != AGENT && kind != ENEMY) {
+                    throw new IOException("Unknown entity kind " + kind);
+                }
+
+                Entity entity = kind == AGENT ? new Agent() : new Enemy();
+                entity.setPosition(buffer.getInt(), buffer.getInt());
+                entities.add(entity);
+            }
+
+            // filled as arrays and indexed once, without a change per tile
+            GridObject[] objects = new GridObject[width * height];
+            Floor[] floors = new Floor[width * height];
+            int door = 0;
+
+            for (int index = 0; index < objects.length; index++) {
+                int tile = buffer.get();
+
+                switch (tile & OBJECT_MASK) {
+                    case WALL:
+                        objects[index] = Wall.INSTANCE;
+                        break;
+                    case EXIT:
+                        objects[index] = Exit.INSTANCE;
+                        break;
+                    case DOOR:
+                        objects[index] = doors[door++];
+                        break;
+                    default:
+                }
+
+                switch (tile >>> FLOOR_SHIFT & OBJECT_MASK) {
+                    case FLOOR:
+                        floors[index] = Floor.INSTANCE;
+                        break;
+                    case GRASS:
+                        floors[index] = Grass.INSTANCE;
+                        break;
+                    default:
+                }
+            }
+
+            return new Level(new Grid<>(GridObject.class, width, height, objects),
+                    new Grid<>(Floor.class, width, height, floors), entities);
+        } catch (RuntimeException e) {
+            // e.g. the file ends early or the door table is too short
+            throw new IOException("Corrupted compiled level", e);
+        }
+    }
+
+    static int objectCode(GridObject object) {
+        if (object == null) {
+            return NO_OBJECT;
+        } else if (object instanceof Wall) {
+            return WALL;
+        } else if (object instanceof Exit) {
+            return EXIT;
+        } else if (object instanceof Door) {
+            return DOOR;
+        }
+
+        throw new IllegalArgumentException("Unknown object " + object.getClass().getName());
+    }
+
+    static int floorCode(Floor floor) {
+        if (floor == null) {
+            return NO_FLOOR;
+        } else if (floor instanceof Grass) {
+            return GRASS;
+        }
+
+        return FLOOR;
+    }
+
+    static int entityKind(Entity entity) {
+        if (entity instanceof Agent) {
+            return AGENT;
+        } else if (entity instanceof Enemy) {
+            return ENEMY;
+        }
+
+        throw new IllegalArgumentException("Unknown entity " + entity.getClass().getName());
+    }
+}
@@ -0,0 +1,402 @@
+package game;
+
+import game.entities.Character;
+import game.entities.Entity;
+import game.gridobjects.Door;
+import game.gridobjects.GridObject;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * The state version of a game and the changes made at each version, kept
+ * for the last versions only.
+ * <p>
+ * After every move of the game {@link #commit(GameStatus)} compares the level
+ * with how it was at the last version: if anything changed, the version goes
+ * up and the changes are recorded, encoded as in {@link LevelCodec}. A client
+ * that knows an earlier version is then sent the changes since that version,
+ * see {@link #since(long)}, instead of the whole level.
+ * <p>
+ * The entities are only ever removed during a game, so a change refers to an
+ * entity by its index in the list at the moment the change is applied.
+ * <p>
+ * A move changes the level before it is committed, so the frames of a version
+ * are encoded from the copy kept here, never from the level itself: a frame
+ * taken in the middle of a move would have changes its delta then applies a
+ * second time.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+class ChangeLog {
+
+    /**
+     * The changes of a version
+     */
+    private static class Block {
+        private final long version;
+        private final byte[] changes;
+        private final int count;
+
+        Block(long version, byte[] changes, int count) {
+            this.version = version;
+            this.changes = changes;
+            this.count = count;
+        }
+    }
+
+    /**
+     * The changes since a version, see {@link #since(long)}
+     */
+    static class Changes {
+        private final byte[] changes;
+        private final int count;
+
+        Changes(byte[] changes, int count) {
+            this.changes = changes;
+            this.count = count;
+        }
+
+        /**
+         * @return the changes, one after the other
+         */
+        byte[] getChanges() {
+            return changes;
+        }
+
+        int getCount() {
+            return count;
+        }
+    }
+
+    private final int maxVersions;
+
+    private final int maxBytes;
+
+    private final ArrayDeque<Block> blocks = new ArrayDeque<>();
+
+    /**
+     * The bytes of all the blocks
+     */
+    private int bytes;
+
+    private long version;
+
+    /**
+     * The earliest version the changes are known since
+     */
+    private long oldestVersion;
+
+    /**
+     * The level as of the current version
+     */
+    private Level level;
+    private Entity[] entities = new Entity[0];
+    private int[] entityStates = new int[0];
+    private Door[] doors = new Door[0];
+    private int[] doorTiles = new int[0];
+    private boolean[] doorsClosed = new boolean[0];
+    private GameStatus status;
+
+    /**
+     * The snapshot frame of the current version, once encoded
+     */
+    private byte[] snapshot;
+
+    /**
+     * The layout of the level, once encoded
+     */
+    private LevelCodec.Layout layout;
+
+    /**
+     * Where the changes being found are written
+     */
+    private ByteBuffer pending = ByteBuffer.allocate(256);
+    private int pendingCount;
+
+    /**
+     * @param maxVersions the number of versions to keep the changes of
+     * @param maxBytes    the size of the changes kept, at most
+     */
+    ChangeLog(int maxVersions, int maxBytes) {
+        if (maxVersions < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("The change log must keep something");
+        }
+
+        this.maxVersions = maxVersions;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Start following another level, e.g. a new game. The version goes up,
+     * and the clients knowing an earlier version need the whole level.
+     */
+    synchronized void reset(Level level, GameStatus status) {
+        this.level = level;
+        this.status = status;
+
+        Entities list = level.getEntities();
+        entities = list.toArray(new Entity[0]);
+        entityStates = new int[3 * entities.length];
+        for (int i = 0; i < entities.length; i++) {
+            saveState(i, entities[i]);
+        }
+
+        Grid<GridObject> grid = level.getGameGrid();
+        int[] count = new int[1];
+        grid.forEachIndexed((object, index) -> {
+            if (object instanceof Door) {
+                count[0]++;
+            }
+        });
+
+        doors = new Door[count[0]];
+        doorTiles = new int[count[0]];
+        doorsClosed = new boolean[count[0]];
+        count[0] = 0;
+        grid.forEachIndexed((object, index) -> {
+            if (object instanceof Door) {
+                doors[count[0]] = (Door) object;
+                doorTiles[count[0]] = index;
+                doorsClosed[count[0]++] = object.isBlocking();
+            }
+        });
+
+        blocks.clear();
+        bytes = 0;
+        version++;
+        oldestVersion = version;
+        snapshot = null;
+        layout = null;
+    }
+
+    /**
+     * Record what changed since the last version, if anything, as a new
+     * version.
+     *
+     * @param status the status of the game now
+     * @return true if anything changed
+     */
+    synchronized boolean commit(GameStatus status) {
+        boolean changed = status != this.status;
+        this.status = status;
+
+        findDoorChanges();
+        findEntityChanges();
+
+        if (!changed && pendingCount == 0) {
+            return false;
+        }
+
+        version++;
+        snapshot = null;
+        blocks.addLast(new Block(version, Arrays.copyOf(pending.array(), pending.position()), pendingCount));
+        bytes += pending.position();
+        pending.clear();
+        pendingCount = 0;
+
+        while (blocks.size() > maxVersions || (bytes > maxBytes && blocks.size() > 1)) {
+            Block oldest = blocks.removeFirst();
+            bytes -= oldest.changes.length;
+            oldestVersion = oldest.version;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the current version
+     */
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the snapshot frame of the current version, or null if it
+     * hasn't been encoded yet
+     */
+    synchronized byte[] getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Keep the snapshot frame of the current version, until the version
+     * goes up.
+     */
+    synchronized void setSnapshot(byte[] snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * @return the layout of the level, or null if it hasn't been encoded yet
+     */
+    synchronized LevelCodec.Layout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Keep the layout of the level, until another one is followed.
+     */
+    synchronized void setLayout(LevelCodec.Layout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * @return the level followed
+     */
+    synchronized Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the status of the game as of the current version
+     */
+    synchronized GameStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return whether each door is closed as of the current version, in row
+     * order; the array must not be changed
+     */
+    synchronized boolean[] getDoorsClosed() {
+        return doorsClosed;
+    }
+
+    /**
+     * @return the entities as of the current version, in order; the array
+     * must not be changed
+     */
+    synchronized Entity[] getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return the x, y and health of each entity as of the current version,
+     * three ints per entity; the array must not be changed
+     */
+    synchronized int[] getEntityStates() {
+        return entityStates;
+    }
+
+    /**
+     * Return the changes made after a version.
+     *
+     * @param since the version the client knows
+     * @return the changes, or null if they are not known any more or the
+     * version is not one of this game
+     */
+    synchronized Changes since(long since) {
+        if (since < oldestVersion || since > version) {
+            return null;
+        }
+
+        int size = 0;
+        int count = 0;
+        for (Block block : blocks) {
+            if (block.version > since) {
+                size += block.changes.length;
+                count += block.count;
+            }
+        }
+
+        byte[] changes = new byte[size];
+        int offset = 0;
+        for (Iterator<Block> iterator = blocks.descendingIterator(); iterator.hasNext(); ) {
+            Block block = iterator.next();
+            if (block.version <= since) {
+                break;
+            }
+
+            offset += block.changes.length;
+            System.arraycopy(block.changes, 0, changes, size - offset, block.changes.length);
+        }
+
+        return new Changes(changes, count);
+    }
+
+    private void findDoorChanges() {
+        for (int i = 0; i < doors.length; i++) {
+            boolean closed = doors[i].isBlocking();
+
+            if (closed != doorsClosed[i]) {
+                doorsClosed[i] = closed;
+
+                ensurePending(1 + 4 + 1);
+                pending.put(LevelCodec.DOOR_CHANGED).putInt(doorTiles[i]).put((byte) (closed ? 1 : 0));
+                pendingCount++;
+            }
+        }
+    }
+
+    /**
+     * Walk the entities as of the last version next to the current ones: the
+     * current ones are the same, less the removed ones.
+     */
+    private void findEntityChanges() {
+        Entities list = level.getEntities();
+        int kept = 0;
+
+        for (int i = 0; i < entities.length; i++) {
+            if (kept < list.size() && list.get(kept) == entities[i]) {
+                findStateChanges(kept, i, entities[i]);
+                entities[kept] = entities[i];
+                System.arraycopy(entityStates, 3 * i, entityStates, 3 * kept, 3);
+                kept++;
+            } else {
+                ensurePending(1 + 4);
+                pending.put(LevelCodec.ENTITY_REMOVED).putInt(kept);
+                pendingCount++;
+            }
+        }
+
+        if (kept != entities.length) {
+            entities = Arrays.copyOf(entities, kept);
+            entityStates = Arrays.copyOf(entityStates, 3 * kept);
+        }
+    }
+
+    private void findStateChanges(int index, int previous, Entity entity) {
+        int x = (int) entity.getX();
+        int y = (int) entity.getY();
+        int health = health(entity);
+
+        if (x != entityStates[3 * previous] || y != entityStates[3 * previous + 1]) {
+            ensurePending(1 + 4 + 4 + 4);
+            pending.put(LevelCodec.ENTITY_MOVED).putInt(index).putInt(x).putInt(y);
+            pendingCount++;
+        }
+
+        if (health != entityStates[3 * previous + 2]) {
+            ensurePending(1 + 4 + 4);
+            pending.put(LevelCodec.ENTITY_DAMAGED).putInt(index).putInt(health);
+            pendingCount++;
+        }
+
+        entityStates[3 * previous] = x;
+        entityStates[3 * previous + 1] = y;
+        entityStates[3 * previous + 2] = health;
+    }
+
+    private void saveState(int index, Entity entity) {
+        entityStates[3 * index] = (int) entity.getX();
+        entityStates[3 * index + 1] = (int) entity.getY();
+        entityStates[3 * index + 2] = health(entity);
+    }
+
+    private static int health(Entity entity) {
+        return entity instanceof Character ? ((Character) entity).getHealth() : 0;
+    }
+
+    private void ensurePending(int size) {
+        if (pending.remaining() < size) {
+            ByteBuffer grown = ByteBuffer.allocate(2 * pending.capacity() + size);
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+    }
+}
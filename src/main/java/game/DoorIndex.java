@@ -0,0 +1,177 @@
+package game;
+
+import game.gridobjects.Door;
+import game.gridobjects.GridObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The doors of a grid grouped by type, found once when the level is loaded.
+ * <p>
+ * Each type has the list of its doors and a {@link TileMask} of their tiles,
+ * so opening or closing a type of doors costs O(doors of the type) and never
+ * walks the grid. The types already as asked are left alone, and the version
+ * of the grid changes once per call at most, so that the paths found are
+ * only thrown away when a door has actually moved.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class DoorIndex {
+
+    private final Grid<GridObject> grid;
+
+    private final Map<Character, DoorType> types = new LinkedHashMap<>();
+
+    /**
+     * The types changed by {@link #openOnly(char)}, reused across calls
+     */
+    private final DoorType[] changedTypes;
+    private final TileMask[] changedMasks;
+    private final boolean[] changedClosed;
+
+    public DoorIndex(Grid<GridObject> grid) {
+        this.grid = grid;
+
+        Map<Character, List<Door>> doors = new LinkedHashMap<>();
+        Map<Character, int[]> tiles = new LinkedHashMap<>();
+
+        // the grid is walked row by row, so the tiles are in ascending order
+        grid.forEach((object, x, y) -> {
+            if (!(object instanceof Door)) {
+                return;
+            }
+
+            Door door = (Door) object;
+            List<Door> typeDoors = doors.computeIfAbsent(door.getDoorType(), type -> new ArrayList<>());
+            int[] typeTiles = tiles.computeIfAbsent(door.getDoorType(), type -> new int[8]);
+
+            if (typeDoors.size() == typeTiles.length) {
+                typeTiles = Arrays.copyOf(typeTiles, 2 * typeTiles.length);
+                tiles.put(door.getDoorType(), typeTiles);
+            }
+
+            typeTiles[typeDoors.size()] = y * grid.getWidth() + x;
+            typeDoors.add(door);
+        });
+
+        doors.forEach((type, typeDoors) -> types.put(type,
+                new DoorType(typeDoors.toArray(new Door[0]), new TileMask(tiles.get(type), typeDoors.size()))));
+
+        changedTypes = new DoorType[types.size()];
+        changedMasks = new TileMask[types.size()];
+        changedClosed = new boolean[types.size()];
+    }
+
+    /**
+     * Open all the doors of a type and close the others.
+     *
+     * @param doorType the door type to open
+     * @return true if any door was opened or closed
+     */
+    public boolean openOnly(char doorType) {
+        int count = 0;
+
+        for (Map.Entry<Character, DoorType> entry : types.entrySet()) {
+            DoorType doors = entry.getValue();
+            boolean closed = entry.getKey() != doorType;
+
+            if (!doors.isAll(closed)) {
+                changedTypes[count] = doors;
+                changedMasks[count] = doors.mask;
+                changedClosed[count++] = closed;
+            }
+        }
+
+        if (count == 0) {
+            return false;
+        }
+
+        int changed = count;
+        grid.changeBlocking(changedMasks, changedClosed, changed, () -> {
+            for (int i = 0; i < changed; i++) {
+                changedTypes[i].setClosed(changedClosed[i]);
+            }
+        });
+
+        return true;
+    }
+
+    /**
+     * Close all the doors of a type.
+     *
+     * @param doorType the door type to close
+     * @return true if any door was closed
+     */
+    public boolean close(char doorType) {
+        DoorType doors = types.get(doorType);
+
+        if (doors == null || doors.isAll(true)) {
+            return false;
+        }
+
+        grid.changeBlocking(doors.mask, true, () -> doors.setClosed(true));
+
+        return true;
+    }
+
+    /**
+     * @return the doors of a type, empty if there are none
+     */
+    public Door[] getDoors(char doorType) {
+        DoorType doors = types.get(doorType);
+
+        return doors == null ? new Door[0] : doors.doors.clone();
+    }
+
+    /**
+     * @return the number of doors of all types
+     */
+    public int getDoorCount() {
+        int count = 0;
+
+        for (DoorType doors : types.values()) {
+            count += doors.doors.length;
+        }
+
+        return count;
+    }
+
+    private static class DoorType {
+        private final Door[] doors;
+
+        private final TileMask mask;
+
+        DoorType(Door[] doors, TileMask mask) {
+            this.doors = doors;
+            this.mask = mask;
+        }
+
+        /**
+         * @return true if all the doors are closed, or all open
+         */
+        boolean isAll(boolean closed) {
+            for (Door door : doors) {
+                if (door.isClosed() != closed) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        void setClosed(boolean closed) {
+            for (Door door : doors) {
+                if (closed) {
+                    door.close();
+                } else {
+                    door.open();
+                }
+            }
+        }
+    }
+}
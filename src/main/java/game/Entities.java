@@ -3,30 +3,262 @@ package game;
 import game.entities.Agent;
 import game.entities.Enemy;
 import game.entities.Entity;
+import game.interfaces.PositionListener;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
+/**
+ * The entities of a level.
+ * <p>
+ * Besides the list, the entities are kept in a {@link SpatialHash} that
+ * follows them when they move, and in a list per type, so finding the
+ * entities at a tile, along a ray or near a point doesn't scan the list.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
 public class Entities extends ArrayList<Entity> {
+
+    /**
+     * The indexes are not serialized, they are built again when needed
+     */
+    private transient SpatialHash positions;
+
+    private transient List<Enemy> enemies;
+
+    private transient List<Agent> agents;
+
+    private transient PositionListener positionListener;
+
+    /**
+     * @return the enemies, a read-only view that follows the entities
+     */
     public List<Enemy> getEnemies() {
-        List<Enemy> enemies = new ArrayList<>();
-        for (Entity entity : this) {
-            if (entity instanceof Enemy) {
-                enemies.add((Enemy) entity);
+        ensureIndexed();
+
+        return Collections.unmodifiableList(enemies);
+    }
+
+    /**
+     * @return the agents, a read-only view that follows the entities
+     */
+    public List<Agent> getAgents() {
+        ensureIndexed();
+
+        return Collections.unmodifiableList(agents);
+    }
+
+    /**
+     * @return the entities on the tile at x, y
+     */
+    public List<Entity> getAt(int x, int y) {
+        ensureIndexed();
+
+        return positions.get(x, y);
+    }
+
+    /**
+     * Return the entities on the tiles next to x, y in a direction, the
+     * closest first.
+     *
+     * @param x         the x coordinate of the start, which is not included
+     * @param y         the y coordinate of the start, which is not included
+     * @param direction the direction of the ray
+     * @param length    the number of tiles to look at
+     * @return the entities found
+     */
+    public List<Entity> getOnRay(int x, int y, Direction direction, int length) {
+        ensureIndexed();
+
+        List<Entity> found = new ArrayList<>();
+        int dx = direction.getVector().getX();
+        int dy = direction.getVector().getY();
+
+        for (int i = 1; i <= length; i++) {
+            found.addAll(positions.get(x + i * dx, y + i * dy));
+        }
+
+        return found;
+    }
+
+    /**
+     * @return the entities closer than the radius to x, y
+     */
+    public List<Entity> getNear(double x, double y, double radius) {
+        ensureIndexed();
+
+        return positions.getNear(x, y, radius);
+    }
+
+    @Override
+    public boolean add(Entity entity) {
+        super.add(entity);
+        indexed(entity);
+
+        return true;
+    }
+
+    @Override
+    public void add(int index, Entity entity) {
+        super.add(index, entity);
+        reindex();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Entity> entities) {
+        for (Entity entity : entities) {
+            add(entity);
+        }
+
+        return !entities.isEmpty();
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Entity> entities) {
+        boolean changed = super.addAll(index, entities);
+        reindex();
+
+        return changed;
+    }
+
+    @Override
+    public Entity set(int index, Entity entity) {
+        Entity previous = super.set(index, entity);
+        reindex();
+
+        return previous;
+    }
+
+    @Override
+    public Entity remove(int index) {
+        Entity entity = super.remove(index);
+        unindexed(entity);
+
+        return entity;
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        int index = indexOf(object);
+        if (index == -1) {
+            return false;
+        }
+
+        remove(index);
+
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> entities) {
+        boolean changed = super.removeAll(entities);
+        reindex();
+
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> entities) {
+        boolean changed = super.retainAll(entities);
+        reindex();
+
+        return changed;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Entity> filter) {
+        boolean changed = super.removeIf(filter);
+        reindex();
+
+        return changed;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Entity> operator) {
+        super.replaceAll(operator);
+        reindex();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        super.removeRange(fromIndex, toIndex);
+        reindex();
+    }
+
+    @Override
+    public void clear() {
+        if (positions != null) {
+            for (Entity entity : this) {
+                entity.setPositionListener(null);
             }
         }
 
-        return enemies;
+        super.clear();
+        reindex();
     }
 
-    public List<Agent> getAgents(){
-        List<Agent> agents = new ArrayList<>();
+    private void ensureIndexed() {
+        if (positions == null) {
+            reindex();
+        }
+    }
+
+    /**
+     * Build the indexes again from the list.
+     */
+    private void reindex() {
+        if (positions == null) {
+            positions = new SpatialHash();
+            enemies = new ArrayList<>();
+            agents = new ArrayList<>();
+            positionListener = (entity, oldX, oldY) -> positions.move(entity, oldX, oldY);
+        } else {
+            positions.clear();
+            enemies.clear();
+            agents.clear();
+        }
+
         for (Entity entity : this) {
-            if (entity instanceof Agent) {
-                agents.add((Agent) entity);
-            }
+            indexed(entity);
         }
+    }
+
+    private void indexed(Entity entity) {
+        if (positions == null) {
+            reindex();
+            return;
+        }
+
+        positions.add(entity);
+        entity.setPositionListener(positionListener);
 
-        return agents;
+        if (entity instanceof Enemy) {
+            enemies.add((Enemy) entity);
+        }
+        if (entity instanceof Agent) {
+            agents.add((Agent) entity);
+        }
+    }
+
+    private void unindexed(Entity entity) {
+        if (positions == null) {
+            reindex();
+            return;
+        }
+
+        positions.remove(entity);
+        entity.setPositionListener(null);
+
+        if (entity instanceof Enemy) {
+            enemies.remove(entity);
+        }
+        if (entity instanceof Agent) {
+            agents.remove(entity);
+        }
     }
 }
@@ -5,15 +5,22 @@ import game.entities.Agent;
 import game.entities.Character;
 import game.entities.Enemy;
 import game.entities.Entity;
-import game.gridobjects.Door;
 import game.gridobjects.Exit;
 import game.gridobjects.GridObject;
+import game.interfaces.StateListener;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * GameEngine
+ * <p>
+ * The moves are made holding the lock of the engine, and change the level
+ * before their state version is committed: hold the lock to read the level
+ * as of {@link #getStateVersion()}.
  *
  * @author stefano
  * @version 1.0.0
@@ -22,6 +29,33 @@ public class GameEngine implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The maximum depth the path finders search before giving up
+     */
+    private static final int MAX_SEARCH_DISTANCE = 500;
+
+    /**
+     * The mover passed to the flow field on behalf of all the enemies
+     */
+    private static final Mover ENEMY_MOVER = new UnitMover();
+
+    /**
+     * The default number of paths kept in the path cache
+     */
+    public static final int DEFAULT_PATH_CACHE_SIZE = 1024;
+
+    /**
+     * The number of enemies below which planning is not split any further
+     */
+    private static final int PLANNING_THRESHOLD = 4;
+
+    /**
+     * The number of state versions, and the size of the changes, kept for
+     * the clients asking for the changes since a version
+     */
+    private static final int LOGGED_VERSIONS = 1024;
+    private static final int LOGGED_BYTES = 4 * 1024 * 1024;
+
     /**
      * The agent
      */
@@ -39,21 +73,88 @@ public class GameEngine implements Serializable {
      */
     private GameStatus gameStatus;
 
+    /**
+     * The path finder used to move the enemies
+     */
+    private PathFinderType pathFinderType = PathFinderType.ASTAR;
+
+    /**
+     * The maximum number of paths kept in the path cache, 0 to disable it
+     */
+    private int pathCacheSize = DEFAULT_PATH_CACHE_SIZE;
+
+    /**
+     * The number of threads planning the enemy moves, 1 to plan them on the
+     * calling thread
+     */
+    private int planningParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The map the path finders search, backed by the current level
+     */
+    private transient final TileBasedMap gameMap = new GameMap(this);
+
+    /**
+     * The path finders for the current level, reused across turns
+     */
+    private transient PathFinder pathFinder;
+
+    /**
+     * The cache in front of the path finders, if enabled
+     */
+    private transient CachedPathFinder pathCache;
+
+    /**
+     * The flow field towards the agent, used instead of the path finders
+     * when the type is {@link PathFinderType#FLOW_FIELD}
+     */
+    private transient FlowField flowField;
+
+    /**
+     * The doors of the current level by type
+     */
+    private transient DoorIndex doorIndex;
+
+    /**
+     * The rooms and doors of the current level
+     */
+    private transient RoomGraph roomGraph;
+
+    /**
+     * Which tiles of the current level can reach each other
+     */
+    private transient ConnectivityIndex connectivity;
+
+    /**
+     * The threads planning the enemy moves, created when first needed
+     */
+    private transient ForkJoinPool planningPool;
+
+    /**
+     * The state version and the changes at each version
+     */
+    private transient final ChangeLog changeLog = new ChangeLog(LOGGED_VERSIONS, LOGGED_BYTES);
+
+    /**
+     * Told whenever the state version goes up
+     */
+    private transient final List<StateListener> stateListeners = new CopyOnWriteArrayList<>();
+
     public GameEngine() {
         initializeGame();
     }
 
-    public void initializeGame() {
+    public synchronized void initializeGame() {
         loadLevel("MansionLevel");
         setGameStatus(GameStatus.RUNNING);
+
+        stateChanged();
     }
 
     private void checkGameStatus() {
-        for (Entity entity : this.level.getEntities()) {
+        for (Entity entity : this.level.getEntities().getNear(agent.getX(), agent.getY(), 1)) {
             if (entity instanceof Enemy) {
-                if (entity.getDistance(agent) < 1) {
-                    setGameStatus(GameStatus.GAME_OVER);
-                }
+                setGameStatus(GameStatus.GAME_OVER);
             }
         }
 
@@ -66,6 +167,41 @@ public class GameEngine implements Serializable {
         return level;
     }
 
+    /**
+     * @return the state version, which goes up whenever the level or the
+     * status changes
+     */
+    public long getStateVersion() {
+        return changeLog.getVersion();
+    }
+
+    /**
+     * @return the changes at each state version
+     */
+    ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Be told whenever the state version goes up, on the thread that made
+     * the move.
+     */
+    public void addStateListener(StateListener listener) {
+        stateListeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeStateListener(StateListener listener) {
+        stateListeners.remove(listener);
+    }
+
+    /**
+     * @return which tiles of the current level can reach each other, with
+     * the doors as they are
+     */
+    public ConnectivityIndex getConnectivity() {
+        return connectivity;
+    }
+
     /**
      * @return the game status
      */
@@ -78,20 +214,112 @@ public class GameEngine implements Serializable {
     }
 
     /**
-     * Load the level from a txt file.
+     * @return the path finder used to move the enemies
+     */
+    public PathFinderType getPathFinderType() {
+        return pathFinderType;
+    }
+
+    /**
+     * Set the path finder used to move the enemies.
+     *
+     * @param pathFinderType the path finder type
+     */
+    public void setPathFinderType(PathFinderType pathFinderType) {
+        this.pathFinderType = Objects.requireNonNull(pathFinderType);
+
+        resetPathFinder();
+    }
+
+    /**
+     * @return the maximum number of paths kept in the path cache
+     */
+    public int getPathCacheSize() {
+        return pathCacheSize;
+    }
+
+    /**
+     * Set the maximum number of paths kept in the path cache.
+     *
+     * @param pathCacheSize the number of paths, 0 to disable the cache
+     */
+    public void setPathCacheSize(int pathCacheSize) {
+        if (pathCacheSize < 0) {
+            throw new IllegalArgumentException("The path cache size can't be negative");
+        }
+
+        this.pathCacheSize = pathCacheSize;
+
+        resetPathFinder();
+    }
+
+    /**
+     * @return the path cache, or null if it is disabled or not in use
+     */
+    public CachedPathFinder getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * @return the number of threads planning the enemy moves
+     */
+    public int getPlanningParallelism() {
+        return planningParallelism;
+    }
+
+    /**
+     * Set the number of threads planning the enemy moves. The enemies move
+     * the same way whatever the number.
+     *
+     * @param planningParallelism the number of threads, 1 to plan the moves
+     *                            on the thread handling the movement
+     */
+    public void setPlanningParallelism(int planningParallelism) {
+        if (planningParallelism < 1) {
+            throw new IllegalArgumentException("The planning parallelism must be positive");
+        }
+
+        this.planningParallelism = planningParallelism;
+
+        if (planningPool != null) {
+            planningPool.shutdown();
+            planningPool = null;
+        }
+    }
+
+    /**
+     * Load a new copy of a level, which is only read from its file the
+     * first time, see {@link LevelRegistry}.
      *
      * @param levelName the file name
      */
-    public void loadLevel(String levelName) {
+    public synchronized void loadLevel(String levelName) {
         Objects.requireNonNull(levelName);
 
-        level = LevelLoader.loadLevel(levelName);
+        loadLevel(LevelRegistry.newLevel(levelName));
+    }
+
+    /**
+     * Start playing a level already loaded.
+     *
+     * @param level the level, which the game will change
+     */
+    public synchronized void loadLevel(Level level) {
+        this.level = Objects.requireNonNull(level);
 
         try {
             agent = level.getEntities().getAgents().get(0);
         } catch (Exception e) {
             throw new RuntimeException("No agent found!");
         }
+
+        doorIndex = new DoorIndex(getGameGrid());
+        roomGraph = new RoomGraph(getGameGrid());
+        connectivity = new ConnectivityIndex(roomGraph);
+        changeLog.reset(level, gameStatus);
+
+        resetPathFinder();
+        notifyStateListeners();
     }
 
     /**
@@ -108,7 +336,7 @@ public class GameEngine implements Serializable {
         return level.getEntities();
     }
 
-    public void handleMovement(Direction direction) {
+    public synchronized void handleMovement(Direction direction) {
         double x = agent.getX();
         double y = agent.getY();
 
@@ -134,6 +362,8 @@ public class GameEngine implements Serializable {
 
         // Check the game status
         checkGameStatus();
+
+        stateChanged();
     }
 
     public boolean isNodeFree(double x, double y) {
@@ -170,24 +400,152 @@ public class GameEngine implements Serializable {
     private void moveEnemies() {
         List<Enemy> enemies = getEntityList().getEnemies();
 
-        for (Enemy enemy : enemies) {
-            AStarPathFinder aStarPathFinder = new AStarPathFinder(new GameMap(this), 500, false);
-            Path path = aStarPathFinder.findPath(
-                    new UnitMover(),
+        if (flowField != null) {
+            moveEnemiesAlongFlowField(enemies);
+            return;
+        }
+
+        Path[] paths = new Path[enemies.size()];
+
+        if (planningParallelism == 1 || enemies.size() <= PLANNING_THRESHOLD) {
+            planEnemyMoves(enemies, paths, 0, paths.length);
+        } else {
+            getPlanningPool().invoke(new PlanningTask(enemies, paths, 0, paths.length));
+        }
+
+        // move them in the same order as they were planned one by one
+        for (int i = 0; i < paths.length; i++) {
+            if (paths[i] != null) {
+                enemies.get(i).setPosition(paths[i].getX(1), paths[i].getY(1));
+            }
+        }
+    }
+
+    /**
+     * Find the paths of some of the enemies to the agent.
+     * <p>
+     * Nothing is moved while planning: the searches only read the grid and the
+     * positions, so they can run at the same time and still find the same
+     * paths as one after the other.
+     */
+    private void planEnemyMoves(List<Enemy> enemies, Path[] paths, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Enemy enemy = enemies.get(i);
+
+            paths[i] = pathFinder.findPath(
+                    enemy,
                     (int) enemy.getX(),
                     (int) enemy.getY(),
                     (int) agent.getX(),
                     (int) agent.getY()
             );
+        }
+    }
+
+    private ForkJoinPool getPlanningPool() {
+        if (planningPool == null) {
+            planningPool = new ForkJoinPool(planningParallelism);
+        }
+
+        return planningPool;
+    }
+
+    /**
+     * Plans a range of enemies, splitting it in halves while it is large.
+     */
+    private class PlanningTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Enemy> enemies;
+        private final Path[] paths;
+        private final int from;
+        private final int to;
+
+        PlanningTask(List<Enemy> enemies, Path[] paths, int from, int to) {
+            this.enemies = enemies;
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PLANNING_THRESHOLD) {
+                planEnemyMoves(enemies, paths, from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new PlanningTask(enemies, paths, from, middle), new PlanningTask(enemies, paths, middle, to));
+        }
+    }
+
+    /**
+     * Move every enemy one step towards the agent, with a single search
+     * from the agent shared by all of them.
+     */
+    private void moveEnemiesAlongFlowField(List<Enemy> enemies) {
+        flowField.update(ENEMY_MOVER, (int) agent.getX(), (int) agent.getY());
+
+        for (Enemy enemy : enemies) {
+            int step = flowField.nextStep((int) enemy.getX(), (int) enemy.getY());
+
+            if (step != -1) {
+                enemy.setPosition(step % flowField.getWidth(), step / flowField.getWidth());
+            }
+        }
+    }
+
+    /**
+     * Replace the path finders, e.g. because the level or the type changed.
+     * <p>
+     * Each thread moving the enemies gets its own path finder, sized for the
+     * current level and reused until the next reset. Incremental path finders
+     * follow a single enemy instead. Enemies that can't reach the agent are
+     * told so without searching. The paths they find are
+     * shared through the path cache until the grid changes.
+     */
+    private void resetPathFinder() {
+        if (level == null) {
+            return;
+        }
 
-            if (path != null) {
-                Path.Step step = path.getStep(1);
-                enemy.setPosition(step.getX(), step.getY());
+        pathCache = null;
+
+        if (pathFinderType == PathFinderType.FLOW_FIELD) {
+            pathFinder = null;
+            flowField = new FlowField(gameMap, false);
+        } else {
+            pathFinder = pathFinderType == PathFinderType.INCREMENTAL
+                    ? new PerMoverPathFinder(this::createPathFinder)
+                    : new PathFinderPool(this::createPathFinder);
+            pathFinder = new ConnectedPathFinder(pathFinder, connectivity);
+            flowField = null;
+
+            if (pathCacheSize > 0) {
+                pathCache = new CachedPathFinder(pathFinder, getGameGrid()::getVersion, pathCacheSize);
+                pathFinder = pathCache;
             }
         }
     }
 
-    public void attack(Character attacker, Direction direction) {
+    private PathFinder createPathFinder() {
+        switch (pathFinderType) {
+            case INDEXED_ASTAR:
+                return new IndexedAStarPathFinder(gameMap, MAX_SEARCH_DISTANCE, false);
+            case JUMP_POINT:
+                return new JumpPointPathFinder(gameMap, MAX_SEARCH_DISTANCE, false);
+            case HIERARCHICAL:
+                return new HierarchicalPathFinder(roomGraph);
+            case INCREMENTAL:
+                return new DStarLitePathFinder(gameMap, getGameGrid());
+            case ASTAR:
+            default:
+                return new AStarPathFinder(gameMap, MAX_SEARCH_DISTANCE, false);
+        }
+    }
+
+    public synchronized void attack(Character attacker, Direction direction) {
         Character victim = (Character) level.rayCast((int) attacker.getX(), (int) attacker.getY(), direction);
         System.out.println(victim);
         if (victim != null) {
@@ -205,6 +563,8 @@ public class GameEngine implements Serializable {
         }
 
         moveEnemies();
+
+        stateChanged();
     }
 
     /**
@@ -228,31 +588,43 @@ public class GameEngine implements Serializable {
      *
      * @param doorType the door type
      */
-    public void openDoors(char doorType) {
-        getDoors().forEach(door -> {
-            if (door.getDoorType() == doorType)
-                door.open();
-            else
-                door.close();
-        });
+    public synchronized void openDoors(char doorType) {
+        if (doorIndex.openOnly(doorType)) {
+            doorsChanged();
+        }
+        stateChanged();
     }
 
-    public void closeDoors(char doorType) {
-        getDoors().forEach(door -> {
-            if (door.getDoorType() == doorType)
-                door.close();
-        });
+    public synchronized void closeDoors(char doorType) {
+        if (doorIndex.close(doorType)) {
+            doorsChanged();
+        }
+        stateChanged();
     }
 
-    private List<Door> getDoors() {
-        List<Door> doors = new ArrayList<>();
+    /**
+     * Let the path finding structures know the doors have been opened or closed.
+     */
+    private void doorsChanged() {
+        roomGraph.updateDoorStates();
+        connectivity.update();
+    }
 
-        level.getGameGrid().forEach((gridObject, x, y) -> {
-            if (gridObject != null && gridObject instanceof Door) {
-                doors.add((Door) gridObject);
-            }
-        });
+    /**
+     * Record the changes of a move as a new state version, if anything
+     * changed.
+     */
+    private void stateChanged() {
+        if (changeLog.commit(gameStatus)) {
+            notifyStateListeners();
+        }
+    }
 
-        return doors;
+    private void notifyStateListeners() {
+        long version = changeLog.getVersion();
+
+        for (StateListener listener : stateListeners) {
+            listener.stateChanged(version);
+        }
     }
 }
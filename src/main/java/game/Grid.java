@@ -2,12 +2,19 @@ package game;
 
 import com.sun.istack.internal.Nullable;
 import game.entities.Entity;
+import game.interfaces.BlockingListener;
 import game.interfaces.Griddable;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Grid
@@ -18,6 +25,20 @@ import java.util.Objects;
  */
 public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Cloneable {
 
+    /**
+     * The bits set by {@link #getBlockedNeighbours(int, int)} for each
+     * blocked neighbour
+     */
+    public static final int WEST = 1;
+    public static final int NORTH = 2;
+    public static final int SOUTH = 4;
+    public static final int EAST = 8;
+
+    /**
+     * The number of changed tiles remembered, see {@link #getChangedTile(long)}
+     */
+    private static final int CHANGED_TILES = 1024;
+
     /**
      * The class of the objects contained in this grid
      */
@@ -34,9 +55,49 @@ public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Clo
     private final int HEIGHT;
 
     /**
-     * The array containing the objects
+     * The array containing the objects, row by row: the object at x, y is at
+     * y * width + x
+     */
+    private T[] array;
+
+    /**
+     * The number of changes made to the grid
+     */
+    private transient int version;
+
+    /**
+     * One bit per tile, row by row, set when the object on the tile is
+     * blocking. Kept up to date by put, remove and the objects themselves,
+     * so that checking a tile doesn't need to look at the object.
+     */
+    private transient long[] blocked;
+
+    /**
+     * The last tiles changed, as y * width + x: change n is at
+     * n % {@link #CHANGED_TILES}
+     */
+    private transient int[] changedTiles;
+
+    /**
+     * The number of tiles changed since the grid was created
+     */
+    private transient long changeCount;
+
+    /**
+     * Whether the objects are being changed under a mask, see
+     * {@link #changeBlocking(TileMask, boolean, Runnable)}
+     */
+    private transient boolean changingMask;
+
+    /**
+     * Whether the grid is shared and can't be changed, see {@link #makeReadOnly()}
      */
-    private T[][] array;
+    private transient boolean readOnly;
+
+    /**
+     * Given to the objects put in the grid, see {@link #blockingChanged(int, int)}
+     */
+    private transient BlockingListener blockingListener = this::blockingChanged;
 
     @SuppressWarnings("unchecked")
     public Grid(Class<? extends T> klass, int width, int height) {
@@ -44,17 +105,63 @@ public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Clo
         WIDTH = width;
         HEIGHT = height;
 
-        array = (T[][]) Array.newInstance(klass, HEIGHT, WIDTH);
+        array = (T[]) Array.newInstance(klass, WIDTH * HEIGHT);
+        blocked = new long[(WIDTH * HEIGHT + 63) >>> 6];
+        changedTiles = new int[CHANGED_TILES];
+    }
+
+    /**
+     * Create a grid that takes an array already filled, e.g. by a parser,
+     * which is faster than putting the objects one by one.
+     *
+     * @param objects the objects, row by row, of the size of the grid
+     */
+    Grid(Class<? extends T> klass, int width, int height, T[] objects) {
+        if (objects.length != width * height) {
+            throw new IllegalArgumentException("The array doesn't have the size of the grid");
+        }
+
+        this.klass = klass;
+        WIDTH = width;
+        HEIGHT = height;
+
+        array = objects;
+        indexObjects();
     }
 
+    /**
+     * Return a copy of the grid that can be changed on its own. The objects
+     * are shared, not copied: an object that changes state, e.g. a door,
+     * keeps telling the original grid, so put a copy of it in the new grid.
+     * Replacing or removing a shared object in the copy leaves it telling
+     * the original grid.
+     *
+     * @return the copy, never read only
+     */
     @SuppressWarnings("unchecked")
     public Grid<T> clone() {
         Grid<T> grid = new Grid<>((Class<? extends T>) klass, WIDTH, HEIGHT);
-        grid.array.clone();
+        System.arraycopy(array, 0, grid.array, 0, array.length);
+        System.arraycopy(blocked, 0, grid.blocked, 0, blocked.length);
 
         return grid;
     }
 
+    /**
+     * Stop the objects in the grid from being put or removed, e.g. because
+     * the grid is shared by many levels.
+     */
+    public void makeReadOnly() {
+        readOnly = true;
+    }
+
+    /**
+     * @return true if the objects can't be put or removed
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
     /**
      * Get the grid width.
      *
@@ -73,8 +180,54 @@ public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Clo
         return HEIGHT;
     }
 
+    /**
+     * Get the version of the grid, which changes every time an object is put,
+     * removed, starts or stops blocking or is marked as modified. Anything derived from the grid, e.g. a
+     * path, is still valid as long as the version has not changed.
+     *
+     * @return the grid version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Change the version after an object in the grid has changed state in a
+     * way the grid can't see, e.g. other than starting or stopping blocking.
+     */
+    public void markModified() {
+        version++;
+    }
+
+    /**
+     * Get the number of tiles changed since the grid was created, i.e. that
+     * had an object put or removed, or whose object started or stopped
+     * blocking. Something derived from the grid, e.g. an incremental search,
+     * can look at the tiles changed since it last looked instead of the
+     * whole grid, see {@link #getChangedTile(long)}.
+     *
+     * @return the number of tiles changed
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Return the tile of a change. Only the last changes are remembered.
+     *
+     * @param change the change, from 0 to {@link #getChangeCount()} excluded
+     * @return the tile, as y * width + x, or -1 if the change is forgotten
+     */
+    public int getChangedTile(long change) {
+        if (change < changeCount - CHANGED_TILES || change >= changeCount) {
+            return -1;
+        }
+
+        return changedTiles[(int) (change % CHANGED_TILES)];
+    }
+
     public boolean isOutOfBounds(int x, int y) {
-        return (x > WIDTH || x < 0 || y > HEIGHT || y < 0);
+        return (x >= WIDTH || x < 0 || y >= HEIGHT || y < 0);
     }
 
     /**
@@ -86,8 +239,20 @@ public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Clo
      */
     public void put(T object, int x, int y) {
         Objects.requireNonNull(object);
+        checkWritable();
+
+        checkBounds(x, y);
 
-        array[y][x] = object;
+        T previous = array[y * WIDTH + x];
+        if (previous != null && previous != object) {
+            previous.removeBlockingListener(blockingListener);
+        }
+
+        array[y * WIDTH + x] = object;
+        object.setBlockingListener(blockingListener, x, y);
+        setBlocked(x, y, object.isBlocking());
+        tileChanged(y * WIDTH + x);
+        version++;
     }
 
     /**
@@ -98,7 +263,9 @@ public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Clo
      * @return
      */
     public T get(int x, int y) {
-        return array[y][x];
+        checkBounds(x, y);
+
+        return array[y * WIDTH + x];
     }
 
     /**
@@ -119,18 +286,28 @@ public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Clo
      * @return the object removed from the grid
      */
     public T remove(int x, int y) {
-        T object = array[y][x];
-        array[y][x] = null;
+        checkWritable();
+        checkBounds(x, y);
+
+        T object = array[y * WIDTH + x];
+        array[y * WIDTH + x] = null;
+        setBlocked(x, y, false);
+        tileChanged(y * WIDTH + x);
+        version++;
+
+        if (object != null) {
+            object.removeBlockingListener(blockingListener);
+        }
 
         return object;
     }
 
     public String printGrid() {
-        StringBuilder sb = new StringBuilder(array.length);
+        StringBuilder sb = new StringBuilder(HEIGHT);
 
-        for (T[] objects : array) {
-            for (T object : objects) {
-                sb.append(object);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                sb.append(array[y * WIDTH + x]);
             }
 
             sb.append('\n');
@@ -147,9 +324,167 @@ public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Clo
      * @return
      */
     public boolean isBlocked(int x, int y) {
-        T t = get(x, y);
+        checkBounds(x, y);
+
+        int tile = y * WIDTH + x;
+
+        return (blocked[tile >>> 6] & (1L << tile)) != 0;
+    }
+
+    /**
+     * Return which of the four tiles next to x, y are blocked, as a
+     * combination of {@link #WEST}, {@link #NORTH}, {@link #SOUTH} and
+     * {@link #EAST}. The tiles outside the grid count as blocked.
+     *
+     * @param x
+     * @param y
+     * @return the bits of the blocked neighbours
+     */
+    public int getBlockedNeighbours(int x, int y) {
+        checkBounds(x, y);
+
+        int tile = y * WIDTH + x;
+        int neighbours = 0;
+
+        if (x == 0 || isBlocked(tile - 1)) {
+            neighbours |= WEST;
+        }
+        if (y == 0 || isBlocked(tile - WIDTH)) {
+            neighbours |= NORTH;
+        }
+        if (y == HEIGHT - 1 || isBlocked(tile + WIDTH)) {
+            neighbours |= SOUTH;
+        }
+        if (x == WIDTH - 1 || isBlocked(tile + 1)) {
+            neighbours |= EAST;
+        }
+
+        return neighbours;
+    }
+
+    private boolean isBlocked(int tile) {
+        return (blocked[tile >>> 6] & (1L << tile)) != 0;
+    }
+
+    private void setBlocked(int x, int y, boolean isBlocked) {
+        int tile = y * WIDTH + x;
+
+        if (isBlocked) {
+            blocked[tile >>> 6] |= 1L << tile;
+        } else {
+            blocked[tile >>> 6] &= ~(1L << tile);
+        }
+    }
+
+    /**
+     * Change the objects under a mask so that they all block or all stop
+     * blocking, e.g. open all the doors of a type, and update the blocked
+     * tiles with a single mask operation instead of one tile at a time.
+     *
+     * @param mask     the tiles of the objects being changed
+     * @param blocking whether the objects are blocking after the change
+     * @param change   changes the objects, and nothing outside the mask
+     */
+    public void changeBlocking(TileMask mask, boolean blocking, Runnable change) {
+        changeBlocking(new TileMask[]{mask}, new boolean[]{blocking}, 1, change);
+    }
+
+    /**
+     * Change the objects under several masks at once, e.g. open the doors of
+     * a type and close the others, as a single change of the version.
+     *
+     * @param masks    the tiles of the objects being changed, not overlapping
+     * @param blocking whether the objects under each mask are blocking after
+     *                 the change
+     * @param count    the number of masks to read
+     * @param change   changes the objects, and nothing outside the masks
+     */
+    public void changeBlocking(TileMask[] masks, boolean[] blocking, int count, Runnable change) {
+        changingMask = true;
+        try {
+            change.run();
+        } finally {
+            changingMask = false;
+        }
+
+        for (int i = 0; i < count; i++) {
+            masks[i].apply(blocked, blocking[i]);
+            tilesChanged(masks[i]);
+        }
+        version++;
+    }
+
+    /**
+     * Called by the object at x, y when it starts or stops blocking.
+     */
+    private void blockingChanged(int x, int y) {
+        if (changingMask) {
+            return;
+        }
+
+        T object = array[y * WIDTH + x];
+
+        setBlocked(x, y, object != null && object.isBlocking());
+        tileChanged(y * WIDTH + x);
+        version++;
+    }
+
+    private void tileChanged(int tile) {
+        changedTiles[(int) (changeCount++ % CHANGED_TILES)] = tile;
+    }
+
+    private void tilesChanged(TileMask mask) {
+        for (int i = 0; i < mask.getWordCount(); i++) {
+            int word = mask.getWord(i);
+
+            for (long bits = mask.getBits(i); bits != 0; bits &= bits - 1) {
+                tileChanged(word << 6 | Long.numberOfTrailingZeros(bits));
+            }
+        }
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("The grid is read only");
+        }
+    }
+
+    private void checkBounds(int x, int y) {
+        if (isOutOfBounds(x, y)) {
+            throw new ArrayIndexOutOfBoundsException("x: " + x + ", y: " + y);
+        }
+    }
+
+    /**
+     * Rebuild the blocked tiles, which are not serialized, and listen to the
+     * objects again.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        indexObjects();
+    }
 
-        return t != null && t.isBlocking();
+    /**
+     * Find the blocked tiles and listen to the objects in the array.
+     */
+    private void indexObjects() {
+        blocked = new long[(WIDTH * HEIGHT + 63) >>> 6];
+        changedTiles = new int[CHANGED_TILES];
+        blockingListener = this::blockingChanged;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                T object = array[y * WIDTH + x];
+
+                if (object != null) {
+                    object.setBlockingListener(blockingListener, x, y);
+
+                    if (object.isBlocking()) {
+                        setBlocked(x, y, true);
+                    }
+                }
+            }
+        }
     }
 
     @Override
@@ -157,11 +492,42 @@ public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Clo
         return new GridIterator();
     }
 
+    /**
+     * Return a spliterator that splits the grid by ranges of rows, so that a
+     * parallel stream gives each thread whole rows to go through.
+     *
+     * @return a spliterator over the objects, row by row, including nulls
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new GridSpliterator(0, HEIGHT);
+    }
+
+    /**
+     * @return a sequential stream over the objects, row by row, including
+     * nulls. Call parallel() on it to use every core.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
     public void forEach(GridConsumer<T> action) {
-        GridIterator iterator = (GridIterator) iterator();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                action.accept(array[y * WIDTH + x], x, y);
+            }
+        }
+    }
 
-        while (iterator.hasNext()) {
-            action.accept(iterator.next(), iterator.getX(), iterator.getY());
+    /**
+     * Call the action with every object and its index, y * width + x, row by
+     * row.
+     *
+     * @param action the action, called with nulls for the empty tiles
+     */
+    public void forEachIndexed(IndexedConsumer<T> action) {
+        for (int index = 0; index < array.length; index++) {
+            action.accept(array[index], index);
         }
     }
 
@@ -169,6 +535,73 @@ public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Clo
         void accept(@Nullable T t, int x, int y);
     }
 
+    public interface IndexedConsumer<T> {
+        void accept(@Nullable T t, int index);
+    }
+
+    /**
+     * GridSpliterator goes through a range of rows of a Grid, and splits in
+     * half by rows.
+     */
+    private class GridSpliterator implements Spliterator<T> {
+        /**
+         * The index of the next object, and the index after the last one
+         */
+        private int index;
+        private final int end;
+
+        GridSpliterator(int fromRow, int toRow) {
+            index = fromRow * WIDTH;
+            end = toRow * WIDTH;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (index >= end) {
+                return false;
+            }
+
+            action.accept(array[index++]);
+
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            for (; index < end; index++) {
+                action.accept(array[index]);
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            // split at a row boundary, the current row stays here
+            int fromRow = (index + WIDTH - 1) / WIDTH;
+            int toRow = end / WIDTH;
+            int middle = (fromRow + toRow) >>> 1;
+
+            if (middle <= fromRow) {
+                return null;
+            }
+
+            GridSpliterator prefix = new GridSpliterator(0, middle);
+            prefix.index = index;
+            index = middle * WIDTH;
+
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
     /**
      * GridIterator is used to iterate through a Grid.
      */
@@ -204,7 +637,7 @@ public class Grid<T extends Griddable> implements Iterable<T>, Serializable, Clo
                 y++;
             }
 
-            return get(x, y);
+            return array[y * WIDTH + x];
         }
     }
 }
@@ -5,8 +5,8 @@ import game.gridobjects.Floor;
 import game.gridobjects.GridObject;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Level
@@ -36,64 +36,61 @@ public class Level implements Serializable {
         assert entities != null;
     }
 
+    /**
+     * Create a level from its parts, e.g. read from a compiled level.
+     */
+    Level(Grid<GridObject> gameGrid, Grid<Floor> floorGrid, Entities entities) {
+        this.gameGrid = Objects.requireNonNull(gameGrid);
+        this.floorGrid = Objects.requireNonNull(floorGrid);
+        this.entities = Objects.requireNonNull(entities);
+    }
+
     public Entity rayCast(int x, int y, Direction direction) {
         Vector position = new Vector(x, y);
         Vector displacement = direction.getVector();
 
         position.sum(displacement);
 
-        // get possible entities
-        List<Entity> entitiesOnDirection = getEntitiesOnDirection(x, y, direction);
-
         while (!getGameGrid().isOutOfBounds(position.getX(), position.getY()) &&
                 !getGameGrid().isBlocked(position.getX(), position.getY())) {
 
-            // we should order the entities by direction (shoot through entities)
-            for (Entity entity : entitiesOnDirection) {
-                if (entity.getX() == position.getX() && entity.getY() == position.getY()) {
-                    return entity;
-                }
+            // only the tiles on the way are looked at, not all the entities
+            List<Entity> entitiesOnTile = entities.getAt(position.getX(), position.getY());
+            if (!entitiesOnTile.isEmpty()) {
+                return entitiesOnTile.get(0);
             }
 
             position.sum(displacement);
         }
 
-
         return null;
     }
 
+    /**
+     * @return the entities from x, y to the edge of the level in a direction,
+     * the closest first
+     */
     public List<Entity> getEntitiesOnDirection(int x, int y, Direction direction) {
-        List<Entity> foundEntities = new ArrayList<>();
-        Vector position = new Vector(x, y);
-        Vector displacement = direction.getVector();
-
-        for (Entity entity : entities) {
-            boolean add;
-
-            switch (direction) {
-                case NORTH:
-                    add = entity.getX() == x && entity.getY() < y;
-                    break;
-                case SOUTH:
-                    add = entity.getX() == x && entity.getY() > y;
-                    break;
-                case EAST:
-                    add = entity.getY() == y && entity.getX() > x;
-                    break;
-                case WEST:
-                    add = entity.getY() == y && entity.getX() < x;
-                    break;
-                default:
-                    add = false;
-            }
-
-            if (add)
-                foundEntities.add(entity);
-
-            position.sum(displacement);
+        int length;
+
+        switch (direction) {
+            case NORTH:
+                length = y;
+                break;
+            case SOUTH:
+                length = gameGrid.getHeight() - 1 - y;
+                break;
+            case EAST:
+                length = gameGrid.getWidth() - 1 - x;
+                break;
+            case WEST:
+                length = x;
+                break;
+            default:
+                length = 0;
         }
 
-        return foundEntities;
+        return entities.getOnRay(x, y, direction, length);
     }
 
     public String toString() {
@@ -0,0 +1,839 @@
+package game;
+
+import game.entities.Agent;
+import game.entities.Character;
+import game.entities.Enemy;
+import game.entities.Entity;
+import game.gridobjects.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The binary form of the game sent to the clients, in place of the Java
+ * serialization of the {@link Level} in Base64.
+ * <p>
+ * A frame is either a snapshot of the whole level, the state of the game on a
+ * layout sent apart, or the changes since a state version the client knows,
+ * see {@link ChangeLog}. All the numbers are big-endian ints, unless said
+ * otherwise:
+ * <pre>
+ * magic, version (byte), kind (byte: snapshot, delta, state or layout), then but for a layout
+ *   game status (byte), state version (long)
+ * snapshot:
+ *   width, height
+ *   width * height tiles, row by row, two per byte (the first in the high bits)
+ *   door count, then for each door in row order: type (byte, high bit set if closed)
+ *   entity count, then for each entity: kind (byte), x, y, health
+ * layout, the part of a snapshot that doesn't change during a game:
+ *   width, height, tiles as in a snapshot
+ *   door count, then for each door in row order: type (byte)
+ * state:
+ *   the SHA-256 of the layout frame (32 bytes)
+ *   door count, then one bit for each door in row order, set if closed (the first in the high bit)
+ *   entity count, then the entities as in a snapshot
+ * delta:
+ *   base state version (long), change count, then for each change its kind (byte) and
+ *   door changed: tile index (y * width + x), closed (byte)
+ *   entity moved: entity index, x, y
+ *   entity damaged: entity index, health
+ *   entity removed: entity index
+ * </pre>
+ * The tiles and the entities have the codes of {@link BinaryLevel}. The
+ * changes are applied in order, and an entity index is the one in the list
+ * at the time.
+ * <p>
+ * A layout is addressed by its hash, so that a client fetches it once and
+ * then only needs the state frames and the deltas, see {@link Layout}.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class LevelCodec {
+
+    /**
+     * The media type of the frames, for the clients to ask for them
+     */
+    public static final String MEDIA_TYPE = "application/x-guts-level";
+
+    private static final int MAGIC = 0x47555453; // "GUTS"
+
+    private static final int VERSION = 2;
+
+    private static final int SNAPSHOT = 0;
+    private static final int DELTA = 1;
+    private static final int STATE = 2;
+    private static final int LAYOUT = 3;
+
+    private static final int HASH_SIZE = 32;
+
+    /**
+     * The kinds of the changes in a delta
+     */
+    static final byte DOOR_CHANGED = 0;
+    static final byte ENTITY_MOVED = 1;
+    static final byte ENTITY_DAMAGED = 2;
+    static final byte ENTITY_REMOVED = 3;
+
+    private static final int HEADER_SIZE = 4 + 1 + 1 + 1 + 8;
+
+    private static final int LAYOUT_HEADER_SIZE = 4 + 1 + 1;
+
+    private static final int ENTITY_SIZE = 1 + 4 + 4 + 4;
+
+    private static final int CLOSED = 0x80;
+
+    private static final GameStatus[] STATUSES = GameStatus.values();
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private LevelCodec() {
+    }
+
+    /**
+     * Encode the game for a client, as the changes since the version it knows
+     * if they are still known, or as a snapshot. The snapshot of a version is
+     * only encoded once, and the same array is returned until the version
+     * goes up: it must not be changed.
+     * <p>
+     * The frames are of the game as of its last state version, even while a
+     * move is being made, see {@link ChangeLog}.
+     *
+     * @param engine the game
+     * @param since  the state version the client knows, or -1 for a snapshot
+     * @return the frame
+     */
+    public static byte[] encode(GameEngine engine, long since) {
+        ChangeLog changeLog = engine.getChangeLog();
+
+        synchronized (changeLog) {
+            ChangeLog.Changes changes = since < 0 ? null : changeLog.since(since);
+
+            if (changes == null) {
+                byte[] snapshot = changeLog.getSnapshot();
+
+                if (snapshot == null) {
+                    snapshot = encodeSnapshot(changeLog);
+                    changeLog.setSnapshot(snapshot);
+                }
+
+                return snapshot;
+            }
+
+            return encodeDelta(changeLog.getStatus(), changeLog.getVersion(), since, changes);
+        }
+    }
+
+    /**
+     * Encode the game for a client that has the layout, or can fetch it: as
+     * the changes since the version it knows if they are still known, or as
+     * a state frame.
+     *
+     * @param engine the game
+     * @param since  the state version the client knows, or -1 for a state
+     *               frame
+     * @return the frame
+     */
+    public static byte[] encodeState(GameEngine engine, long since) {
+        ChangeLog changeLog = engine.getChangeLog();
+
+        synchronized (changeLog) {
+            ChangeLog.Changes changes = since < 0 ? null : changeLog.since(since);
+
+            if (changes != null) {
+                return encodeDelta(changeLog.getStatus(), changeLog.getVersion(), since, changes);
+            }
+
+            Entity[] entities = changeLog.getEntities();
+            boolean[] doorsClosed = changeLog.getDoorsClosed();
+            byte[] closed = new byte[(doorsClosed.length + 7) / 8];
+            for (int i = 0; i < doorsClosed.length; i++) {
+                if (doorsClosed[i]) {
+                    closed[i >>> 3] |= 0x80 >>> (i & 7);
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + HASH_SIZE + 4 + closed.length + 4
+                    + entities.length * ENTITY_SIZE);
+
+            putHeader(buffer, STATE, changeLog.getStatus(), changeLog.getVersion());
+            buffer.put(getLayout(engine).hash);
+            buffer.putInt(doorsClosed.length);
+            buffer.put(closed);
+            putEntities(buffer, entities, changeLog.getEntityStates());
+
+            return buffer.array();
+        }
+    }
+
+    /**
+     * Encode a snapshot of the game as of its last state version, with the
+     * doors and the entities the change log has.
+     */
+    private static byte[] encodeSnapshot(ChangeLog changeLog) {
+        Packed packed = pack(changeLog.getLevel(), false);
+        Entity[] entities = changeLog.getEntities();
+        boolean[] doorsClosed = changeLog.getDoorsClosed();
+
+        for (int i = 0; i < packed.doorCount; i++) {
+            if (doorsClosed[i]) {
+                packed.doors[i] |= CLOSED;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 + 4 + packed.tiles.length + 4 + packed.doorCount + 4
+                + entities.length * ENTITY_SIZE);
+
+        putHeader(buffer, SNAPSHOT, changeLog.getStatus(), changeLog.getVersion());
+        putTiles(buffer, packed);
+        putEntities(buffer, entities, changeLog.getEntityStates());
+
+        return buffer.array();
+    }
+
+    /**
+     * Return the layout of the level being played, encoded once per game.
+     *
+     * @param engine the game
+     * @return the layout
+     */
+    public static Layout getLayout(GameEngine engine) {
+        ChangeLog changeLog = engine.getChangeLog();
+
+        synchronized (changeLog) {
+            Layout layout = changeLog.getLayout();
+
+            if (layout == null) {
+                layout = new Layout(encodeLayout(changeLog.getLevel()));
+                changeLog.setLayout(layout);
+            }
+
+            return layout;
+        }
+    }
+
+    /**
+     * Encode the part of a level that doesn't change during a game: the
+     * tiles and the types of the doors.
+     *
+     * @param level the level
+     * @return the layout frame
+     */
+    public static byte[] encodeLayout(Level level) {
+        Packed packed = pack(level, false);
+
+        ByteBuffer buffer = ByteBuffer.allocate(LAYOUT_HEADER_SIZE + 4 + 4 + packed.tiles.length + 4
+                + packed.doorCount);
+
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) LAYOUT);
+        putTiles(buffer, packed);
+
+        return buffer.array();
+    }
+
+    private static byte[] encodeDelta(GameStatus status, long stateVersion, long since, ChangeLog.Changes changes) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 8 + 4 + changes.getChanges().length);
+        putHeader(buffer, DELTA, status, stateVersion);
+        buffer.putLong(since);
+        buffer.putInt(changes.getCount());
+        buffer.put(changes.getChanges());
+
+        return buffer.array();
+    }
+
+    /**
+     * Encode a snapshot of the game.
+     *
+     * @param status       the status of the game
+     * @param stateVersion the state version of the game
+     * @param level        the level being played
+     * @return the frame
+     * @throws IllegalArgumentException if the level has objects or entities
+     *                                  the format doesn't know
+     */
+    public static byte[] encode(GameStatus status, long stateVersion, Level level) {
+        Packed packed = pack(level, true);
+        Entities entities = level.getEntities();
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 + 4 + packed.tiles.length + 4 + packed.doorCount + 4
+                + entities.size() * ENTITY_SIZE);
+
+        putHeader(buffer, SNAPSHOT, status, stateVersion);
+        putTiles(buffer, packed);
+        putEntities(buffer, entities);
+
+        return buffer.array();
+    }
+
+    /**
+     * The tiles of a level two per byte, and its door table
+     */
+    private static class Packed {
+        private final int width;
+        private final int height;
+        private final byte[] tiles;
+        private byte[] doors = new byte[64];
+        private int doorCount;
+
+        Packed(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.tiles = new byte[(width * height + 1) / 2];
+        }
+    }
+
+    /**
+     * @param doorStates whether the door table has the high bit set for the
+     *                   closed doors
+     */
+    private static Packed pack(Level level, boolean doorStates) {
+        Grid<GridObject> objects = level.getGameGrid();
+        Grid<Floor> floors = level.getFloorGrid();
+        Packed packed = new Packed(objects.getWidth(), objects.getHeight());
+
+        for (int y = 0, index = 0; y < packed.height; y++) {
+            for (int x = 0; x < packed.width; x++, index++) {
+                GridObject object = objects.get(x, y);
+                int tile = BinaryLevel.objectCode(object) | BinaryLevel.floorCode(floors.get(x, y)) << BinaryLevel.FLOOR_SHIFT;
+
+                packed.tiles[index >>> 1] |= (index & 1) == 0 ? tile << 4 : tile;
+
+                if (object instanceof Door) {
+                    if (packed.doorCount == packed.doors.length) {
+                        packed.doors = Arrays.copyOf(packed.doors, 2 * packed.doors.length);
+                    }
+
+                    boolean closed = doorStates && object.isBlocking();
+                    packed.doors[packed.doorCount++] = (byte) (((Door) object).getDoorType() | (closed ? CLOSED : 0));
+                }
+            }
+        }
+
+        return packed;
+    }
+
+    private static void putTiles(ByteBuffer buffer, Packed packed) {
+        buffer.putInt(packed.width);
+        buffer.putInt(packed.height);
+        buffer.put(packed.tiles);
+        buffer.putInt(packed.doorCount);
+        buffer.put(packed.doors, 0, packed.doorCount);
+    }
+
+    private static void putEntities(ByteBuffer buffer, Entities entities) {
+        buffer.putInt(entities.size());
+        for (Entity entity : entities) {
+            buffer.put((byte) BinaryLevel.entityKind(entity));
+            buffer.putInt((int) entity.getX());
+            buffer.putInt((int) entity.getY());
+            buffer.putInt(entity instanceof Character ? ((Character) entity).getHealth() : 0);
+        }
+    }
+
+    /**
+     * @param states the x, y and health of each entity, as kept by the
+     *               {@link ChangeLog}
+     */
+    private static void putEntities(ByteBuffer buffer, Entity[] entities, int[] states) {
+        buffer.putInt(entities.length);
+        for (int i = 0; i < entities.length; i++) {
+            buffer.put((byte) BinaryLevel.entityKind(entities[i]));
+            buffer.putInt(states[3 * i]);
+            buffer.putInt(states[3 * i + 1]);
+            buffer.putInt(states[3 * i + 2]);
+        }
+    }
+
+    /**
+     * Read the state version of a frame without decoding it.
+     *
+     * @param frame an encoded frame
+     * @return its state version
+     */
+    public static long getStateVersion(byte[] frame) {
+        return ByteBuffer.wrap(frame).getLong(HEADER_SIZE - 8);
+    }
+
+    private static void putHeader(ByteBuffer buffer, int kind, GameStatus status, long stateVersion) {
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) kind);
+        buffer.put((byte) status.ordinal());
+        buffer.putLong(stateVersion);
+    }
+
+    /**
+     * Decode a frame read from a stream, e.g. the body of a response.
+     *
+     * @param stream the stream, read to its end but not closed
+     * @return the frame
+     * @throws IOException if the stream can't be read or is not a frame
+     */
+    public static Frame decode(InputStream stream) throws IOException {
+        return decode(ByteBuffer.wrap(readFully(stream)));
+    }
+
+    private static byte[] readFully(InputStream stream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+
+        for (int read; (read = stream.read(buffer)) != -1; ) {
+            bytes.write(buffer, 0, read);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a frame.
+     *
+     * @param buffer the bytes of the frame, from its position
+     * @return the frame
+     * @throws IOException if the bytes are not a frame
+     */
+    public static Frame decode(ByteBuffer buffer) throws IOException {
+        try {
+            int kind = checkHeader(buffer);
+            if (kind == LAYOUT) {
+                throw new IOException("A layout, not a frame");
+            }
+
+            GameStatus status = STATUSES[buffer.get()];
+            long stateVersion = buffer.getLong();
+
+            if (kind == DELTA) {
+                long baseVersion = buffer.getLong();
+                int count = buffer.getInt();
+
+                return new Frame(status, stateVersion, baseVersion, count, buffer.slice());
+            } else if (kind == STATE) {
+                byte[] hash = new byte[HASH_SIZE];
+                buffer.get(hash);
+
+                int doorCount = buffer.getInt();
+                byte[] closed = new byte[(doorCount + 7) / 8];
+                buffer.get(closed);
+
+                ByteBuffer entities = buffer.slice();
+                decodeEntities(entities.duplicate());
+
+                return new Frame(status, stateVersion, hash, doorCount, closed, entities);
+            } else if (kind != SNAPSHOT) {
+                throw new IOException("Unknown frame kind " + kind);
+            }
+
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+
+            byte[] tiles = new byte[(width * height + 1) / 2];
+            buffer.get(tiles);
+
+            byte[] doors = new byte[buffer.getInt()];
+            buffer.get(doors);
+
+            Level level = newLevel(width, height, tiles, doors, decodeEntities(buffer));
+
+            return new Frame(status, stateVersion, level);
+        } catch (RuntimeException e) {
+            // e.g. the frame ends early or the size is negative
+            throw new IOException("Corrupted level frame", e);
+        }
+    }
+
+    /**
+     * Decode a layout read from a stream, e.g. the body of a response.
+     *
+     * @param stream the stream, read to its end but not closed
+     * @return the layout
+     * @throws IOException if the stream can't be read or is not a layout
+     */
+    public static Layout decodeLayout(InputStream stream) throws IOException {
+        return decodeLayout(readFully(stream));
+    }
+
+    /**
+     * Decode a layout, and find its hash.
+     *
+     * @param encoded the layout frame, which is kept by the layout
+     * @return the layout
+     * @throws IOException if the bytes are not a layout
+     */
+    public static Layout decodeLayout(byte[] encoded) throws IOException {
+        try {
+            return new Layout(encoded);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted level layout", e);
+        }
+    }
+
+    /**
+     * Check the magic and the version of a frame.
+     *
+     * @return the kind of the frame
+     */
+    private static int checkHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new IOException("Not a level frame, or encoded by another version");
+        }
+
+        return buffer.get();
+    }
+
+    /**
+     * Build a level from its tiles and its door table, with the closed doors
+     * having the high bit set.
+     */
+    private static Level newLevel(int width, int height, byte[] tiles, byte[] doorTable, Entities entities)
+            throws IOException {
+        GridObject[] objects = new GridObject[width * height];
+        Floor[] floors = new Floor[width * height];
+        int doors = 0;
+
+        for (int index = 0; index < objects.length; index++) {
+            int packed = tiles[index >>> 1] & 0xFF;
+            int tile = (index & 1) == 0 ? packed >>> 4 : packed & 0xF;
+
+            switch (tile & BinaryLevel.OBJECT_MASK) {
+                case BinaryLevel.WALL:
+                    objects[index] = Wall.INSTANCE;
+                    break;
+                case BinaryLevel.EXIT:
+                    objects[index] = Exit.INSTANCE;
+                    break;
+                case BinaryLevel.DOOR:
+                    if (doors == doorTable.length) {
+                        throw new IOException("More doors than in the door table");
+                    }
+
+                    int door = doorTable[doors++];
+                    objects[index] = new Door((char) (door & ~CLOSED & 0xFF), (door & CLOSED) != 0);
+                    break;
+                default:
+            }
+
+            switch (tile >>> BinaryLevel.FLOOR_SHIFT & BinaryLevel.OBJECT_MASK) {
+                case BinaryLevel.FLOOR:
+                    floors[index] = Floor.INSTANCE;
+                    break;
+                case BinaryLevel.GRASS:
+                    floors[index] = Grass.INSTANCE;
+                    break;
+                default:
+            }
+        }
+
+        return new Level(new Grid<>(GridObject.class, width, height, objects),
+                new Grid<>(Floor.class, width, height, floors), entities);
+    }
+
+    private static Entities decodeEntities(ByteBuffer buffer) throws IOException {
+        Entities entities = new Entities();
+        int entityCount = buffer.getInt();
+        for (int i = 0; i < entityCount; i++) {
+            entities.add(decodeEntity(buffer));
+        }
+
+        return entities;
+    }
+
+    private static Entity decodeEntity(ByteBuffer buffer) throws IOException {
+        int kind = buffer.get();
+        if (kind != BinaryLevel.AGENT && kind != BinaryLevel.ENEMY) {
+            throw new IOException("Unknown entity kind " + kind);
+        }
+
+        Character character = kind == BinaryLevel.AGENT ? new Agent() : new Enemy();
+        character.setPosition(buffer.getInt(), buffer.getInt());
+        character.decreaseHealth(character.getHealth() - buffer.getInt());
+
+        return character;
+    }
+
+    /**
+     * Apply the changes of a delta to a level.
+     */
+    private static void apply(ByteBuffer changes, int count, Level level) throws IOException {
+        Grid<GridObject> grid = level.getGameGrid();
+        Entities entities = level.getEntities();
+
+        try {
+            for (int i = 0; i < count; i++) {
+                int kind = changes.get();
+
+                switch (kind) {
+                    case DOOR_CHANGED: {
+                        int tile = changes.getInt();
+                        GridObject door = grid.get(tile % grid.getWidth(), tile / grid.getWidth());
+                        if (!(door instanceof Door)) {
+                            throw new IOException("No door at tile " + tile);
+                        }
+
+                        if (changes.get() != 0) {
+                            ((Door) door).close();
+                        } else {
+                            ((Door) door).open();
+                        }
+                        break;
+                    }
+                    case ENTITY_MOVED:
+                        entities.get(changes.getInt()).setPosition(changes.getInt(), changes.getInt());
+                        break;
+                    case ENTITY_DAMAGED: {
+                        Character character = (Character) entities.get(changes.getInt());
+                        character.decreaseHealth(character.getHealth() - changes.getInt());
+                        break;
+                    }
+                    case ENTITY_REMOVED:
+                        entities.remove(changes.getInt());
+                        break;
+                    default:
+                        throw new IOException("Unknown change kind " + kind);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted level delta", e);
+        }
+    }
+
+    /**
+     * A decoded frame
+     */
+    public static class Frame {
+
+        private final int kind;
+
+        private final GameStatus status;
+
+        private final long stateVersion;
+
+        /**
+         * The level of a snapshot
+         */
+        private final Level level;
+
+        /**
+         * The version and the changes of a delta
+         */
+        private final long baseVersion;
+        private final int changeCount;
+        private final ByteBuffer changes;
+
+        /**
+         * The layout, the doors closed and the entities of a state frame
+         */
+        private final byte[] layoutHash;
+        private final int doorCount;
+        private final byte[] closed;
+        private final ByteBuffer entities;
+
+        Frame(GameStatus status, long stateVersion, Level level) {
+            this(SNAPSHOT, status, stateVersion, Objects.requireNonNull(level), -1, 0, null, null, 0, null, null);
+        }
+
+        Frame(GameStatus status, long stateVersion, long baseVersion, int changeCount, ByteBuffer changes) {
+            this(DELTA, status, stateVersion, null, baseVersion, changeCount, changes, null, 0, null, null);
+        }
+
+        Frame(GameStatus status, long stateVersion, byte[] layoutHash, int doorCount, byte[] closed,
+              ByteBuffer entities) {
+            this(STATE, status, stateVersion, null, -1, 0, null, layoutHash, doorCount, closed, entities);
+        }
+
+        private Frame(int kind, GameStatus status, long stateVersion, Level level, long baseVersion, int changeCount,
+                      ByteBuffer changes, byte[] layoutHash, int doorCount, byte[] closed, ByteBuffer entities) {
+            this.kind = kind;
+            this.status = Objects.requireNonNull(status);
+            this.stateVersion = stateVersion;
+            this.level = level;
+            this.baseVersion = baseVersion;
+            this.changeCount = changeCount;
+            this.changes = changes;
+            this.layoutHash = layoutHash;
+            this.doorCount = doorCount;
+            this.closed = closed;
+            this.entities = entities;
+        }
+
+        public GameStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the state version of the game in the frame
+         */
+        public long getStateVersion() {
+            return stateVersion;
+        }
+
+        /**
+         * @return true if the frame holds the changes since
+         * {@link #getBaseVersion()}, false if it holds the whole state
+         */
+        public boolean isDelta() {
+            return kind == DELTA;
+        }
+
+        /**
+         * @return the state version the changes of a delta apply to, -1 for
+         * the other frames
+         */
+        public long getBaseVersion() {
+            return baseVersion;
+        }
+
+        /**
+         * @return the level of a snapshot, null for the other frames
+         */
+        public Level getLevel() {
+            return level;
+        }
+
+        /**
+         * @return the hash of the layout a state frame is for, as in
+         * {@link Layout#getHash()}, or null for the other frames
+         */
+        public String getLayoutHash() {
+            return layoutHash == null ? null : toHex(layoutHash);
+        }
+
+        /**
+         * Bring a level up to date with a snapshot or a delta.
+         *
+         * @see #applyTo(Level, Layout)
+         */
+        public Level applyTo(Level current) throws IOException {
+            return applyTo(current, null);
+        }
+
+        /**
+         * Bring a level up to date with the frame.
+         *
+         * @param current the level as of {@link #getBaseVersion()}, which is
+         *                changed by a delta; ignored by the other frames
+         * @param layout  the layout of {@link #getLayoutHash()}, for a state
+         *                frame
+         * @return the level of a snapshot, a new level on the layout for a
+         * state frame, or the current level changed
+         * @throws IOException if the frame doesn't apply to the level or the
+         *                     layout
+         */
+        public Level applyTo(Level current, Layout layout) throws IOException {
+            switch (kind) {
+                case DELTA:
+                    apply(changes.duplicate(), changeCount, Objects.requireNonNull(current));
+                    return current;
+                case STATE:
+                    if (layout == null || !Arrays.equals(layoutHash, layout.hash)) {
+                        throw new IOException("The state of another layout");
+                    }
+
+                    return layout.newLevel(doorCount, closed, entities.duplicate());
+                default:
+                    return level;
+            }
+        }
+    }
+
+    /**
+     * A decoded layout, addressed by the hash of its frame: the same level
+     * always has the same hash, and a different one a different hash.
+     */
+    public static class Layout {
+
+        private final byte[] encoded;
+
+        private final byte[] hash;
+
+        private final int width;
+        private final int height;
+        private final byte[] tiles;
+        private final byte[] doorTypes;
+
+        /**
+         * @throws RuntimeException if the bytes are not a layout
+         */
+        Layout(byte[] encoded) {
+            ByteBuffer buffer = ByteBuffer.wrap(encoded);
+
+            try {
+                if (checkHeader(buffer) != LAYOUT) {
+                    throw new IllegalArgumentException("Not a layout");
+                }
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+
+            width = buffer.getInt();
+            height = buffer.getInt();
+            tiles = new byte[(width * height + 1) / 2];
+            buffer.get(tiles);
+            doorTypes = new byte[buffer.getInt()];
+            buffer.get(doorTypes);
+
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Bytes after the layout");
+            }
+
+            this.encoded = encoded;
+            this.hash = sha256(encoded);
+        }
+
+        /**
+         * @return the layout frame, which must not be changed
+         */
+        public byte[] getEncoded() {
+            return encoded;
+        }
+
+        /**
+         * @return the SHA-256 of the layout frame, in hex
+         */
+        public String getHash() {
+            return toHex(hash);
+        }
+
+        private Level newLevel(int doorCount, byte[] closed, ByteBuffer entities) throws IOException {
+            if (doorCount != doorTypes.length) {
+                throw new IOException(doorCount + " door states for " + doorTypes.length + " doors");
+            }
+
+            byte[] doorTable = new byte[doorCount];
+            for (int i = 0; i < doorCount; i++) {
+                boolean isClosed = (closed[i >>> 3] & 0x80 >>> (i & 7)) != 0;
+                doorTable[i] = (byte) (doorTypes[i] | (isClosed ? CLOSED : 0));
+            }
+
+            try {
+                return LevelCodec.newLevel(width, height, tiles, doorTable, decodeEntities(entities));
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupted level state", e);
+            }
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform has it
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(2 * bytes.length);
+        for (byte b : bytes) {
+            hex.append(HEX_DIGITS[b >>> 4 & 0xF]).append(HEX_DIGITS[b & 0xF]);
+        }
+
+        return hex.toString();
+    }
+}
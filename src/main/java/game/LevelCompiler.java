@@ -0,0 +1,60 @@
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compiles the text levels into {@link BinaryLevel}s.
+ * <p>
+ * Usage: {@code LevelCompiler <output directory> <level.txt>...}, or a
+ * directory instead of the levels to compile all the .txt files in it.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class LevelCompiler {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: LevelCompiler <output directory> <level.txt or directory>...");
+            System.exit(1);
+        }
+
+        File output = new File(args[0]);
+        if (!output.isDirectory() && !output.mkdirs()) {
+            throw new IOException("Cannot create " + output);
+        }
+
+        for (int i = 1; i < args.length; i++) {
+            File input = new File(args[i]);
+            File[] files = input.isDirectory() ? input.listFiles((dir, name) -> name.endsWith(".txt")) : new File[]{input};
+
+            if (files == null) {
+                throw new IOException("Cannot list " + input);
+            }
+
+            for (File file : files) {
+                File compiled = new File(output, file.getName().replaceFirst("\\.txt$", "") + BinaryLevel.EXTENSION);
+                compile(file, compiled);
+                System.out.printf("Compiled %s to %s%n", file, compiled);
+            }
+        }
+    }
+
+    /**
+     * Compile a text level.
+     *
+     * @param level    the text level
+     * @param compiled the file to write
+     */
+    public static void compile(File level, File compiled) throws IOException {
+        Level parsed = LevelLoader.loadLevel(level);
+
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(compiled))) {
+            BinaryLevel.write(parsed, stream);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Generates large levels in the text format of the bundled ones, e.g. to
+ * benchmark or load test the game on a huge world.
+ * <p>
+ * The level is a wall around rooms laid out on an irregular grid. Every wall
+ * between two rooms next to each other has a single way through, either an
+ * opening or a door, so every room can be reached when the doors are open.
+ * The enemies, the agents and the exit stand inside the rooms, and a room has
+ * either a floor or grass.
+ * <p>
+ * The same seed and settings always give the same file. The level is written
+ * line by line: besides the file, the memory used is a few bits per tile and
+ * a few bytes per room.
+ * <p>
+ * Usage: {@code LevelGenerator <level.txt> <width> <height> <seed>
+ * [<room density> <doors> <enemies>]}
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class LevelGenerator {
+
+    /**
+     * The largest width and height of a level
+     */
+    public static final int MAX_SIZE = 10_000;
+
+    /**
+     * The smallest width and height of the inside of a room
+     */
+    private static final int MIN_ROOM_SIZE = 3;
+
+    private static final byte[] DOOR_TYPES = {'X', 'O', 'P', 'R', 'S', 'T'};
+
+    /**
+     * The chance of a room to have grass
+     */
+    private static final double GRASS_CHANCE = 0.25;
+
+    private final int width;
+
+    private final int height;
+
+    private final long seed;
+
+    private double roomDensity = 1;
+
+    private int doorCount = -1;
+
+    private int enemyCount = -1;
+
+    private int agentCount = 1;
+
+    /**
+     * Create a generator with a room every 1000 tiles, a door on a wall out
+     * of four, an enemy every 500 tiles and one agent.
+     *
+     * @param width  the width of the level
+     * @param height the height of the level
+     * @param seed   the seed of the random choices
+     */
+    public LevelGenerator(int width, int height, long seed) {
+        if (width < MIN_ROOM_SIZE + 2 || height < MIN_ROOM_SIZE + 2 || width > MAX_SIZE || height > MAX_SIZE) {
+            throw new IllegalArgumentException(String.format("The size must be between %d and %d, not %dx%d",
+                    MIN_ROOM_SIZE + 2, MAX_SIZE, width, height));
+        }
+
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4 && args.length != 7) {
+            System.err.println("Usage: LevelGenerator <level.txt> <width> <height> <seed> "
+                    + "[<room density> <doors> <enemies>]");
+            System.exit(1);
+        }
+
+        LevelGenerator generator = new LevelGenerator(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Long.parseLong(args[3]));
+
+        if (args.length == 7) {
+            generator.setRoomDensity(Double.parseDouble(args[4]));
+            generator.setDoorCount(Integer.parseInt(args[5]));
+            generator.setEnemyCount(Integer.parseInt(args[6]));
+        }
+
+        File output = new File(args[0]);
+        generator.write(output);
+        System.out.printf("Generated %s (%dx%d)%n", output, generator.width, generator.height);
+    }
+
+    /**
+     * Set the number of rooms every 1000 tiles. The rooms are never smaller
+     * than 3x3 inside, so a high density gives fewer rooms than asked.
+     */
+    public void setRoomDensity(double roomDensity) {
+        if (!(roomDensity > 0)) {
+            throw new IllegalArgumentException("The room density must be positive");
+        }
+
+        this.roomDensity = roomDensity;
+    }
+
+    /**
+     * Set the number of doors. There is at most one door on the wall between
+     * two rooms, so there can't be more doors than such walls.
+     */
+    public void setDoorCount(int doorCount) {
+        this.doorCount = requirePositive(doorCount, "doors");
+    }
+
+    public void setEnemyCount(int enemyCount) {
+        this.enemyCount = requirePositive(enemyCount, "enemies");
+    }
+
+    public void setAgentCount(int agentCount) {
+        this.agentCount = requirePositive(agentCount, "agents");
+    }
+
+    /**
+     * Write the level to a file.
+     *
+     * @param file the file to write, usually a .txt
+     */
+    public void write(File file) throws IOException {
+        try (OutputStream stream = new FileOutputStream(file)) {
+            write(stream);
+        }
+    }
+
+    /**
+     * Write the level to a stream, which is not closed.
+     *
+     * @param stream the stream to write
+     * @throws IllegalArgumentException if the doors or the entities don't
+     *                                  fit in the level
+     */
+    public void write(OutputStream stream) throws IOException {
+        new Layout(new Random(seed)).write(new BufferedOutputStream(stream));
+    }
+
+    private static int requirePositive(int count, String name) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of " + name + " can't be negative");
+        }
+
+        return count;
+    }
+
+    /**
+     * The random choices of a level, made in a fixed order
+     */
+    private class Layout {
+
+        /**
+         * The x of the walls between the columns of rooms, and of the outer
+         * walls, in order
+         */
+        private final int[] wallXs;
+
+        /**
+         * The y of the walls between the rows of rooms, and of the outer
+         * walls, in order
+         */
+        private final int[] wallYs;
+
+        private final int columns;
+
+        private final int rows;
+
+        /**
+         * The rooms with grass, row by row
+         */
+        private final BitSet grass;
+
+        /**
+         * The offset of the way through each wall between two rooms, from the
+         * first tile of the wall, then the walls of the columns, row by row,
+         * then the walls of the rows, row by row
+         */
+        private final int[] passages;
+
+        /**
+         * The door type of each way through, 0 for an opening
+         */
+        private final byte[] doors;
+
+        /**
+         * The tiles of the entities and of the exit
+         */
+        private final BitSet enemies;
+        private final BitSet agents;
+        private final int exit;
+
+        Layout(Random random) {
+            double pitch = Math.sqrt(1000 / roomDensity);
+            wallXs = walls(random, width, pitch);
+            wallYs = walls(random, height, pitch);
+            columns = wallXs.length - 1;
+            rows = wallYs.length - 1;
+
+            grass = new BitSet(columns * rows);
+            for (int room = 0; room < columns * rows; room++) {
+                grass.set(room, random.nextDouble() < GRASS_CHANCE);
+            }
+
+            int columnWalls = (columns - 1) * rows;
+            int rowWalls = columns * (rows - 1);
+            passages = new int[columnWalls + rowWalls];
+            doors = new byte[passages.length];
+
+            for (int wall = 0; wall < passages.length; wall++) {
+                passages[wall] = random.nextInt(wall < columnWalls
+                        ? roomHeight(wall / (columns - 1))
+                        : roomWidth((wall - columnWalls) % columns));
+            }
+
+            int doorsLeft = doorCount == -1 ? passages.length / 4 : doorCount;
+            if (doorsLeft > passages.length) {
+                throw new IllegalArgumentException(String.format("There is room for %d doors, not %d",
+                        passages.length, doorsLeft));
+            }
+
+            // selection sampling, which picks exactly the number of doors
+            for (int wall = 0; wall < passages.length && doorsLeft > 0; wall++) {
+                if (random.nextInt(passages.length - wall) < doorsLeft) {
+                    doors[wall] = DOOR_TYPES[random.nextInt(DOOR_TYPES.length)];
+                    doorsLeft--;
+                }
+            }
+
+            long roomTiles = 0;
+            for (int column = 0; column < columns; column++) {
+                roomTiles += roomWidth(column);
+            }
+            long rowTiles = 0;
+            for (int row = 0; row < rows; row++) {
+                rowTiles += roomHeight(row);
+            }
+            roomTiles *= rowTiles;
+
+            int enemyTotal = enemyCount == -1 ? width * height / 500 : enemyCount;
+            if ((long) enemyTotal + agentCount + 1 > roomTiles) {
+                throw new IllegalArgumentException(String.format("There is room for %d entities, not %d",
+                        roomTiles - 1, enemyTotal + agentCount));
+            }
+
+            BitSet taken = new BitSet(width * height);
+            agents = place(random, agentCount, taken);
+            exit = place(random, 1, taken).nextSetBit(0);
+            enemies = place(random, enemyTotal, taken);
+        }
+
+        /**
+         * Choose the walls across one side of the level, rooms of about the
+         * pitch apart, including the outer walls.
+         */
+        private int[] walls(Random random, int size, double pitch) {
+            int average = Math.max(MIN_ROOM_SIZE, (int) Math.round(pitch) - 1);
+            int smallest = Math.max(MIN_ROOM_SIZE, average / 2);
+            int spread = Math.max(1, average - smallest + 1);
+
+            int[] walls = new int[size / (smallest + 1) + 2];
+            int count = 1;
+            int next = 1 + smallest + random.nextInt(2 * spread - 1);
+
+            // the last room takes what is left when another one doesn't fit
+            while (next + 1 + smallest <= size - 1) {
+                walls[count++] = next;
+                next += 1 + smallest + random.nextInt(2 * spread - 1);
+            }
+            walls[count++] = size - 1;
+
+            return Arrays.copyOf(walls, count);
+        }
+
+        private int roomWidth(int column) {
+            return wallXs[column + 1] - wallXs[column] - 1;
+        }
+
+        private int roomHeight(int row) {
+            return wallYs[row + 1] - wallYs[row] - 1;
+        }
+
+        /**
+         * Choose free tiles inside the rooms.
+         */
+        private BitSet place(Random random, int count, BitSet taken) {
+            BitSet placed = new BitSet();
+
+            while (count > 0) {
+                int column = random.nextInt(columns);
+                int row = random.nextInt(rows);
+                int x = wallXs[column] + 1 + random.nextInt(roomWidth(column));
+                int y = wallYs[row] + 1 + random.nextInt(roomHeight(row));
+                int tile = y * width + x;
+
+                if (!taken.get(tile)) {
+                    taken.set(tile);
+                    placed.set(tile);
+                    count--;
+                }
+            }
+
+            return placed;
+        }
+
+        void write(OutputStream stream) throws IOException {
+            byte[] line = new byte[width + 1];
+            line[width] = '\n';
+
+            for (int y = 0, row = 0; y < height; y++) {
+                if (y == wallYs[row + 1]) {
+                    row++;
+                }
+
+                if (y == wallYs[row]) {
+                    writeWallRow(line, row);
+                } else {
+                    writeRoomRow(line, y, row);
+                }
+
+                stream.write(line);
+            }
+
+            stream.flush();
+        }
+
+        /**
+         * Write the wall above a row of rooms, with the ways into the rooms
+         * above it.
+         */
+        private void writeWallRow(byte[] line, int row) {
+            Arrays.fill(line, 0, width, (byte) 'W');
+
+            if (row == 0 || row == rows) {
+                return;
+            }
+
+            int first = (columns - 1) * rows + (row - 1) * columns;
+            for (int column = 0; column < columns; column++) {
+                int wall = first + column;
+                line[wallXs[column] + 1 + passages[wall]] = doors[wall] == 0 ? (byte) ' ' : doors[wall];
+            }
+        }
+
+        private void writeRoomRow(byte[] line, int y, int row) {
+            int offset = y - wallYs[row] - 1;
+
+            for (int column = 0; column < columns; column++) {
+                byte floor = grass.get(row * columns + column) ? (byte) '.' : (byte) ' ';
+                int x = wallXs[column];
+
+                if (column == 0) {
+                    line[x] = 'W';
+                } else {
+                    int wall = row * (columns - 1) + column - 1;
+                    line[x] = passages[wall] != offset ? (byte) 'W' : doors[wall] == 0 ? floor : doors[wall];
+                }
+
+                for (x++; x < wallXs[column + 1]; x++) {
+                    int tile = y * width + x;
+
+                    if (enemies.get(tile)) {
+                        line[x] = 'H';
+                    } else if (agents.get(tile)) {
+                        line[x] = 'A';
+                    } else if (tile == exit) {
+                        line[x] = 'Q';
+                    } else {
+                        line[x] = floor;
+                    }
+                }
+            }
+
+            line[width - 1] = 'W';
+        }
+    }
+}
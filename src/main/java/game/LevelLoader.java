@@ -1,15 +1,31 @@
 package game;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.Objects;
 
 public class LevelLoader {
+    /**
+     * Load a level from the resources, the compiled one if it was built,
+     * see {@link LevelCompiler}, or else the text one.
+     *
+     * @param levelName the name of the level, without extension
+     * @return the level
+     */
     public static Level loadLevel(String levelName) {
         Objects.requireNonNull(levelName);
 
+        URL compiled = Level.class.getClassLoader().getResource(String.format("Levels/%s%s", levelName, BinaryLevel.EXTENSION));
+        if (compiled != null) {
+            System.out.printf("Loading level %s%n", compiled);
+
+            return loadCompiledLevel(compiled);
+        }
+
         String levelPath = String.format("Levels/%s.txt", levelName);
 
         System.out.printf("Loading level %s%n", levelPath);
@@ -19,19 +35,66 @@ public class LevelLoader {
         return loadLevel(resourceAsStream);
     }
 
+    /**
+     * Load a level from a file, compiled if its name ends with
+     * {@link BinaryLevel#EXTENSION}, or else text.
+     */
     public static Level loadLevel(File file) throws FileNotFoundException {
         Objects.requireNonNull(file);
 
+        if (file.getName().endsWith(BinaryLevel.EXTENSION)) {
+            try {
+                return BinaryLevel.map(file.toPath());
+            } catch (FileNotFoundException | NoSuchFileException e) {
+                throw new FileNotFoundException(file.getPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
         return loadLevel(new FileInputStream(file));
     }
 
-    public static Level loadLevel(InputStream stream) {
-        Objects.requireNonNull(stream);
+    /**
+     * Load a compiled level, mapped into memory when it is a file and read
+     * into memory otherwise, e.g. from a jar.
+     */
+    private static Level loadCompiledLevel(URL url) {
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return BinaryLevel.map(Paths.get(url.toURI()));
+            }
 
-        LevelParser parser = new LevelParser(stream);
+            try (InputStream stream = url.openStream()) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
 
-        parser.parse();
+                for (int read; (read = stream.read(buffer)) != -1; ) {
+                    bytes.write(buffer, 0, read);
+                }
+
+                return BinaryLevel.read(ByteBuffer.wrap(bytes.toByteArray()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Parse a text level with a {@link StreamingLevelParser}.
+     *
+     * @param stream the level file, which is closed
+     * @return the level
+     */
+    public static Level loadLevel(InputStream stream) {
+        Objects.requireNonNull(stream);
 
-        return new Level(parser);
+        try (InputStream level = stream) {
+            return StreamingLevelParser.parse(level);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -101,7 +101,7 @@ public class LevelParser {
             for (int x = 0; x < rawLevel.get(y).length(); x++) {
 
                 char currentChar = rawLevel.get(y).charAt(x);
-                Floor floor = new Floor();
+                Floor floor = Floor.INSTANCE;
                 GridObject gridObject = null;
                 Entity entity = null;
 
@@ -120,7 +120,7 @@ public class LevelParser {
                         break;
 
                     case 'Q': // exit
-                        gridObject = new Exit();
+                        gridObject = Exit.INSTANCE;
                         break;
 
                     case 'H': // enemy
@@ -128,11 +128,11 @@ public class LevelParser {
                         break;
 
                     case '.': // grass
-                        floor = new Grass();
+                        floor = Grass.INSTANCE;
                         break;
 
                     case 'W': // wall
-                        gridObject = new Wall();
+                        gridObject = Wall.INSTANCE;
                         break;
 
                     default:
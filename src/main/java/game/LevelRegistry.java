@@ -0,0 +1,45 @@
+package game;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads each level once, the first time it is needed, and keeps it as a
+ * {@link LevelTemplate} for the next games.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class LevelRegistry {
+
+    private static final Map<String, LevelTemplate> templates = new ConcurrentHashMap<>();
+
+    private LevelRegistry() {
+    }
+
+    /**
+     * @param levelName the level name, as for {@link LevelLoader#loadLevel(String)}
+     * @return the template of the level, loaded if needed
+     */
+    public static LevelTemplate getTemplate(String levelName) {
+        Objects.requireNonNull(levelName);
+
+        return templates.computeIfAbsent(levelName, name -> new LevelTemplate(LevelLoader.loadLevel(name)));
+    }
+
+    /**
+     * @param levelName the level name, as for {@link LevelLoader#loadLevel(String)}
+     * @return a new level to play on
+     */
+    public static Level newLevel(String levelName) {
+        return getTemplate(levelName).newLevel();
+    }
+
+    /**
+     * Forget all the templates, e.g. after the level files have changed.
+     */
+    public static void clear() {
+        templates.clear();
+    }
+}
@@ -0,0 +1,115 @@
+package game;
+
+import game.entities.Agent;
+import game.entities.Enemy;
+import game.entities.Entity;
+import game.gridobjects.Door;
+import game.gridobjects.Floor;
+import game.gridobjects.GridObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A level as it was parsed, which never changes and makes new levels to
+ * play on.
+ * <p>
+ * The floor grid is read only and shared by every level made. The objects
+ * grid is copied, which only copies references, and only the doors and the
+ * entities, which change during a game, are created again.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class LevelTemplate {
+
+    private final Grid<GridObject> objects;
+
+    private final Grid<Floor> floors;
+
+    /**
+     * The tiles, types and states of the doors, as y * width + x
+     */
+    private final int[] doorTiles;
+    private final char[] doorTypes;
+    private final boolean[] doorsClosed;
+
+    /**
+     * The kind and position of each entity, in order
+     */
+    private final List<Entity> spawns = new ArrayList<>();
+
+    /**
+     * Create a template from a level, which must not be used anymore.
+     *
+     * @param level the level as loaded
+     */
+    public LevelTemplate(Level level) {
+        objects = level.getGameGrid().clone();
+        objects.makeReadOnly();
+
+        floors = level.getFloorGrid();
+        floors.makeReadOnly();
+
+        List<Integer> tiles = new ArrayList<>();
+        objects.forEachIndexed((object, index) -> {
+            if (object instanceof Door) {
+                tiles.add(index);
+            }
+        });
+
+        doorTiles = new int[tiles.size()];
+        doorTypes = new char[tiles.size()];
+        doorsClosed = new boolean[tiles.size()];
+        for (int i = 0; i < doorTiles.length; i++) {
+            doorTiles[i] = tiles.get(i);
+
+            Door door = (Door) objects.get(doorTiles[i] % objects.getWidth(), doorTiles[i] / objects.getWidth());
+            doorTypes[i] = door.getDoorType();
+            doorsClosed[i] = door.isBlocking();
+        }
+
+        for (Entity entity : level.getEntities()) {
+            // fail now rather than when a level is made
+            spawn(entity);
+            spawns.add(entity);
+        }
+    }
+
+    /**
+     * Make a new level to play on, as the template was loaded.
+     *
+     * @return the level
+     */
+    public Level newLevel() {
+        Grid<GridObject> gameGrid = objects.clone();
+        int width = gameGrid.getWidth();
+
+        for (int i = 0; i < doorTiles.length; i++) {
+            gameGrid.put(new Door(doorTypes[i], doorsClosed[i]), doorTiles[i] % width, doorTiles[i] / width);
+        }
+
+        Entities entities = new Entities();
+        for (Entity spawn : spawns) {
+            entities.add(spawn(spawn));
+        }
+
+        return new Level(gameGrid, floors, entities);
+    }
+
+    private static Entity spawn(Entity spawn) {
+        Entity entity;
+
+        if (spawn instanceof Agent) {
+            entity = new Agent();
+        } else if (spawn instanceof Enemy) {
+            entity = new Enemy();
+        } else {
+            throw new IllegalArgumentException("Unknown entity " + spawn.getClass().getName());
+        }
+
+        entity.setPosition(spawn.getX(), spawn.getY());
+
+        return entity;
+    }
+}
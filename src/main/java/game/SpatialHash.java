@@ -0,0 +1,141 @@
+package game;
+
+import game.entities.Entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A spatial hash of entities keyed by the tile they stand on.
+ * <p>
+ * Only the tiles with entities on them have a bucket, so the memory used
+ * depends on the number of entities and not on the size of the level. A query
+ * costs O(tiles looked at), whatever the number of entities.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+class SpatialHash {
+
+    private final Map<Long, List<Entity>> buckets = new HashMap<>();
+
+    void add(Entity entity) {
+        buckets.computeIfAbsent(key(entity.getX(), entity.getY()), key -> new ArrayList<>(1)).add(entity);
+    }
+
+    void remove(Entity entity) {
+        remove(entity, entity.getX(), entity.getY());
+    }
+
+    /**
+     * Move an entity to the bucket of the tile it is on now, if it is in the
+     * hash.
+     */
+    void move(Entity entity, double oldX, double oldY) {
+        if (key(oldX, oldY) == key(entity.getX(), entity.getY())) {
+            return;
+        }
+
+        if (remove(entity, oldX, oldY)) {
+            add(entity);
+        }
+    }
+
+    void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * @return the entities on the tile, empty if there are none
+     */
+    List<Entity> get(int x, int y) {
+        List<Entity> bucket = buckets.get(key(x, y));
+
+        return bucket == null ? Collections.emptyList() : Collections.unmodifiableList(bucket);
+    }
+
+    /**
+     * @return the entities closer than the radius to x, y
+     */
+    List<Entity> getNear(double x, double y, double radius) {
+        List<Entity> found = new ArrayList<>();
+        double squaredRadius = radius * radius;
+
+        int minX = (int) Math.floor(x - radius);
+        int maxX = (int) Math.floor(x + radius);
+        int minY = (int) Math.floor(y - radius);
+        int maxY = (int) Math.floor(y + radius);
+
+        // a large radius looks at the buckets instead of the tiles
+        if ((long) (maxX - minX + 1) * (maxY - minY + 1) > buckets.size()) {
+            for (List<Entity> bucket : buckets.values()) {
+                addNear(bucket, x, y, squaredRadius, found);
+            }
+
+            return found;
+        }
+
+        for (int tileY = minY; tileY <= maxY; tileY++) {
+            for (int tileX = minX; tileX <= maxX; tileX++) {
+                List<Entity> bucket = buckets.get(key(tileX, tileY));
+
+                if (bucket != null) {
+                    addNear(bucket, x, y, squaredRadius, found);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private void addNear(List<Entity> bucket, double x, double y, double squaredRadius, List<Entity> found) {
+        for (Entity entity : bucket) {
+            double dx = entity.getX() - x;
+            double dy = entity.getY() - y;
+
+            if (dx * dx + dy * dy < squaredRadius) {
+                found.add(entity);
+            }
+        }
+    }
+
+    private boolean remove(Entity entity, double x, double y) {
+        long key = key(x, y);
+        List<Entity> bucket = buckets.get(key);
+
+        if (bucket == null) {
+            return false;
+        }
+
+        // the entity itself, not an equal one
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == entity) {
+                bucket.remove(i);
+
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long key(double x, double y) {
+        return key((int) Math.floor(x), (int) Math.floor(y));
+    }
+
+    /**
+     * The tile packed in a long and multiplied by an odd constant, which
+     * keeps the keys distinct but spreads them: the hash code of the packed
+     * tile alone is x ^ y, which makes the buckets of a large level collide.
+     */
+    private static long key(int x, int y) {
+        return (((long) x << 32) | (y & 0xffffffffL)) * 0x9E3779B97F4A7C15L;
+    }
+}
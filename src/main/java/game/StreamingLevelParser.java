@@ -0,0 +1,255 @@
+package game;
+
+import game.entities.Agent;
+import game.entities.Enemy;
+import game.entities.Entity;
+import game.gridobjects.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Parses a text level in a single pass over its bytes, without making a
+ * String of each line.
+ * <p>
+ * The level is the same as the one made by {@link LevelParser} from an ASCII
+ * file: every line is trimmed and upper-cased, and the width is the one of the
+ * longest line. The characters outside ASCII are read as UTF-8 and are empty
+ * tiles, while {@link LevelParser} reads them with the default charset.
+ * <p>
+ * While parsing, each tile takes one byte, plus the entities; the grids and
+ * the doors are only made at the end, when the size is known.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class StreamingLevelParser {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * The codes of the tiles in the buffer; a door is kept as its type
+     */
+    private static final byte EMPTY = 0;
+    private static final byte WALL = 1;
+    private static final byte EXIT = 2;
+    private static final byte GRASS = 3;
+
+    /**
+     * The codes of the entities, which stand on empty tiles
+     */
+    private static final byte AGENT = 4;
+    private static final byte ENEMY = 5;
+
+    /**
+     * The code of each byte, lower and upper case alike
+     */
+    private static final byte[] CODES = new byte[256];
+
+    static {
+        CODES['W'] = WALL;
+        CODES['Q'] = EXIT;
+        CODES['.'] = GRASS;
+        CODES['A'] = AGENT;
+        CODES['H'] = ENEMY;
+
+        for (char door : new char[]{'X', 'O', 'P', 'R', 'S', 'T'}) {
+            CODES[door] = (byte) door;
+        }
+
+        for (char c = 'a'; c <= 'z'; c++) {
+            CODES[c] = CODES[c - ('a' - 'A')];
+        }
+    }
+
+    /**
+     * The tiles of all the lines, one after the other
+     */
+    private byte[] tiles;
+    private int tileCount;
+
+    /**
+     * The index in the tiles after the end of each line
+     */
+    private int[] lineEnds = new int[256];
+    private int lineCount;
+
+    private int width;
+
+    private final Entities entities = new Entities();
+
+    /**
+     * The blanks read after the last character of the line, which are tiles
+     * only if another character follows
+     */
+    private int pendingBlanks;
+
+    /**
+     * Whether a character that is not blank has been read on the line
+     */
+    private boolean lineStarted;
+
+    /**
+     * Whether anything has been read since the end of the last line
+     */
+    private boolean lineOpen;
+
+    /**
+     * Whether the last byte was a carriage return, so that a line feed after
+     * it doesn't end another line
+     */
+    private boolean afterCarriageReturn;
+
+    /**
+     * @param expectedSize the expected size of the file, e.g. the bytes
+     *                     available, which is enough for all the tiles
+     */
+    private StreamingLevelParser(int expectedSize) {
+        tiles = new byte[expectedSize > 0 ? expectedSize : BUFFER_SIZE];
+    }
+
+    /**
+     * Parse a level from a stream, which is read to its end but not closed.
+     *
+     * @param stream the stream of the level file
+     * @return the level
+     * @throws IOException if the stream can't be read
+     */
+    public static Level parse(InputStream stream) throws IOException {
+        StreamingLevelParser parser = new StreamingLevelParser(stream.available());
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        for (int read; (read = stream.read(buffer)) != -1; ) {
+            parser.accept(buffer, 0, read);
+        }
+
+        return parser.finish();
+    }
+
+    /**
+     * Parse a level from the remaining bytes of a buffer, e.g. a mapped file.
+     *
+     * @param buffer the bytes of the level file
+     * @return the level
+     */
+    public static Level parse(ByteBuffer buffer) {
+        StreamingLevelParser parser = new StreamingLevelParser(buffer.remaining());
+
+        if (buffer.hasArray()) {
+            parser.accept(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        } else {
+            byte[] chunk = new byte[Math.min(BUFFER_SIZE, buffer.remaining())];
+
+            while (buffer.hasRemaining()) {
+                int length = Math.min(chunk.length, buffer.remaining());
+                buffer.get(chunk, 0, length);
+                parser.accept(chunk, 0, length);
+            }
+        }
+
+        return parser.finish();
+    }
+
+    private void accept(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            int b = bytes[i] & 0xFF;
+
+            if (b == '\n') {
+                if (!afterCarriageReturn) {
+                    endLine();
+                }
+                afterCarriageReturn = false;
+                continue;
+            }
+
+            if (b == '\r') {
+                endLine();
+                afterCarriageReturn = true;
+                continue;
+            }
+
+            afterCarriageReturn = false;
+            lineOpen = true;
+
+            if (b <= ' ') {
+                // trimmed at the start of the line, and at the end if nothing follows
+                if (lineStarted) {
+                    pendingBlanks++;
+                }
+            } else if ((b & 0xC0) != 0x80) {
+                // not the continuation of a UTF-8 character already counted
+                lineStarted = true;
+                addTile(CODES[b]);
+            }
+        }
+    }
+
+    private void addTile(byte code) {
+        // the blanks before the tile are empty, as the buffer starts zeroed
+        if (tileCount + pendingBlanks >= tiles.length) {
+            tiles = Arrays.copyOf(tiles, Math.max(2 * tiles.length, tileCount + pendingBlanks + 1));
+        }
+        tileCount += pendingBlanks;
+        pendingBlanks = 0;
+
+        if (code == AGENT || code == ENEMY) {
+            int x = tileCount - (lineCount == 0 ? 0 : lineEnds[lineCount - 1]);
+            addEntity(code == AGENT ? new Agent() : new Enemy(), x, lineCount);
+            code = EMPTY;
+        }
+
+        tiles[tileCount++] = code;
+    }
+
+    private void addEntity(Entity entity, int x, int y) {
+        entity.setPosition(x, y);
+        entities.add(entity);
+    }
+
+    private void endLine() {
+        if (lineCount == lineEnds.length) {
+            lineEnds = Arrays.copyOf(lineEnds, 2 * lineEnds.length);
+        }
+
+        int start = lineCount == 0 ? 0 : lineEnds[lineCount - 1];
+        width = Math.max(width, tileCount - start);
+        lineEnds[lineCount++] = tileCount;
+
+        pendingBlanks = 0;
+        lineStarted = false;
+        lineOpen = false;
+    }
+
+    private Level finish() {
+        if (lineOpen) {
+            endLine();
+        }
+
+        Floor[] floors = new Floor[width * lineCount];
+        GridObject[] objects = new GridObject[width * lineCount];
+
+        for (int y = 0; y < lineCount; y++) {
+            int start = y == 0 ? 0 : lineEnds[y - 1];
+
+            for (int i = start, tile = y * width; i < lineEnds[y]; i++, tile++) {
+                byte code = tiles[i];
+
+                if (code == WALL) {
+                    objects[tile] = Wall.INSTANCE;
+                } else if (code == EXIT) {
+                    objects[tile] = Exit.INSTANCE;
+                } else if (code > ENEMY) {
+                    objects[tile] = new Door((char) code);
+                }
+
+                floors[tile] = code == GRASS ? Grass.INSTANCE : Floor.INSTANCE;
+            }
+        }
+
+        return new Level(new Grid<>(GridObject.class, width, lineCount, objects),
+                new Grid<>(Floor.class, width, lineCount, floors), entities);
+    }
+}
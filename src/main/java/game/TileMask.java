@@ -0,0 +1,86 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * A set of tiles of a grid, stored as the 64-bit words of a row by row bitset
+ * that have at least one tile set. Applying the mask to a bitset of the
+ * whole grid costs O(words), however large the grid is.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class TileMask {
+
+    /**
+     * The index of each word with tiles in it, ascending
+     */
+    private final int[] words;
+
+    /**
+     * The tiles set in each word
+     */
+    private final long[] bits;
+
+    /**
+     * Create a mask.
+     *
+     * @param tiles the tiles, as y * width + x, in ascending order
+     * @param count the number of tiles to read
+     */
+    public TileMask(int[] tiles, int count) {
+        int[] words = new int[count];
+        long[] bits = new long[count];
+        int size = 0;
+
+        for (int i = 0; i < count; i++) {
+            int word = tiles[i] >>> 6;
+
+            if (size == 0 || words[size - 1] != word) {
+                words[size++] = word;
+            }
+
+            bits[size - 1] |= 1L << tiles[i];
+        }
+
+        this.words = Arrays.copyOf(words, size);
+        this.bits = Arrays.copyOf(bits, size);
+    }
+
+    /**
+     * @return the number of words with tiles in them
+     */
+    public int getWordCount() {
+        return words.length;
+    }
+
+    /**
+     * @return the index of a word with tiles in it, in the bitset of the grid
+     */
+    int getWord(int i) {
+        return words[i];
+    }
+
+    /**
+     * @return the tiles set in a word, see {@link #getWord(int)}
+     */
+    long getBits(int i) {
+        return bits[i];
+    }
+
+    /**
+     * Set or clear the tiles of the mask in a bitset.
+     *
+     * @param bitset the bitset of the whole grid
+     * @param set    true to set the tiles, false to clear them
+     */
+    void apply(long[] bitset, boolean set) {
+        for (int i = 0; i < words.length; i++) {
+            if (set) {
+                bitset[words[i]] |= bits[i];
+            } else {
+                bitset[words[i]] &= ~bits[i];
+            }
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package game.entities;
 
+import algorithms.Mover;
+
 /**
  * Enemy
  *
  * @author stefano
  * @version 1.0.0
  */
-public class Enemy extends Character {
+public class Enemy extends Character implements Mover {
 
     /** The default health value */
     private static final int DEFAULT_ENEMY_HEALTH = 100;
@@ -1,5 +1,7 @@
 package game.entities;
 
+import game.interfaces.PositionListener;
+
 import java.io.Serializable;
 
 import static java.lang.Math.pow;
@@ -16,6 +18,11 @@ public class Entity implements Serializable {
 
     private double y;
 
+    /**
+     * Told when the entity moves, e.g. by the entities holding it
+     */
+    private transient PositionListener positionListener;
+
     public Entity() {
         this(0, 0);
     }
@@ -26,8 +33,24 @@ public class Entity implements Serializable {
     }
 
     public void setPosition(double x, double y) {
+        double oldX = this.x;
+        double oldY = this.y;
+
         this.x = x;
         this.y = y;
+
+        if (positionListener != null) {
+            positionListener.positionChanged(this, oldX, oldY);
+        }
+    }
+
+    /**
+     * Set the listener to call when the entity moves.
+     *
+     * @param listener the listener, or null to remove it
+     */
+    public void setPositionListener(PositionListener listener) {
+        this.positionListener = listener;
     }
 
     public double getX() {
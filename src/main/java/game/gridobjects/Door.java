@@ -1,5 +1,7 @@
 package game.gridobjects;
 
+import game.interfaces.BlockingListener;
+
 /**
  * Door
  *
@@ -12,6 +14,17 @@ public class Door extends GridObject {
 
     private char doorType;
 
+    /**
+     * Told when the door is opened or closed, e.g. by the grid holding it
+     */
+    private transient BlockingListener blockingListener;
+
+    /**
+     * Where the door is for the listener
+     */
+    private transient int x;
+    private transient int y;
+
     public Door(char doorType) {
         this(doorType, true);
     }
@@ -22,15 +35,27 @@ public class Door extends GridObject {
     }
 
     public void open() {
-        closed = false;
+        setClosed(false);
     }
 
     public void close() {
-        closed = true;
+        setClosed(true);
     }
 
     public void toggleDoor() {
-        this.closed = !this.closed;
+        setClosed(!this.closed);
+    }
+
+    private void setClosed(boolean closed) {
+        if (this.closed == closed) {
+            return;
+        }
+
+        this.closed = closed;
+
+        if (blockingListener != null) {
+            blockingListener.blockingChanged(x, y);
+        }
     }
 
     public char getDoorType() {
@@ -49,4 +74,18 @@ public class Door extends GridObject {
     public boolean isBlocking() {
         return closed;
     }
+
+    @Override
+    public void setBlockingListener(BlockingListener listener, int x, int y) {
+        this.blockingListener = listener;
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public void removeBlockingListener(BlockingListener listener) {
+        if (blockingListener == listener) {
+            blockingListener = null;
+        }
+    }
 }
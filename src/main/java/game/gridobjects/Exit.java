@@ -2,14 +2,26 @@ package game.gridobjects;
 
 /**
  * Exit
+ * <p>
+ * Exits have no state, so every exit is the same {@link #INSTANCE}, also
+ * after being deserialized.
  *
  * @author stefano
  * @version 1.0.0
  */
 public class Exit extends GridObject {
 
+    public static final Exit INSTANCE = new Exit();
+
+    private Exit() {
+    }
+
     @Override
     public boolean isBlocking() {
         return false;
     }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
 }
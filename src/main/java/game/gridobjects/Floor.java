@@ -2,13 +2,26 @@ package game.gridobjects;
 
 /**
  * Floor
+ * <p>
+ * Floors have no state, so every plain floor is the same {@link #INSTANCE},
+ * also after being deserialized.
  *
  * @author stefano
  * @version 1.0.0
  */
 public class Floor extends GridObject {
+
+    public static final Floor INSTANCE = new Floor();
+
+    protected Floor() {
+    }
+
     @Override
     public boolean isBlocking() {
         return false;
     }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
 }
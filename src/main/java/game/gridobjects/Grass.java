@@ -1,4 +1,21 @@
 package game.gridobjects;
 
+/**
+ * Grass
+ * <p>
+ * Every grass tile is the same {@link #INSTANCE}, like {@link Floor}.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
 public class Grass extends Floor {
+
+    public static final Grass INSTANCE = new Grass();
+
+    private Grass() {
+    }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
 }
@@ -2,13 +2,26 @@ package game.gridobjects;
 
 /**
  * Wall
+ * <p>
+ * Walls have no state, so every wall is the same {@link #INSTANCE}, also
+ * after being deserialized.
  *
  * @author stefano
  * @version 1.0.0
  */
 public class Wall extends GridObject {
+
+    public static final Wall INSTANCE = new Wall();
+
+    private Wall() {
+    }
+
     @Override
     public boolean isBlocking() {
         return true;
     }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
 }
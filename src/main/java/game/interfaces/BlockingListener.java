@@ -0,0 +1,12 @@
+package game.interfaces;
+
+/**
+ * BlockingListener is told when a {@link Griddable} starts or stops blocking,
+ * e.g. a door being opened, with the position it was given.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public interface BlockingListener {
+    void blockingChanged(int x, int y);
+}
@@ -9,4 +9,24 @@ package game.interfaces;
  */
 public interface Griddable {
     boolean isBlocking();
+
+    /**
+     * Set the listener to call when the object starts or stops blocking.
+     * Objects that always block or never do can ignore it.
+     *
+     * @param listener the listener, or null to remove it
+     * @param x        the x coordinate to call the listener with
+     * @param y        the y coordinate to call the listener with
+     */
+    default void setBlockingListener(BlockingListener listener, int x, int y) {
+    }
+
+    /**
+     * Remove the listener, if it is the one the object calls. An object
+     * shared by two grids keeps calling the one that set its listener.
+     *
+     * @param listener the listener to remove
+     */
+    default void removeBlockingListener(BlockingListener listener) {
+    }
 }
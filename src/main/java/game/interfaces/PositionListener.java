@@ -0,0 +1,13 @@
+package game.interfaces;
+
+import game.entities.Entity;
+
+/**
+ * PositionListener is told when an {@link Entity} moves.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public interface PositionListener {
+    void positionChanged(Entity entity, double oldX, double oldY);
+}
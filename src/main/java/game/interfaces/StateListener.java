@@ -0,0 +1,12 @@
+package game.interfaces;
+
+/**
+ * StateListener is told when the state version of a game goes up, i.e. after
+ * a move changed the level or the status.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public interface StateListener {
+    void stateChanged(long stateVersion);
+}
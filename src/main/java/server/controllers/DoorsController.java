@@ -1,6 +1,7 @@
 package server.controllers;
 
 import game.GameEngine;
+import game.LevelCodec;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -27,10 +28,26 @@ public class DoorsController {
         return Status.fromGameEngine(gameEngine);
     }
 
+    @RequestMapping(value = "/doors/open", produces = LevelCodec.MEDIA_TYPE)
+    public byte[] encodedOpenDoors(@RequestParam(value = "type") String type,
+                                   @RequestParam(value = "since", defaultValue = "-1") long since) {
+        gameEngine.openDoors(type.toUpperCase().charAt(0));
+
+        return LevelCodec.encodeState(gameEngine, since);
+    }
+
     @RequestMapping("/doors/close")
     public Status closeDoors(@RequestParam(value="type") String type) throws IOException {
         gameEngine.closeDoors(type.toUpperCase().charAt(0));
 
         return Status.fromGameEngine(gameEngine);
     }
-}
\ No newline at end of file
+
+    @RequestMapping(value = "/doors/close", produces = LevelCodec.MEDIA_TYPE)
+    public byte[] encodedCloseDoors(@RequestParam(value = "type") String type,
+                                    @RequestParam(value = "since", defaultValue = "-1") long since) {
+        gameEngine.closeDoors(type.toUpperCase().charAt(0));
+
+        return LevelCodec.encodeState(gameEngine, since);
+    }
+}
@@ -0,0 +1,215 @@
+package server.controllers;
+
+import game.GameEngine;
+import game.LevelCodec;
+import game.interfaces.StateListener;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import server.Application;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * EventsController
+ * <p>
+ * Pushes the game to the clients as Server-Sent Events, so they don't have to
+ * poll {@link StatusController}. A client is first sent the state of the
+ * game, on a layout it fetches once, then the changes of every move as it is
+ * made. Each event is a {@link LevelCodec} frame in Base64, with the state
+ * version as its id; a client that misses one finds a delta whose base
+ * version is not its own, and asks for the whole state on /state.
+ * <p>
+ * The frame of a move is encoded on the thread that made it, but sent on the
+ * threads of the controller, one client after the other in its own order: a
+ * slow client never holds up a move, nor the other clients. One that falls
+ * too far behind is let go, and subscribes again from the current state.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+@RestController
+public class EventsController {
+
+    /**
+     * How long a subscription lasts before the client has to subscribe
+     * again, so that the ones lost without a word are let go eventually
+     */
+    private static final long SUBSCRIPTION_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+
+    /**
+     * The number of frames waiting to be sent to a client before it is let go
+     */
+    private static final int MAX_PENDING_FRAMES = 64;
+
+    private static final String EVENT_NAME = "frame";
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final GameEngine gameEngine = Application.getEngine();
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Sends the frames, with a thread for each client being sent to at the
+     * moment
+     */
+    private final ExecutorService sender = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "events-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final StateListener listener = this::broadcast;
+
+    public EventsController() {
+        gameEngine.addStateListener(listener);
+    }
+
+    @RequestMapping("/events")
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+
+        // the state is queued before any change made after it
+        synchronized (subscribers) {
+            byte[] frame = LevelCodec.encodeState(gameEngine, -1);
+            subscriber.enqueue(LevelCodec.getStateVersion(frame), frame);
+            subscribers.add(subscriber);
+        }
+
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        gameEngine.removeStateListener(listener);
+        sender.shutdownNow();
+    }
+
+    /**
+     * Queue the changes of a move for every client.
+     */
+    private void broadcast(long stateVersion) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        byte[] frame = LevelCodec.encodeState(gameEngine, stateVersion - 1);
+
+        synchronized (subscribers) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(stateVersion, frame);
+            }
+        }
+    }
+
+    private static void send(SseEmitter emitter, long stateVersion, byte[] frame) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(String.valueOf(stateVersion))
+                .name(EVENT_NAME)
+                .data(Base64.getEncoder().encodeToString(frame)));
+    }
+
+    /**
+     * A client and the frames not sent to it yet, sent in order by one
+     * thread at a time
+     */
+    private class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+
+        private final Queue<Long> versions = new ArrayDeque<>();
+        private final Queue<byte[]> frames = new ArrayDeque<>();
+
+        /**
+         * Whether a thread is sending the frames
+         */
+        private boolean sending;
+
+        /**
+         * Whether the client fell behind or went away
+         */
+        private boolean dropped;
+
+        /**
+         * Whether the client fell behind, and its subscription is to be ended
+         */
+        private volatile boolean lagging;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void enqueue(long stateVersion, byte[] frame) {
+            if (dropped) {
+                return;
+            }
+
+            if (frames.size() == MAX_PENDING_FRAMES) {
+                // the sending thread ends the subscription once it is done
+                lagging = true;
+                drop();
+                return;
+            }
+
+            versions.add(stateVersion);
+            frames.add(frame);
+
+            if (!sending) {
+                sending = true;
+                sender.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                long stateVersion;
+                byte[] frame;
+
+                synchronized (this) {
+                    if (dropped || frames.isEmpty()) {
+                        sending = false;
+                        break;
+                    }
+
+                    stateVersion = versions.remove();
+                    frame = frames.remove();
+                }
+
+                try {
+                    send(emitter, stateVersion, frame);
+                } catch (IOException | IllegalStateException e) {
+                    // the client went away, or the subscription is over
+                    synchronized (this) {
+                        drop();
+                    }
+                    return;
+                }
+            }
+
+            if (lagging) {
+                emitter.complete();
+            }
+        }
+
+        private void drop() {
+            dropped = true;
+            versions.clear();
+            frames.clear();
+            subscribers.remove(this);
+        }
+    }
+}
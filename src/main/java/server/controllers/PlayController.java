@@ -2,6 +2,7 @@ package server.controllers;
 
 import game.Direction;
 import game.GameEngine;
+import game.LevelCodec;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -12,6 +13,10 @@ import java.io.IOException;
 
 /**
  * PlayController
+ * <p>
+ * Every action returns the game as JSON, or as a {@link LevelCodec} frame to
+ * the clients that accept it: the changes since the state version they know
+ * if they give one, or else the state on the layout of the level.
  *
  * @author stefano
  * @version 1.0.0
@@ -30,24 +35,55 @@ public class PlayController {
         return Status.fromGameEngine(gameEngine);
     }
 
+    @RequestMapping(value = "/play", produces = LevelCodec.MEDIA_TYPE)
+    public byte[] encodedStatus() {
+        gameEngine.initializeGame();
+
+        return LevelCodec.encodeState(gameEngine, -1);
+    }
+
     @RequestMapping("/play/move")
     public Status move(@RequestParam(value = "d") String direction) throws IOException {
 
-        Direction dir = Direction.fromCode(direction.charAt(0));
-
-        gameEngine.handleMovement(dir);
+        handleMovement(direction);
 
         return Status.fromGameEngine(gameEngine);
     }
 
+    @RequestMapping(value = "/play/move", produces = LevelCodec.MEDIA_TYPE)
+    public byte[] encodedMove(@RequestParam(value = "d") String direction,
+                              @RequestParam(value = "since", defaultValue = "-1") long since) {
+        handleMovement(direction);
+
+        return LevelCodec.encodeState(gameEngine, since);
+    }
+
     @RequestMapping("/action/attack")
     public Status openDoors(@RequestParam(value="direction") String direction) throws IOException {
 
+        attack(direction);
+
+        return Status.fromGameEngine(Application.getEngine());
+    }
+
+    @RequestMapping(value = "/action/attack", produces = LevelCodec.MEDIA_TYPE)
+    public byte[] encodedAttack(@RequestParam(value = "direction") String direction,
+                                @RequestParam(value = "since", defaultValue = "-1") long since) {
+        attack(direction);
+
+        return LevelCodec.encodeState(Application.getEngine(), since);
+    }
+
+    private void handleMovement(String direction) {
+        Direction dir = Direction.fromCode(direction.charAt(0));
+
+        gameEngine.handleMovement(dir);
+    }
+
+    private void attack(String direction) {
         GameEngine gameEngine = Application.getEngine();
         Direction dir = Direction.fromCode(direction.charAt(0));
 
         gameEngine.attack(gameEngine.getAgent(), dir);
-
-        return Status.fromGameEngine(gameEngine);
     }
 }
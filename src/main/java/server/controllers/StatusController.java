@@ -1,27 +1,111 @@
 package server.controllers;
 
 import game.GameEngine;
+import game.LevelCodec;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import server.Application;
 import server.responses.EntityList;
+import server.responses.PathCacheStats;
 import server.responses.Status;
 
 import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * StatusController
+ * <p>
+ * The status has the state version of the game as its ETag: a client sending
+ * it back in If-None-Match gets a 304 with no body until the game changes.
+ * The binary state and layout split the status in the part that changes
+ * and the one that doesn't, see {@link LevelCodec}.
  *
  * @author stefano
  * @version 1.0.0
  */
 @RestController
 public class StatusController {
+
+    /**
+     * Tells the state versions of this server from the ones of an earlier
+     * run, so that an ETag is not matched after a restart
+     */
+    private static final String ETAG_PREFIX = Long.toHexString(new Random().nextLong());
+
     @RequestMapping("/status")
-    public Status status() {
+    public ResponseEntity<Status> status(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         GameEngine gameEngine = Application.getEngine();
 
-        return Status.fromGameEngine(gameEngine);
+        String eTag = eTag(gameEngine.getStateVersion(), "json");
+        if (matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+
+        Status status = Status.fromGameEngine(gameEngine);
+
+        return ResponseEntity.ok()
+                .eTag(eTag(status.getStateVersion(), "json"))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(status);
+    }
+
+    /**
+     * The status for the clients that accept {@link LevelCodec#MEDIA_TYPE},
+     * which is smaller and faster to decode than the JSON one.
+     *
+     * @param since the state version the client knows, to get the changes
+     *              since then instead of the whole level
+     */
+    @RequestMapping(value = "/status", produces = LevelCodec.MEDIA_TYPE)
+    public ResponseEntity<byte[]> encodedStatus(
+            @RequestParam(value = "since", defaultValue = "-1") long since,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return encoded("binary", ifNoneMatch, gameEngine -> LevelCodec.encode(gameEngine, since));
+    }
+
+    /**
+     * The state of the game without the layout of the level, which is
+     * fetched once from {@link #layout(String)}: the doors, the entities and
+     * the status, or the changes since the state version the client knows.
+     *
+     * @param since the state version the client knows
+     */
+    @RequestMapping(value = "/state", produces = LevelCodec.MEDIA_TYPE)
+    public ResponseEntity<byte[]> state(
+            @RequestParam(value = "since", defaultValue = "-1") long since,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return encoded("state", ifNoneMatch, gameEngine -> LevelCodec.encodeState(gameEngine, since));
+    }
+
+    /**
+     * The layout of the level being played, by its hash. It never changes,
+     * so the clients can keep it for as long as they like; the layouts of
+     * the earlier levels are not found.
+     *
+     * @param hash the hash given by the state frames
+     */
+    @RequestMapping(value = "/layout/{hash}", produces = LevelCodec.MEDIA_TYPE)
+    public ResponseEntity<byte[]> layout(@PathVariable("hash") String hash) {
+        LevelCodec.Layout layout = LevelCodec.getLayout(Application.getEngine());
+
+        if (!layout.getHash().equals(hash)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag('"' + hash + '"')
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic())
+                .body(layout.getEncoded());
     }
 
     @RequestMapping("/status/entities")
@@ -30,4 +114,53 @@ public class StatusController {
 
         return new EntityList(gameEngine.getEntityList());
     }
+
+    @RequestMapping("/status/pathcache")
+    public PathCacheStats pathCache() {
+        GameEngine gameEngine = Application.getEngine();
+
+        return PathCacheStats.fromGameEngine(gameEngine);
+    }
+
+    /**
+     * Encode the game, unless the client already has the current version.
+     */
+    private static ResponseEntity<byte[]> encoded(String representation, String ifNoneMatch,
+                                                  Function<GameEngine, byte[]> encoder) {
+        GameEngine gameEngine = Application.getEngine();
+
+        String eTag = eTag(gameEngine.getStateVersion(), representation);
+        if (matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+
+        byte[] frame = encoder.apply(gameEngine);
+
+        return ResponseEntity.ok()
+                .eTag(eTag(LevelCodec.getStateVersion(frame), representation))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(frame);
+    }
+
+    /**
+     * @param representation tells the JSON status from the binary one, which
+     *                       are at the same address, and from the state
+     */
+    private static String eTag(long stateVersion, String representation) {
+        return '"' + ETAG_PREFIX + '-' + stateVersion + '-' + representation + '"';
+    }
+
+    /**
+     * @param ifNoneMatch the ETags in the request, if any
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        return ifNoneMatch != null && (ifNoneMatch.contains(eTag) || ifNoneMatch.trim().equals("*"));
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
 }
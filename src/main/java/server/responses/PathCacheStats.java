@@ -0,0 +1,63 @@
+package server.responses;
+
+import algorithms.CachedPathFinder;
+import game.GameEngine;
+
+/**
+ * Class to handle the response with the path cache counters.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class PathCacheStats {
+    private final boolean enabled;
+    private final long hits;
+    private final long misses;
+    private final int size;
+    private final int capacity;
+
+    public static PathCacheStats fromGameEngine(GameEngine gameEngine) {
+        CachedPathFinder pathCache = gameEngine.getPathCache();
+
+        if (pathCache == null) {
+            return new PathCacheStats(false, 0, 0, 0, 0);
+        }
+
+        return new PathCacheStats(true, pathCache.getHits(), pathCache.getMisses(), pathCache.size(), pathCache.getCapacity());
+    }
+
+    public PathCacheStats(boolean enabled, long hits, long misses, int size, int capacity) {
+        this.enabled = enabled;
+        this.hits = hits;
+        this.misses = misses;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the share of the searches answered from the cache
+     */
+    public double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
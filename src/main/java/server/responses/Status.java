@@ -4,6 +4,9 @@ import game.GameEngine;
 import utils.Serializer;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Status
@@ -12,24 +15,51 @@ import java.io.IOException;
  * @version 1.0.0
  */
 public class Status {
+
+    /**
+     * The status of each engine as of its last state version, shared by the
+     * responses until a move changes the state
+     */
+    private static final Map<GameEngine, Status> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
     private final String status;
+    private final long stateVersion;
     private final String serializedLevel;
 
+    /**
+     * Return the status of the game as of its state version, built once per
+     * version. The moves are made holding the lock of the engine, so it is
+     * held here too: a move half made is never serialized.
+     */
     public static Status fromGameEngine(GameEngine gameEngine) {
-        String status = "Unknown status";
-        String serializedLevel = null;
-
-        try {
-            status = gameEngine.getGameStatus().getString();
-            serializedLevel = Serializer.toString(gameEngine.getLevel());
-        } catch (IOException e) {
-            e.printStackTrace();
+        synchronized (gameEngine) {
+            String status = "Unknown status";
+            long stateVersion = gameEngine.getStateVersion();
+            String serializedLevel = null;
+
+            Status cached = CACHE.get(gameEngine);
+            if (cached != null && cached.stateVersion == stateVersion) {
+                return cached;
+            }
+
+            try {
+                status = gameEngine.getGameStatus().getString();
+                serializedLevel = Serializer.toString(gameEngine.getLevel());
+            } catch (IOException e) {
+                e.printStackTrace();
+                return new Status(status, stateVersion, serializedLevel);
+            }
+
+            Status fresh = new Status(status, stateVersion, serializedLevel);
+            CACHE.put(gameEngine, fresh);
+
+            return fresh;
         }
-        return new Status(status, serializedLevel);
     }
 
-    public Status(String status, String serializedLevel) {
+    public Status(String status, long stateVersion, String serializedLevel) {
         this.status = status;
+        this.stateVersion = stateVersion;
         this.serializedLevel = serializedLevel;
     }
 
@@ -41,5 +71,12 @@ public class Status {
         return status;
     }
 
+    /**
+     * @return the state version of the game, see {@link GameEngine#getStateVersion()}
+     */
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
 
 }
@@ -0,0 +1,83 @@
+import game.BinaryLevel;
+import game.Level;
+import game.LevelLoader;
+import game.gridobjects.Door;
+import game.interfaces.Griddable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Checks a level read from its compiled form is the same as the parsed one.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class BinaryLevelTest {
+
+    @Test
+    public void testSameAsParsed() throws Exception {
+        for (String levelName : TestLevels.names()) {
+            Level parsed = LevelLoader.loadLevel(levelName);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            BinaryLevel.write(parsed, bytes);
+
+            TestLevels.assertSameLevel(parsed, BinaryLevel.read(ByteBuffer.wrap(bytes.toByteArray())));
+        }
+    }
+
+    @Test
+    public void testMapped() throws Exception {
+        Level parsed = LevelLoader.loadLevel("MansionLevel");
+        ((Door) findDoor(parsed)).open();
+
+        File file = File.createTempFile("MansionLevel", BinaryLevel.EXTENSION);
+        file.deleteOnExit();
+        try (OutputStream stream = new FileOutputStream(file)) {
+            BinaryLevel.write(parsed, stream);
+        }
+
+        TestLevels.assertSameLevel(parsed, LevelLoader.loadLevel(file));
+    }
+
+    @Test
+    public void testReadWithoutChanges() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryLevel.write(LevelLoader.loadLevel("MansionLevel"), bytes);
+
+        Level level = BinaryLevel.read(ByteBuffer.wrap(bytes.toByteArray()));
+        Assert.assertEquals(0, level.getGameGrid().getVersion());
+        Assert.assertEquals(0, level.getGameGrid().getChangeCount());
+        Assert.assertEquals(0, level.getFloorGrid().getChangeCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotCompiled() throws Exception {
+        BinaryLevel.read(ByteBuffer.wrap("WWWW\nW  W\nWWWW\n".getBytes("UTF-8")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryLevel.write(LevelLoader.loadLevel("testlevel"), bytes);
+
+        BinaryLevel.read(ByteBuffer.wrap(bytes.toByteArray(), 0, bytes.size() - 1));
+    }
+
+    private Griddable findDoor(Level level) {
+        for (Griddable object : level.getGameGrid()) {
+            if (object instanceof Door) {
+                return object;
+            }
+        }
+
+        throw new AssertionError("No door in the level");
+    }
+}
@@ -0,0 +1,87 @@
+import algorithms.CachedPathFinder;
+import algorithms.Path;
+import algorithms.PathFinder;
+import game.Grid;
+import game.gridobjects.GridObject;
+import game.gridobjects.Wall;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * CachedPathFinderTest
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class CachedPathFinderTest {
+
+    private int searches;
+
+    /**
+     * Finds a new one step path every time, or none if the target is (0, 0).
+     */
+    private final PathFinder pathFinder = (mover, sx, sy, tx, ty) -> {
+        searches++;
+
+        if (tx == 0 && ty == 0) {
+            return null;
+        }
+
+        Path path = new Path();
+        path.appendStep(sx, sy);
+        path.appendStep(tx, ty);
+
+        return path;
+    };
+
+    private final Grid<GridObject> grid = new Grid<>(GridObject.class, 4, 4);
+
+    @Test
+    public void testRepeatedSearchIsHit() {
+        CachedPathFinder cache = new CachedPathFinder(pathFinder, grid::getVersion, 10);
+
+        Path path = cache.findPath(null, 1, 1, 2, 2);
+
+        Assert.assertSame(path, cache.findPath(null, 1, 1, 2, 2));
+        Assert.assertNull(cache.findPath(null, 1, 1, 0, 0));
+        Assert.assertNull(cache.findPath(null, 1, 1, 0, 0));
+
+        Assert.assertEquals(2, searches);
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testGridChangeInvalidates() {
+        CachedPathFinder cache = new CachedPathFinder(pathFinder, grid::getVersion, 10);
+
+        cache.findPath(null, 1, 1, 2, 2);
+        grid.put(Wall.INSTANCE, 3, 3);
+        cache.findPath(null, 1, 1, 2, 2);
+        grid.markModified();
+        cache.findPath(null, 1, 1, 2, 2);
+
+        Assert.assertEquals(3, searches);
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        CachedPathFinder cache = new CachedPathFinder(pathFinder, grid::getVersion, 2);
+
+        cache.findPath(null, 1, 1, 1, 2);
+        cache.findPath(null, 1, 1, 2, 2);
+        cache.findPath(null, 1, 1, 1, 2);
+        cache.findPath(null, 1, 1, 3, 3);
+
+        Assert.assertEquals(2, cache.size());
+
+        // (2, 2) was the least recently used
+        cache.findPath(null, 1, 1, 1, 2);
+        cache.findPath(null, 1, 1, 2, 2);
+
+        Assert.assertEquals(4, searches);
+        Assert.assertEquals(2, cache.getHits());
+    }
+}
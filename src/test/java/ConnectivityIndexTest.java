@@ -0,0 +1,107 @@
+import algorithms.*;
+import game.Grid;
+import game.Level;
+import game.LevelLoader;
+import game.gridobjects.Door;
+import game.gridobjects.GridObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks {@link ConnectivityIndex} agrees with A* on which tiles can reach
+ * each other, as the doors are opened and closed.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class ConnectivityIndexTest {
+
+    private static final int MAX_SEARCH_DISTANCE = 100000;
+
+    private static final int DOOR_CHANGES = 5;
+
+    private static final int RANDOM_QUERIES = 200;
+
+    private int connected;
+
+    private int disconnected;
+
+    @Test
+    public void testSameComponentAsAStar() throws Exception {
+        Random random = new Random(5);
+
+        for (String levelName : TestLevels.names()) {
+            Level level = LevelLoader.loadLevel(levelName);
+            Grid<GridObject> grid = level.getGameGrid();
+            RoomGraph graph = new RoomGraph(grid);
+            ConnectivityIndex connectivity = new ConnectivityIndex(graph);
+
+            List<Door> doors = new ArrayList<>();
+            grid.forEach((object, x, y) -> {
+                if (object instanceof Door) {
+                    doors.add((Door) object);
+                }
+            });
+
+            for (int i = 0; i < DOOR_CHANGES; i++) {
+                assertSameComponentAsAStar(grid, connectivity, random);
+
+                for (Door door : doors) {
+                    if (random.nextBoolean()) {
+                        door.toggleDoor();
+                    }
+                }
+                graph.updateDoorStates();
+                connectivity.update();
+            }
+        }
+
+        // make sure both answers have been checked
+        Assert.assertTrue(connected > 100);
+        Assert.assertTrue(disconnected > 100);
+    }
+
+    @Test
+    public void testBlockedTilesHaveNoComponent() throws Exception {
+        Level level = LevelLoader.loadLevel("MansionLevel");
+        Grid<GridObject> grid = level.getGameGrid();
+        ConnectivityIndex connectivity = new ConnectivityIndex(new RoomGraph(grid));
+
+        grid.forEach((object, x, y) -> {
+            Assert.assertEquals(grid.isBlocked(x, y), connectivity.getComponent(x, y) == ConnectivityIndex.NONE);
+        });
+    }
+
+    private void assertSameComponentAsAStar(Grid<GridObject> grid, ConnectivityIndex connectivity, Random random) {
+        PathFinder astar = new IndexedAStarPathFinder(new GridMap(grid), MAX_SEARCH_DISTANCE, false);
+
+        List<int[]> free = new ArrayList<>();
+        grid.forEach((object, x, y) -> {
+            if (!grid.isBlocked(x, y)) {
+                free.add(new int[]{x, y});
+            }
+        });
+
+        for (int i = 0; i < RANDOM_QUERIES; i++) {
+            int[] from = free.get(random.nextInt(free.size()));
+            int[] to = free.get(random.nextInt(free.size()));
+
+            if (from[0] == to[0] && from[1] == to[1]) {
+                continue;
+            }
+
+            boolean expected = astar.findPath(null, from[0], from[1], to[0], to[1]) != null;
+            Assert.assertEquals(expected, connectivity.sameComponent(from[0], from[1], to[0], to[1]));
+
+            if (expected) {
+                connected++;
+            } else {
+                disconnected++;
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+import algorithms.*;
+import game.Grid;
+import game.Level;
+import game.LevelLoader;
+import game.entities.Enemy;
+import game.entities.Entity;
+import game.gridobjects.Door;
+import game.gridobjects.GridObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks {@link DStarLitePathFinder} keeps finding shortest paths while the
+ * enemies chase a moving agent and the doors are opened and closed.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class DStarLitePathFinderTest {
+
+    private static final int MAX_SEARCH_DISTANCE = 100000;
+
+    private static final int TURNS = 150;
+
+    private static final int TURNS_BETWEEN_DOOR_CHANGES = 20;
+
+    /**
+     * The enemies are slower than the agent, or they would all catch it
+     */
+    private static final int TURNS_BETWEEN_ENEMY_MOVES = 3;
+
+    private int found;
+
+    @Test
+    public void testSameLengthAsAStarWhileChasing() throws Exception {
+        for (String levelName : TestLevels.names()) {
+            assertSameLengthAsAStar(LevelLoader.loadLevel(levelName));
+        }
+
+        // make sure the comparison is not only about unreachable targets
+        Assert.assertTrue(found > 1000);
+    }
+
+    @Test
+    public void testMoreChangesThanTheGridRemembers() throws Exception {
+        Level level = LevelLoader.loadLevel("MansionLevel");
+        Grid<GridObject> grid = level.getGameGrid();
+        GridMap map = new GridMap(grid);
+        PathFinder astar = new IndexedAStarPathFinder(map, MAX_SEARCH_DISTANCE, false);
+        PathFinder planner = new DStarLitePathFinder(map, grid);
+
+        List<Door> doors = new ArrayList<>();
+        grid.forEach((object, x, y) -> {
+            if (object instanceof Door) {
+                ((Door) object).open();
+                doors.add((Door) object);
+            }
+        });
+        Assert.assertFalse(doors.isEmpty());
+
+        Entity agent = level.getEntities().getAgents().get(0);
+        int tx = (int) agent.getX();
+        int ty = (int) agent.getY();
+
+        for (Enemy enemy : level.getEntities().getEnemies()) {
+            int sx = (int) enemy.getX();
+            int sy = (int) enemy.getY();
+
+            assertSameLength(astar.findPath(null, sx, sy, tx, ty), planner.findPath(null, sx, sy, tx, ty));
+
+            // toggle the doors until the first change is forgotten, leaving
+            // them closed, then open again
+            for (int toggles = 0; toggles < 2; toggles++) {
+                for (int i = 0; i < 1001; i++) {
+                    doors.forEach(Door::toggleDoor);
+                }
+                Assert.assertEquals(-1, grid.getChangedTile(0));
+
+                assertSameLength(astar.findPath(null, sx, sy, tx, ty), planner.findPath(null, sx, sy, tx, ty));
+            }
+        }
+
+        Assert.assertTrue(found > 0);
+    }
+
+    private void assertSameLength(Path expected, Path actual) {
+        if (expected == null) {
+            Assert.assertNull(actual);
+        } else {
+            Assert.assertNotNull(actual);
+            found++;
+            Assert.assertEquals(expected.getLength(), actual.getLength());
+        }
+    }
+
+    private void assertSameLengthAsAStar(Level level) {
+        Grid<GridObject> grid = level.getGameGrid();
+        GridMap map = new GridMap(grid);
+        PathFinder astar = new IndexedAStarPathFinder(map, MAX_SEARCH_DISTANCE, false);
+
+        // start with the doors open, so most enemies can reach the agent
+        List<Door> doors = new ArrayList<>();
+        grid.forEach((object, x, y) -> {
+            if (object instanceof Door) {
+                ((Door) object).open();
+                doors.add((Door) object);
+            }
+        });
+
+        Entity agent = level.getEntities().getAgents().get(0);
+        List<int[]> enemies = new ArrayList<>();
+        List<PathFinder> planners = new ArrayList<>();
+        for (Enemy enemy : level.getEntities().getEnemies()) {
+            enemies.add(new int[]{(int) enemy.getX(), (int) enemy.getY()});
+            planners.add(new DStarLitePathFinder(map, grid));
+        }
+
+        Random random = new Random(3);
+        int ax = (int) agent.getX();
+        int ay = (int) agent.getY();
+
+        for (int turn = 0; turn < TURNS; turn++) {
+            if (turn % TURNS_BETWEEN_DOOR_CHANGES == 0 && !doors.isEmpty()) {
+                doors.get(random.nextInt(doors.size())).toggleDoor();
+            }
+
+            // a random step of the agent
+            int direction = random.nextInt(4);
+            int nx = ax + (direction == 0 ? -1 : direction == 1 ? 1 : 0);
+            int ny = ay + (direction == 2 ? -1 : direction == 3 ? 1 : 0);
+            if (nx >= 0 && ny >= 0 && nx < grid.getWidth() && ny < grid.getHeight() && !grid.isBlocked(nx, ny)) {
+                ax = nx;
+                ay = ny;
+            }
+
+            for (int i = 0; i < enemies.size(); i++) {
+                int[] enemy = enemies.get(i);
+                Path expected = astar.findPath(null, enemy[0], enemy[1], ax, ay);
+                Path actual = planners.get(i).findPath(null, enemy[0], enemy[1], ax, ay);
+
+                if (expected == null) {
+                    Assert.assertNull(actual);
+                    continue;
+                }
+
+                Assert.assertNotNull(actual);
+                found++;
+                assertValidPath(map, actual, enemy[0], enemy[1], ax, ay);
+                Assert.assertEquals(expected.getLength(), actual.getLength());
+
+                if (turn % TURNS_BETWEEN_ENEMY_MOVES == 0) {
+                    enemy[0] = actual.getX(1);
+                    enemy[1] = actual.getY(1);
+                }
+            }
+        }
+    }
+
+    private void assertValidPath(TileBasedMap map, Path path, int sx, int sy, int tx, int ty) {
+        Assert.assertEquals(sx, path.getX(0));
+        Assert.assertEquals(sy, path.getY(0));
+        Assert.assertEquals(tx, path.getX(path.getLength() - 1));
+        Assert.assertEquals(ty, path.getY(path.getLength() - 1));
+
+        for (int i = 1; i < path.getLength(); i++) {
+            Assert.assertFalse(map.blocked(null, path.getX(i), path.getY(i)));
+            Assert.assertEquals(1, Math.abs(path.getX(i) - path.getX(i - 1)) + Math.abs(path.getY(i) - path.getY(i - 1)));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import game.DoorIndex;
+import game.Grid;
+import game.gridobjects.Door;
+import game.gridobjects.GridObject;
+import game.gridobjects.Wall;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks {@link DoorIndex} opens and closes the doors by type and keeps the
+ * blocked tiles of the grid in step.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class DoorIndexTest {
+
+    @Test
+    public void testOpenOnly() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 100, 2);
+        Door a1 = new Door('A');
+        Door a2 = new Door('A');
+        Door b = new Door('B', false);
+        grid.put(a1, 1, 0);
+        grid.put(a2, 70, 1);
+        grid.put(b, 99, 1);
+        grid.put(Wall.INSTANCE, 2, 0);
+
+        DoorIndex doorIndex = new DoorIndex(grid);
+        Assert.assertEquals(3, doorIndex.getDoorCount());
+        Assert.assertEquals(2, doorIndex.getDoors('A').length);
+
+        int version = grid.getVersion();
+        doorIndex.openOnly('A');
+
+        Assert.assertNotEquals(version, grid.getVersion());
+        Assert.assertFalse(a1.isBlocking());
+        Assert.assertFalse(a2.isBlocking());
+        Assert.assertTrue(b.isBlocking());
+        Assert.assertFalse(grid.isBlocked(1, 0));
+        Assert.assertFalse(grid.isBlocked(70, 1));
+        Assert.assertTrue(grid.isBlocked(99, 1));
+        Assert.assertTrue(grid.isBlocked(2, 0));
+
+        doorIndex.close('A');
+        Assert.assertTrue(a1.isBlocking());
+        Assert.assertTrue(grid.isBlocked(1, 0));
+        Assert.assertTrue(grid.isBlocked(70, 1));
+    }
+
+    @Test
+    public void testVersionChangedOncePerCall() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 10, 1);
+        Door a = new Door('A');
+        Door b = new Door('B', false);
+        Door c = new Door('C');
+        grid.put(a, 1, 0);
+        grid.put(b, 2, 0);
+        grid.put(c, 3, 0);
+
+        DoorIndex doorIndex = new DoorIndex(grid);
+
+        int version = grid.getVersion();
+        Assert.assertTrue(doorIndex.openOnly('A'));
+        Assert.assertEquals(version + 1, grid.getVersion());
+        Assert.assertFalse(a.isBlocking());
+        Assert.assertTrue(b.isBlocking());
+        Assert.assertTrue(grid.isBlocked(2, 0));
+
+        // nothing to change, the paths found stay valid
+        Assert.assertFalse(doorIndex.openOnly('A'));
+        Assert.assertFalse(doorIndex.close('B'));
+        Assert.assertEquals(version + 1, grid.getVersion());
+
+        Assert.assertTrue(doorIndex.close('A'));
+        Assert.assertEquals(version + 2, grid.getVersion());
+        Assert.assertTrue(grid.isBlocked(1, 0));
+    }
+
+    @Test
+    public void testMissingType() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 3, 3);
+        Door door = new Door('A', false);
+        grid.put(door, 1, 1);
+
+        DoorIndex doorIndex = new DoorIndex(grid);
+        doorIndex.close('Z');
+        Assert.assertFalse(grid.isBlocked(1, 1));
+        Assert.assertEquals(0, doorIndex.getDoors('Z').length);
+
+        doorIndex.openOnly('Z');
+        Assert.assertTrue(door.isBlocking());
+        Assert.assertTrue(grid.isBlocked(1, 1));
+    }
+}
@@ -0,0 +1,121 @@
+import game.Direction;
+import game.Entities;
+import game.entities.Agent;
+import game.entities.Enemy;
+import game.entities.Entity;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Checks the queries of {@link Entities} follow the entities as they are
+ * added, moved and removed.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class EntitiesTest {
+
+    @Test
+    public void testAt() {
+        Entities entities = new Entities();
+        Enemy enemy = new Enemy();
+        enemy.setPosition(3, 4);
+        entities.add(enemy);
+
+        Assert.assertEquals(Collections.singletonList(enemy), entities.getAt(3, 4));
+        Assert.assertTrue(entities.getAt(4, 3).isEmpty());
+
+        enemy.setPosition(5, 4);
+        Assert.assertTrue(entities.getAt(3, 4).isEmpty());
+        Assert.assertEquals(Collections.singletonList(enemy), entities.getAt(5, 4));
+
+        entities.remove(enemy);
+        Assert.assertTrue(entities.getAt(5, 4).isEmpty());
+
+        // a removed entity doesn't come back when it moves
+        enemy.setPosition(6, 4);
+        Assert.assertTrue(entities.getAt(6, 4).isEmpty());
+    }
+
+    @Test
+    public void testOnRay() {
+        Entities entities = new Entities();
+        Enemy near = new Enemy();
+        near.setPosition(2, 5);
+        Enemy far = new Enemy();
+        far.setPosition(2, 1);
+        Enemy aside = new Enemy();
+        aside.setPosition(3, 3);
+        entities.addAll(Arrays.asList(far, aside, near));
+
+        Assert.assertEquals(Arrays.asList(near, far), entities.getOnRay(2, 6, Direction.NORTH, 6));
+        Assert.assertEquals(Collections.singletonList(near), entities.getOnRay(2, 6, Direction.NORTH, 3));
+        Assert.assertTrue(entities.getOnRay(2, 6, Direction.SOUTH, 10).isEmpty());
+    }
+
+    @Test
+    public void testNear() {
+        Entities entities = new Entities();
+        Agent agent = new Agent();
+        agent.setPosition(10, 10);
+        Enemy touching = new Enemy();
+        touching.setPosition(10, 10);
+        Enemy next = new Enemy();
+        next.setPosition(11, 10);
+        entities.addAll(Arrays.asList(agent, touching, next));
+
+        Assert.assertEquals(Arrays.asList(agent, touching), entities.getNear(10, 10, 1));
+        Assert.assertEquals(3, entities.getNear(10, 10, 1.5).size());
+        Assert.assertEquals(3, entities.getNear(10, 10, 1000).size());
+    }
+
+    @Test
+    public void testTypes() {
+        Entities entities = new Entities();
+        Agent agent = new Agent();
+        Enemy enemy = new Enemy();
+        entities.addAll(Arrays.asList(agent, enemy));
+
+        Assert.assertEquals(Collections.singletonList(agent), entities.getAgents());
+        Assert.assertEquals(Collections.singletonList(enemy), entities.getEnemies());
+
+        entities.removeIf(entity -> entity instanceof Enemy);
+        Assert.assertTrue(entities.getEnemies().isEmpty());
+
+        entities.clear();
+        Assert.assertTrue(entities.getAgents().isEmpty());
+        Assert.assertTrue(entities.getAt(0, 0).isEmpty());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        Entities entities = new Entities();
+        Enemy enemy = new Enemy();
+        enemy.setPosition(1, 2);
+        entities.add(enemy);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(entities);
+        }
+
+        Entities copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Entities) in.readObject();
+        }
+
+        Entity copied = copy.getAt(1, 2).get(0);
+        Assert.assertEquals(1, copy.getEnemies().size());
+
+        copied.setPosition(2, 2);
+        Assert.assertEquals(Collections.singletonList(copied), copy.getAt(2, 2));
+        Assert.assertEquals(Collections.singletonList(enemy), entities.getAt(1, 2));
+    }
+}
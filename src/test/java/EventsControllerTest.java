@@ -0,0 +1,143 @@
+import game.Direction;
+import game.GameEngine;
+import game.Level;
+import game.LevelCodec;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import server.Application;
+import server.controllers.EventsController;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Checks /events sends the state of the game, then the changes of every move
+ * in order, to each client.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class EventsControllerTest {
+
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    private GameEngine previous;
+
+    private GameEngine engine;
+
+    private EventsController controller;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+        previous = Application.engine;
+        engine = new GameEngine();
+        Application.engine = engine;
+        controller = new EventsController();
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @After
+    public void tearDown() {
+        controller.shutdown();
+        Application.engine = previous;
+    }
+
+    @Test
+    public void testStateThenChanges() throws Exception {
+        MockHttpServletResponse response = subscribe();
+
+        LevelCodec.Frame state = awaitFrames(response, 1).get(0);
+        Assert.assertFalse(state.isDelta());
+        Assert.assertEquals(engine.getStateVersion(), state.getStateVersion());
+
+        LevelCodec.Layout layout = LevelCodec.getLayout(engine);
+        Level level = state.applyTo(null, layout);
+
+        engine.openDoors('O');
+        engine.handleMovement(Direction.SOUTH);
+        engine.closeDoors('O');
+
+        List<LevelCodec.Frame> frames = awaitFrames(response, 4);
+        long version = state.getStateVersion();
+
+        for (LevelCodec.Frame delta : frames.subList(1, frames.size())) {
+            Assert.assertTrue(delta.isDelta());
+            Assert.assertEquals(version, delta.getBaseVersion());
+
+            level = delta.applyTo(level, layout);
+            version = delta.getStateVersion();
+        }
+
+        Assert.assertEquals(engine.getStateVersion(), version);
+        Assert.assertEquals(engine.getAgent().getY(), level.getEntities().getAgents().get(0).getY(), 0);
+    }
+
+    @Test
+    public void testEveryClient() throws Exception {
+        MockHttpServletResponse first = subscribe();
+        awaitFrames(first, 1);
+
+        engine.openDoors('O');
+
+        MockHttpServletResponse second = subscribe();
+        Assert.assertEquals(engine.getStateVersion(), awaitFrames(second, 1).get(0).getStateVersion());
+
+        engine.openDoors('P');
+
+        Assert.assertEquals(engine.getStateVersion(), awaitFrames(first, 3).get(2).getStateVersion());
+        Assert.assertEquals(engine.getStateVersion(), awaitFrames(second, 2).get(1).getStateVersion());
+    }
+
+    private MockHttpServletResponse subscribe() throws Exception {
+        MvcResult result = mvc.perform(get("/events")).andExpect(request().asyncStarted()).andReturn();
+
+        return result.getResponse();
+    }
+
+    /**
+     * Wait for the client to have been sent some frames, which are sent on
+     * the threads of the controller.
+     */
+    private static List<LevelCodec.Frame> awaitFrames(MockHttpServletResponse response, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        List<LevelCodec.Frame> frames;
+
+        while ((frames = frames(response.getContentAsString())).size() < count) {
+            Assert.assertTrue("Sent " + frames.size() + " frames, not " + count, System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+
+        return frames;
+    }
+
+    /**
+     * @param events the events sent so far, the last one maybe in part
+     */
+    private static List<LevelCodec.Frame> frames(String events) throws Exception {
+        List<LevelCodec.Frame> frames = new ArrayList<>();
+        String complete = events.substring(0, Math.max(0, events.lastIndexOf("\n\n")));
+
+        for (String line : complete.split("\n")) {
+            if (line.startsWith("data:")) {
+                byte[] frame = Base64.getDecoder().decode(line.substring("data:".length()).trim());
+                frames.add(LevelCodec.decode(ByteBuffer.wrap(frame)));
+            }
+        }
+
+        return frames;
+    }
+}
@@ -0,0 +1,83 @@
+import algorithms.PathFinderType;
+import game.Direction;
+import game.GameEngine;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * GameEngineAllocationTest
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class GameEngineAllocationTest {
+
+    private static final int WARM_UP_MOVES = 200;
+
+    private static final int MEASURED_MOVES = 200;
+
+    /**
+     * What a move may allocate: the changes it commits and the array of the
+     * paths, about 800 bytes on MansionLevel, where a node per tile would be
+     * 40 KB.
+     */
+    private static final long MAX_BYTES_PER_MOVE = 1024;
+
+    @Test
+    public void testAStarMovementAllocation() {
+        assertMovementAllocation(PathFinderType.ASTAR);
+    }
+
+    @Test
+    public void testIndexedAStarMovementAllocation() {
+        assertMovementAllocation(PathFinderType.INDEXED_ASTAR);
+    }
+
+    /**
+     * A move used to allocate a node for every tile of the map for every enemy.
+     * With the pooled path finders the searches must allocate close to
+     * nothing. The path cache, which allocates an entry per search, is
+     * disabled to measure them alone.
+     */
+    private void assertMovementAllocation(PathFinderType type) {
+        com.sun.management.ThreadMXBean threads = threadMXBean();
+
+        GameEngine engine = new GameEngine();
+        engine.setPathFinderType(type);
+        // only the allocation of this thread is counted, so plan here too
+        engine.setPlanningParallelism(1);
+        engine.setPathCacheSize(0);
+
+        move(engine, WARM_UP_MOVES);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        move(engine, MEASURED_MOVES);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        long perMove = allocated / MEASURED_MOVES;
+        Assert.assertTrue(type + " allocated " + perMove + " bytes per move", perMove < MAX_BYTES_PER_MOVE);
+    }
+
+    /**
+     * Walk the agent back and forth so the enemies chase it every turn.
+     */
+    private void move(GameEngine engine, int moves) {
+        for (int i = 0; i < moves; i++) {
+            engine.handleMovement(i % 2 == 0 ? Direction.EAST : Direction.WEST);
+        }
+    }
+
+    private com.sun.management.ThreadMXBean threadMXBean() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        return threads;
+    }
+}
@@ -0,0 +1,160 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import game.GameEngine;
+import game.LevelCodec;
+import game.interfaces.StateListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stands in for the Spring server where there is no servlet container, with
+ * the binary /status, /doors/open and the /events of EventsController. The
+ * whole level is sent as a snapshot where the server sends the state on a
+ * layout, so that the clients don't have to fetch the layout.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class GameServerStub implements AutoCloseable {
+
+    private final GameEngine engine;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "game-server-stub");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<OutputStream> subscribers = new CopyOnWriteArrayList<>();
+
+    private final StateListener listener = this::broadcast;
+
+    public GameServerStub(GameEngine engine) throws IOException {
+        this.engine = engine;
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+
+        server.createContext("/status", exchange -> {
+            long since = Long.parseLong(query(exchange.getRequestURI()).getOrDefault("since", "-1"));
+
+            byte[] frame;
+            synchronized (engine) {
+                frame = LevelCodec.encode(engine, since);
+            }
+            respond(exchange, frame);
+        });
+
+        server.createContext("/doors/open", exchange -> {
+            Map<String, String> query = query(exchange.getRequestURI());
+            long since = Long.parseLong(query.getOrDefault("since", "-1"));
+
+            byte[] frame;
+            synchronized (engine) {
+                engine.openDoors(query.get("type").toUpperCase().charAt(0));
+                frame = LevelCodec.encode(engine, since);
+            }
+            respond(exchange, frame);
+        });
+
+        server.createContext("/events", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+
+            OutputStream stream = exchange.getResponseBody();
+            synchronized (engine) {
+                send(stream, engine.getStateVersion(), LevelCodec.encode(engine, -1));
+                subscribers.add(stream);
+            }
+        });
+
+        engine.addStateListener(listener);
+        server.start();
+    }
+
+    /**
+     * @return the address of the server, as in the client's Main.getHost()
+     */
+    public String getHost() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * End the event streams, as the server does when a subscription times
+     * out.
+     */
+    public void endSubscriptions() {
+        for (OutputStream stream : subscribers) {
+            subscribers.remove(stream);
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        engine.removeStateListener(listener);
+        endSubscriptions();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void broadcast(long stateVersion) {
+        byte[] frame = LevelCodec.encode(engine, stateVersion - 1);
+
+        for (OutputStream stream : subscribers) {
+            try {
+                send(stream, stateVersion, frame);
+            } catch (IOException e) {
+                subscribers.remove(stream);
+            }
+        }
+    }
+
+    private static void send(OutputStream stream, long stateVersion, byte[] frame) throws IOException {
+        String event = "id:" + stateVersion + "\nevent:frame\ndata:" + Base64.getEncoder().encodeToString(frame)
+                + "\n\n";
+
+        synchronized (stream) {
+            stream.write(event.getBytes(StandardCharsets.UTF_8));
+            stream.flush();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", LevelCodec.MEDIA_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+
+        try (OutputStream stream = exchange.getResponseBody()) {
+            stream.write(body);
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> query = new HashMap<>();
+
+        if (uri.getRawQuery() != null) {
+            for (String pair : uri.getRawQuery().split("&")) {
+                int equals = pair.indexOf('=');
+                query.put(pair.substring(0, equals), pair.substring(equals + 1));
+            }
+        }
+
+        return query;
+    }
+}
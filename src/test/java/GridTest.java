@@ -0,0 +1,211 @@
+import game.Grid;
+import game.TileMask;
+import game.gridobjects.Door;
+import game.gridobjects.Floor;
+import game.gridobjects.GridObject;
+import game.gridobjects.Wall;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * Checks the blocked tiles of a {@link Grid} follow the objects put, removed,
+ * opened and closed.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class GridTest {
+
+    @Test
+    public void testPutAndRemove() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 70, 3);
+
+        grid.put(Wall.INSTANCE, 65, 1);
+        grid.put(Floor.INSTANCE, 66, 1);
+
+        Assert.assertTrue(grid.isBlocked(65, 1));
+        Assert.assertFalse(grid.isBlocked(66, 1));
+        Assert.assertFalse(grid.isBlocked(65, 0));
+
+        grid.put(Floor.INSTANCE, 65, 1);
+        Assert.assertFalse(grid.isBlocked(65, 1));
+
+        grid.put(Wall.INSTANCE, 66, 1);
+        grid.remove(66, 1);
+        Assert.assertFalse(grid.isBlocked(66, 1));
+    }
+
+    @Test
+    public void testDoors() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 5, 5);
+        Door door = new Door('A');
+        grid.put(door, 2, 2);
+        Assert.assertTrue(grid.isBlocked(2, 2));
+
+        int version = grid.getVersion();
+        door.open();
+        Assert.assertFalse(grid.isBlocked(2, 2));
+        Assert.assertNotEquals(version, grid.getVersion());
+
+        version = grid.getVersion();
+        door.open();
+        Assert.assertEquals(version, grid.getVersion());
+
+        door.toggleDoor();
+        Assert.assertTrue(grid.isBlocked(2, 2));
+        door.close();
+        Assert.assertTrue(grid.isBlocked(2, 2));
+
+        // a removed door doesn't change the grid anymore
+        grid.remove(2, 2);
+        version = grid.getVersion();
+        door.open();
+        door.close();
+        Assert.assertFalse(grid.isBlocked(2, 2));
+        Assert.assertEquals(version, grid.getVersion());
+    }
+
+    @Test
+    public void testChangedTiles() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 70, 3);
+        Door door = new Door('A');
+        Door other = new Door('A');
+
+        grid.put(door, 2, 1);
+        grid.put(other, 67, 2);
+        door.open();
+        grid.changeBlocking(new TileMask(new int[]{72, 207}, 2), true, () -> {
+            door.close();
+            other.close();
+        });
+        grid.remove(67, 2);
+
+        Assert.assertEquals(6, grid.getChangeCount());
+
+        int[] expected = {72, 207, 72, 72, 207, 207};
+        for (int change = 0; change < expected.length; change++) {
+            Assert.assertEquals(expected[change], grid.getChangedTile(change));
+        }
+        Assert.assertEquals(-1, grid.getChangedTile(expected.length));
+
+        // only the last changes are remembered
+        for (int i = 0; i < 2000; i++) {
+            door.toggleDoor();
+        }
+        Assert.assertEquals(-1, grid.getChangedTile(0));
+        Assert.assertEquals(72, grid.getChangedTile(grid.getChangeCount() - 1));
+    }
+
+    @Test
+    public void testBlockedNeighbours() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 3, 3);
+        grid.put(Wall.INSTANCE, 1, 0);
+        grid.put(new Door('B'), 2, 1);
+
+        Assert.assertEquals(Grid.NORTH | Grid.EAST, grid.getBlockedNeighbours(1, 1));
+        Assert.assertEquals(Grid.WEST | Grid.NORTH | Grid.EAST, grid.getBlockedNeighbours(0, 0));
+        Assert.assertEquals(Grid.NORTH | Grid.SOUTH | Grid.EAST, grid.getBlockedNeighbours(2, 2));
+    }
+
+    @Test
+    public void testOutOfBounds() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 4, 2);
+
+        Assert.assertFalse(grid.isOutOfBounds(3, 1));
+        Assert.assertTrue(grid.isOutOfBounds(4, 1));
+        Assert.assertTrue(grid.isOutOfBounds(3, 2));
+        Assert.assertTrue(grid.isOutOfBounds(-1, 0));
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testBlockedOutOfBounds() {
+        new Grid<>(GridObject.class, 4, 2).isBlocked(4, 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerialization() throws Exception {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 3, 1);
+        grid.put(Wall.INSTANCE, 0, 0);
+        grid.put(new Door('C'), 1, 0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(grid);
+        }
+
+        Grid<GridObject> copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Grid<GridObject>) in.readObject();
+        }
+
+        Assert.assertTrue(copy.isBlocked(0, 0));
+        Assert.assertTrue(copy.isBlocked(1, 0));
+        Assert.assertSame(Wall.INSTANCE, copy.get(0, 0));
+        Assert.assertNotSame(grid.get(1, 0), copy.get(1, 0));
+        Assert.assertFalse(copy.isBlocked(2, 0));
+
+        ((Door) copy.get(1, 0)).open();
+        Assert.assertFalse(copy.isBlocked(1, 0));
+        Assert.assertTrue(grid.isBlocked(1, 0));
+    }
+
+    @Test
+    public void testForEachIndexed() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 7, 3);
+        Wall wall = Wall.INSTANCE;
+        grid.put(wall, 5, 2);
+
+        List<Integer> indexes = new ArrayList<>();
+        grid.forEachIndexed((object, index) -> {
+            if (object != null) {
+                indexes.add(index);
+            }
+        });
+
+        Assert.assertEquals(1, indexes.size());
+        Assert.assertEquals(2 * 7 + 5, (int) indexes.get(0));
+    }
+
+    @Test
+    public void testSpliteratorSplitsByRows() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 10, 9);
+
+        Spliterator<GridObject> rest = grid.spliterator();
+        rest.tryAdvance(object -> {
+        });
+        Spliterator<GridObject> prefix = rest.trySplit();
+
+        Assert.assertNotNull(prefix);
+        Assert.assertEquals(89, prefix.estimateSize() + rest.estimateSize());
+        Assert.assertEquals(0, rest.estimateSize() % 10);
+
+        // a single row is not split
+        Spliterator<GridObject> row = new Grid<>(GridObject.class, 10, 1).spliterator();
+        Assert.assertNull(row.trySplit());
+    }
+
+    @Test
+    public void testParallelStream() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 300, 200);
+        int walls = 0;
+
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x += 1 + y % 5) {
+                grid.put(Wall.INSTANCE, x, y);
+                walls++;
+            }
+        }
+
+        Assert.assertEquals(300 * 200, grid.stream().parallel().count());
+        Assert.assertEquals(walls, grid.stream().parallel().filter(object -> object instanceof Wall).count());
+    }
+}
@@ -0,0 +1,112 @@
+import algorithms.*;
+import game.Level;
+import game.LevelLoader;
+import game.entities.Enemy;
+import game.entities.Entity;
+import game.gridobjects.Door;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks {@link HierarchicalPathFinder} finds a valid path whenever A* does on
+ * every bundled level, and keeps up with the doors being opened.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class HierarchicalPathFinderTest {
+
+    private static final int MAX_SEARCH_DISTANCE = 100000;
+
+    private static final int RANDOM_QUERIES = 300;
+
+    private int found;
+
+    @Test
+    public void testFindsPathWhenAStarDoes() throws Exception {
+        for (String levelName : TestLevels.names()) {
+            Level level = LevelLoader.loadLevel(levelName);
+            RoomGraph graph = new RoomGraph(level.getGameGrid());
+            PathFinder hierarchical = new HierarchicalPathFinder(graph);
+
+            assertFindsPathWhenAStarDoes(level, hierarchical);
+
+            // the same graph, once the doors have been opened
+            level.getGameGrid().forEach((object, x, y) -> {
+                if (object instanceof Door) {
+                    ((Door) object).open();
+                }
+            });
+            graph.updateDoorStates();
+
+            assertFindsPathWhenAStarDoes(level, hierarchical);
+        }
+
+        // make sure the comparison is not only about unreachable targets
+        Assert.assertTrue(found > 1000);
+    }
+
+    private void assertFindsPathWhenAStarDoes(Level level, PathFinder hierarchical) {
+        GridMap map = new GridMap(level.getGameGrid());
+        PathFinder astar = new IndexedAStarPathFinder(map, MAX_SEARCH_DISTANCE, false);
+
+        for (int[] q : queries(level)) {
+            Path expected = astar.findPath(null, q[0], q[1], q[2], q[3]);
+            Path actual = hierarchical.findPath(null, q[0], q[1], q[2], q[3]);
+
+            if (expected == null) {
+                Assert.assertNull(actual);
+                continue;
+            }
+
+            Assert.assertNotNull(actual);
+            found++;
+            assertValidPath(map, actual, q);
+            Assert.assertTrue(actual.getLength() >= expected.getLength());
+        }
+    }
+
+    private void assertValidPath(TileBasedMap map, Path path, int[] q) {
+        Assert.assertEquals(q[0], path.getX(0));
+        Assert.assertEquals(q[1], path.getY(0));
+        Assert.assertEquals(q[2], path.getX(path.getLength() - 1));
+        Assert.assertEquals(q[3], path.getY(path.getLength() - 1));
+
+        for (int i = 1; i < path.getLength(); i++) {
+            Assert.assertFalse(map.blocked(null, path.getX(i), path.getY(i)));
+            Assert.assertEquals(1, Math.abs(path.getX(i) - path.getX(i - 1)) + Math.abs(path.getY(i) - path.getY(i - 1)));
+        }
+    }
+
+    /**
+     * Every enemy to the agent, as the game does, and random free tiles.
+     */
+    private List<int[]> queries(Level level) {
+        List<int[]> queries = new ArrayList<>();
+        Entity agent = level.getEntities().getAgents().get(0);
+
+        for (Enemy enemy : level.getEntities().getEnemies()) {
+            queries.add(new int[]{(int) enemy.getX(), (int) enemy.getY(), (int) agent.getX(), (int) agent.getY()});
+        }
+
+        List<int[]> free = new ArrayList<>();
+        level.getGameGrid().forEach((object, x, y) -> {
+            if (!level.getGameGrid().isBlocked(x, y)) {
+                free.add(new int[]{x, y});
+            }
+        });
+
+        Random random = new Random(7);
+        for (int i = 0; i < RANDOM_QUERIES; i++) {
+            int[] from = free.get(random.nextInt(free.size()));
+            int[] to = free.get(random.nextInt(free.size()));
+            queries.add(new int[]{from[0], from[1], to[0], to[1]});
+        }
+
+        return queries;
+    }
+}
@@ -0,0 +1,307 @@
+import game.Direction;
+import game.Entities;
+import game.GameEngine;
+import game.GameStatus;
+import game.Level;
+import game.LevelCodec;
+import game.LevelLoader;
+import game.entities.Character;
+import game.entities.Enemy;
+import game.gridobjects.Door;
+import org.junit.Assert;
+import org.junit.Test;
+import utils.Serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Checks the frames of {@link LevelCodec} decode to the level encoded, the
+ * state frames on their layout too, and the deltas bring a level up to date.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class LevelCodecTest {
+
+    @Test
+    public void testBundledLevels() throws Exception {
+        for (String name : new String[]{"BuildingLevel", "Level", "Level1", "MansionLevel", "StrangeLevel", "testlevel"}) {
+            Level level = LevelLoader.loadLevel(name);
+
+            assertRoundTrip(GameStatus.RUNNING, level);
+        }
+    }
+
+    @Test
+    public void testGameInProgress() throws Exception {
+        GameEngine engine = new GameEngine();
+        engine.loadLevel("MansionLevel");
+        engine.openDoors('O');
+
+        Enemy enemy = engine.getLevel().getEntities().getEnemies().get(0);
+        enemy.decreaseHealth(42);
+
+        LevelCodec.Frame frame = assertRoundTrip(GameStatus.GAME_OVER, engine.getLevel());
+        Assert.assertEquals(58, ((Character) frame.getLevel().getEntities().getEnemies().get(0)).getHealth());
+    }
+
+    @Test
+    public void testSmallerThanSerialized() throws Exception {
+        Level level = LevelLoader.loadLevel("Level");
+
+        int encoded = LevelCodec.encode(GameStatus.RUNNING, 0, level).length;
+        int serialized = Serializer.toString(level).length();
+
+        Assert.assertTrue(encoded + " bytes, not less than " + serialized / 10, encoded < serialized / 10);
+    }
+
+    @Test
+    public void testFromStream() throws Exception {
+        Level level = LevelLoader.loadLevel("testlevel");
+        byte[] frame = LevelCodec.encode(GameStatus.VICTORY, 0, level);
+
+        LevelCodec.Frame decoded = LevelCodec.decode(new ByteArrayInputStream(frame));
+        Assert.assertEquals(GameStatus.VICTORY, decoded.getStatus());
+        TestLevels.assertSameLevel(level, decoded.getLevel());
+    }
+
+    @Test
+    public void testCorruptedFrames() {
+        byte[] frame = LevelCodec.encode(GameStatus.RUNNING, 0, LevelLoader.loadLevel("testlevel"));
+
+        assertCorrupted(Arrays.copyOf(frame, frame.length - 1));
+        assertCorrupted(Arrays.copyOf(frame, 10));
+
+        byte[] wrongMagic = frame.clone();
+        wrongMagic[0]++;
+        assertCorrupted(wrongMagic);
+
+        byte[] wrongStatus = frame.clone();
+        wrongStatus[5] = 42;
+        assertCorrupted(wrongStatus);
+    }
+
+    @Test
+    public void testDeltasBringTheLevelUpToDate() throws Exception {
+        GameEngine engine = new GameEngine();
+        long start = engine.getStateVersion();
+
+        Level full = LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encode(engine, -1))).getLevel();
+        Level stepped = LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encode(engine, -1))).getLevel();
+
+        Runnable[] moves = {
+                () -> engine.openDoors('O'),
+                () -> engine.handleMovement(Direction.SOUTH),
+                () -> engine.handleMovement(Direction.EAST),
+                () -> {
+                    Entities entities = engine.getEntityList();
+                    entities.getEnemies().get(0).decreaseHealth(10);
+                    entities.remove(entities.getEnemies().get(1));
+                    entities.remove(entities.getEnemies().get(2));
+                    engine.closeDoors('O');
+                },
+                () -> engine.openDoors('P')
+        };
+
+        for (Runnable move : moves) {
+            long since = engine.getStateVersion();
+            move.run();
+
+            LevelCodec.Frame frame = LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encode(engine, since)));
+            Assert.assertTrue(frame.isDelta());
+            Assert.assertEquals(since, frame.getBaseVersion());
+            Assert.assertEquals(engine.getStateVersion(), frame.getStateVersion());
+            Assert.assertEquals(engine.getGameStatus(), frame.getStatus());
+
+            stepped = frame.applyTo(stepped);
+            TestLevels.assertSameLevel(engine.getLevel(), stepped);
+        }
+
+        LevelCodec.Frame frame = LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encode(engine, start)));
+        Assert.assertTrue(frame.isDelta());
+        TestLevels.assertSameLevel(engine.getLevel(), frame.applyTo(full));
+    }
+
+    @Test
+    public void testNothingChanged() throws Exception {
+        GameEngine engine = new GameEngine();
+        engine.openDoors('O');
+        long version = engine.getStateVersion();
+
+        engine.openDoors('O');
+        Assert.assertEquals(version, engine.getStateVersion());
+
+        byte[] frame = LevelCodec.encode(engine, version);
+        LevelCodec.Frame decoded = LevelCodec.decode(ByteBuffer.wrap(frame));
+        Assert.assertTrue(decoded.isDelta());
+        Assert.assertTrue(frame.length + " bytes", frame.length < 32);
+    }
+
+    @Test
+    public void testSnapshotForUnknownVersions() throws Exception {
+        GameEngine engine = new GameEngine();
+        long before = engine.getStateVersion();
+
+        Assert.assertFalse(decode(engine, -1).isDelta());
+        Assert.assertFalse(decode(engine, before + 1).isDelta());
+
+        // a new game starts from scratch
+        engine.initializeGame();
+        Assert.assertFalse(decode(engine, before).isDelta());
+        Assert.assertTrue(decode(engine, engine.getStateVersion()).isDelta());
+    }
+
+    @Test
+    public void testOldChangesForgotten() throws Exception {
+        GameEngine engine = new GameEngine();
+        long start = engine.getStateVersion();
+
+        for (int i = 0; i < 1100; i++) {
+            engine.openDoors('O');
+            engine.closeDoors('O');
+        }
+
+        Assert.assertFalse(decode(engine, start).isDelta());
+        Assert.assertTrue(decode(engine, engine.getStateVersion() - 100).isDelta());
+    }
+
+    @Test
+    public void testEncodedWhileAMoveIsMade() throws Exception {
+        GameEngine engine = new GameEngine();
+        long version = engine.getStateVersion();
+        Level committed = LevelLoader.loadLevel("MansionLevel");
+
+        // as an attack does, before the enemies are moved and it is committed
+        Entities entities = engine.getEntityList();
+        entities.getEnemies().get(0).decreaseHealth(10);
+        entities.remove(entities.getEnemies().get(1));
+        engine.getGameGrid().forEach((object, x, y) -> {
+            if (object instanceof Door) {
+                ((Door) object).toggleDoor();
+            }
+        });
+
+        LevelCodec.Frame snapshot = decode(engine, -1);
+        LevelCodec.Layout layout = LevelCodec.getLayout(engine);
+        LevelCodec.Frame state = LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encodeState(engine, -1)));
+
+        Assert.assertEquals(version, snapshot.getStateVersion());
+        TestLevels.assertSameLevel(committed, snapshot.getLevel());
+        Level stateLevel = state.applyTo(null, layout);
+        TestLevels.assertSameLevel(committed, stateLevel);
+
+        engine.openDoors('O');
+
+        LevelCodec.Frame delta = decode(engine, version);
+        Assert.assertTrue(delta.isDelta());
+        TestLevels.assertSameLevel(engine.getLevel(), delta.applyTo(snapshot.getLevel()));
+        TestLevels.assertSameLevel(engine.getLevel(), delta.applyTo(stateLevel, layout));
+    }
+
+    @Test
+    public void testStateOnLayout() throws Exception {
+        GameEngine engine = new GameEngine();
+        engine.openDoors('O');
+        Entities entities = engine.getEntityList();
+        entities.getEnemies().get(0).decreaseHealth(30);
+        entities.remove(entities.getEnemies().get(1));
+        engine.closeDoors('P');
+
+        LevelCodec.Layout layout = LevelCodec.decodeLayout(LevelCodec.getLayout(engine).getEncoded());
+        LevelCodec.Frame state = LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encodeState(engine, -1)));
+
+        Assert.assertFalse(state.isDelta());
+        Assert.assertNull(state.getLevel());
+        Assert.assertEquals(layout.getHash(), state.getLayoutHash());
+        Assert.assertEquals(engine.getStateVersion(), state.getStateVersion());
+
+        Level level = state.applyTo(null, layout);
+        TestLevels.assertSameLevel(engine.getLevel(), level);
+
+        // then the changes, as with a snapshot
+        long since = engine.getStateVersion();
+        engine.handleMovement(Direction.SOUTH);
+        engine.openDoors('P');
+
+        LevelCodec.Frame delta = LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encodeState(engine, since)));
+        Assert.assertTrue(delta.isDelta());
+        TestLevels.assertSameLevel(engine.getLevel(), delta.applyTo(level, layout));
+    }
+
+    @Test
+    public void testLayoutAddressedByContent() throws Exception {
+        GameEngine engine = new GameEngine();
+        String hash = LevelCodec.getLayout(engine).getHash();
+
+        // the same for the same level, whatever the doors
+        engine.openDoors('O');
+        Assert.assertEquals(hash, LevelCodec.getLayout(engine).getHash());
+        Assert.assertEquals(hash, LevelCodec.getLayout(new GameEngine()).getHash());
+
+        GameEngine other = new GameEngine();
+        other.loadLevel("Level");
+        LevelCodec.Layout otherLayout = LevelCodec.getLayout(other);
+        Assert.assertNotEquals(hash, otherLayout.getHash());
+
+        LevelCodec.Frame state = LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encodeState(engine, -1)));
+        try {
+            state.applyTo(null, otherLayout);
+            Assert.fail("Applied the state on another layout");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testStateSmallerThanSnapshot() throws Exception {
+        GameEngine engine = new GameEngine();
+
+        int snapshot = LevelCodec.encode(engine, -1).length;
+        int state = LevelCodec.encodeState(engine, -1).length;
+
+        Assert.assertTrue(state + " bytes, not less than " + snapshot / 2, state < snapshot / 2);
+    }
+
+    @Test
+    public void testCorruptedLayouts() {
+        byte[] layout = LevelCodec.encodeLayout(LevelLoader.loadLevel("testlevel"));
+
+        for (byte[] corrupted : new byte[][]{Arrays.copyOf(layout, layout.length - 1), Arrays.copyOf(layout, 8),
+                Arrays.copyOf(layout, layout.length + 1), LevelCodec.encode(GameStatus.RUNNING, 0,
+                LevelLoader.loadLevel("testlevel"))}) {
+            try {
+                LevelCodec.decodeLayout(corrupted);
+                Assert.fail("Decoded a corrupted layout");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+
+        assertCorrupted(layout);
+    }
+
+    private static LevelCodec.Frame decode(GameEngine engine, long since) throws IOException {
+        return LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encode(engine, since)));
+    }
+
+    private static void assertCorrupted(byte[] frame) {
+        try {
+            LevelCodec.decode(ByteBuffer.wrap(frame));
+            Assert.fail("Decoded a corrupted frame");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static LevelCodec.Frame assertRoundTrip(GameStatus status, Level level) throws IOException {
+        LevelCodec.Frame frame = LevelCodec.decode(ByteBuffer.wrap(LevelCodec.encode(status, 0, level)));
+
+        Assert.assertEquals(status, frame.getStatus());
+        TestLevels.assertSameLevel(level, frame.getLevel());
+
+        return frame;
+    }
+}
@@ -0,0 +1,153 @@
+import game.Grid;
+import game.Level;
+import game.LevelGenerator;
+import game.LevelLoader;
+import game.gridobjects.Door;
+import game.gridobjects.Exit;
+import game.gridobjects.GridObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Checks the levels made by {@link LevelGenerator} load and match the
+ * settings.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class LevelGeneratorTest {
+
+    @Test
+    public void testLoadsWithTheSettings() throws Exception {
+        LevelGenerator generator = new LevelGenerator(300, 200, 42);
+        generator.setRoomDensity(2);
+        generator.setDoorCount(50);
+        generator.setEnemyCount(120);
+        generator.setAgentCount(2);
+
+        File file = File.createTempFile("generated", ".txt");
+        file.deleteOnExit();
+        generator.write(file);
+
+        Level level = LevelLoader.loadLevel(file);
+        Grid<GridObject> grid = level.getGameGrid();
+
+        Assert.assertEquals(300, grid.getWidth());
+        Assert.assertEquals(200, grid.getHeight());
+        Assert.assertEquals(120, level.getEntities().getEnemies().size());
+        Assert.assertEquals(2, level.getEntities().getAgents().size());
+        Assert.assertEquals(50, grid.stream().filter(object -> object instanceof Door).count());
+        Assert.assertEquals(1, grid.stream().filter(object -> object instanceof Exit).count());
+    }
+
+    @Test
+    public void testSameSeedSameLevel() throws Exception {
+        Assert.assertArrayEquals(generate(200, 150, 7), generate(200, 150, 7));
+        Assert.assertFalse(Arrays.equals(generate(200, 150, 7), generate(200, 150, 8)));
+    }
+
+    /**
+     * Every tile that is not a wall can be reached from the agent through the
+     * doors.
+     */
+    @Test
+    public void testEveryRoomReachable() throws Exception {
+        LevelGenerator generator = new LevelGenerator(250, 180, 3);
+        generator.setRoomDensity(5);
+        generator.setDoorCount(0);
+        generator.setEnemyCount(0);
+
+        assertReachable(LevelLoader.loadLevel(new ByteArrayInputStream(generate(generator))));
+
+        generator.setDoorCount(200);
+        assertReachable(LevelLoader.loadLevel(new ByteArrayInputStream(generate(generator))));
+    }
+
+    @Test
+    public void testSmallestLevel() throws Exception {
+        LevelGenerator generator = new LevelGenerator(5, 5, 1);
+        generator.setEnemyCount(7);
+
+        Level level = LevelLoader.loadLevel(new ByteArrayInputStream(generate(generator)));
+        Assert.assertEquals(7, level.getEntities().getEnemies().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyDoors() throws Exception {
+        LevelGenerator generator = new LevelGenerator(20, 20, 1);
+        generator.setDoorCount(1000);
+
+        generate(generator);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyEnemies() throws Exception {
+        LevelGenerator generator = new LevelGenerator(5, 5, 1);
+        generator.setEnemyCount(9);
+
+        generate(generator);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLarge() {
+        new LevelGenerator(LevelGenerator.MAX_SIZE + 1, 10, 1);
+    }
+
+    private static byte[] generate(int width, int height, long seed) throws Exception {
+        return generate(new LevelGenerator(width, height, seed));
+    }
+
+    private static byte[] generate(LevelGenerator generator) throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        generator.write(stream);
+
+        return stream.toByteArray();
+    }
+
+    private static void assertReachable(Level level) {
+        Grid<GridObject> grid = level.getGameGrid();
+        int width = grid.getWidth();
+        boolean[] reached = new boolean[width * grid.getHeight()];
+
+        int start = (int) level.getEntities().getAgents().get(0).getY() * width
+                + (int) level.getEntities().getAgents().get(0).getX();
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        reached[start] = true;
+
+        while (!queue.isEmpty()) {
+            int tile = queue.poll();
+            int x = tile % width;
+            int y = tile / width;
+
+            for (int[] step : new int[][]{{-1, 0}, {1, 0}, {0, -1}, {0, 1}}) {
+                int nx = x + step[0];
+                int ny = y + step[1];
+
+                if (grid.isOutOfBounds(nx, ny) || reached[ny * width + nx] || isWall(grid.get(nx, ny))) {
+                    continue;
+                }
+
+                reached[ny * width + nx] = true;
+                queue.add(ny * width + nx);
+            }
+        }
+
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                Assert.assertEquals("tile " + x + ", " + y, !isWall(grid.get(x, y)), reached[y * width + x]);
+            }
+        }
+    }
+
+    private static boolean isWall(GridObject object) {
+        return object != null && !(object instanceof Door) && object.isBlocking();
+    }
+}
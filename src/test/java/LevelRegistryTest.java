@@ -0,0 +1,103 @@
+import game.Grid;
+import game.Level;
+import game.LevelRegistry;
+import game.LevelTemplate;
+import game.entities.Entity;
+import game.gridobjects.Door;
+import game.gridobjects.GridObject;
+import game.gridobjects.Wall;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the levels made by a {@link LevelTemplate} can be played on their
+ * own, and share what never changes.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class LevelRegistryTest {
+
+    @Test
+    public void testLevelsAreIndependent() {
+        LevelTemplate template = LevelRegistry.getTemplate("MansionLevel");
+        Assert.assertSame(template, LevelRegistry.getTemplate("MansionLevel"));
+
+        Level first = template.newLevel();
+        Level second = template.newLevel();
+
+        Assert.assertSame(first.getFloorGrid(), second.getFloorGrid());
+        Assert.assertNotSame(first.getGameGrid(), second.getGameGrid());
+
+        int[] door = findDoor(first.getGameGrid());
+        int x = door[0];
+        int y = door[1];
+        Assert.assertTrue(second.getGameGrid().isBlocked(x, y));
+
+        ((Door) first.getGameGrid().get(x, y)).open();
+        Assert.assertFalse(first.getGameGrid().isBlocked(x, y));
+        Assert.assertTrue(second.getGameGrid().isBlocked(x, y));
+        Assert.assertTrue(template.newLevel().getGameGrid().get(x, y).isBlocking());
+
+        Entity moved = first.getEntities().get(0);
+        Entity other = second.getEntities().get(0);
+        Assert.assertNotSame(moved, other);
+        moved.setPosition(moved.getX() + 1, moved.getY());
+        Assert.assertNotEquals(moved.getX(), other.getX(), 0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSharedFloorIsReadOnly() {
+        Level level = LevelRegistry.newLevel("testlevel");
+
+        level.getFloorGrid().remove(0, 0);
+    }
+
+    @Test
+    public void testClone() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 4, 4);
+        grid.put(Wall.INSTANCE, 1, 2);
+        grid.makeReadOnly();
+
+        Grid<GridObject> copy = grid.clone();
+        Assert.assertFalse(copy.isReadOnly());
+        Assert.assertSame(Wall.INSTANCE, copy.get(1, 2));
+        Assert.assertTrue(copy.isBlocked(1, 2));
+
+        copy.remove(1, 2);
+        Assert.assertTrue(grid.isBlocked(1, 2));
+        Assert.assertFalse(copy.isBlocked(1, 2));
+    }
+
+    @Test
+    public void testCloneLeavesSharedObjects() {
+        Grid<GridObject> grid = new Grid<>(GridObject.class, 4, 4);
+        Door door = new Door('A');
+        Door other = new Door('B');
+        grid.put(door, 1, 2);
+        grid.put(other, 3, 0);
+
+        Grid<GridObject> copy = grid.clone();
+        copy.put(new Door('A'), 1, 2);
+        copy.remove(3, 0);
+
+        // the doors still tell the grid they were taken from
+        door.open();
+        other.open();
+        Assert.assertFalse(grid.isBlocked(1, 2));
+        Assert.assertFalse(grid.isBlocked(3, 0));
+        Assert.assertTrue(copy.isBlocked(1, 2));
+    }
+
+    private int[] findDoor(Grid<GridObject> grid) {
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.get(x, y) instanceof Door) {
+                    return new int[]{x, y};
+                }
+            }
+        }
+
+        throw new AssertionError("No door in the level");
+    }
+}
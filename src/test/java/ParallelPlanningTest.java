@@ -0,0 +1,80 @@
+import algorithms.PathFinderType;
+import game.Direction;
+import game.GameEngine;
+import game.Grid;
+import game.entities.Enemy;
+import game.gridobjects.GridObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the enemies move the same way whether they are planned one by one
+ * or by several threads.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class ParallelPlanningTest {
+
+    private static final int EXTRA_ENEMIES = 100;
+
+    private static final int TURNS = 30;
+
+    @Test
+    public void testIndexedAStarSameAsSequential() {
+        assertSameAsSequential(PathFinderType.INDEXED_ASTAR);
+    }
+
+    @Test
+    public void testIncrementalSameAsSequential() {
+        assertSameAsSequential(PathFinderType.INCREMENTAL);
+    }
+
+    private void assertSameAsSequential(PathFinderType type) {
+        Assert.assertEquals(play(type, 1), play(type, 4));
+    }
+
+    /**
+     * @return the enemy positions after the agent has walked back and forth
+     */
+    private List<String> play(PathFinderType type, int parallelism) {
+        GameEngine engine = new GameEngine();
+        engine.setPathFinderType(type);
+        engine.setPathCacheSize(0);
+        engine.setPlanningParallelism(parallelism);
+        addEnemies(engine);
+
+        for (int i = 0; i < TURNS; i++) {
+            engine.handleMovement(i % 2 == 0 ? Direction.EAST : Direction.WEST);
+        }
+
+        List<String> positions = new ArrayList<>();
+        for (Enemy enemy : engine.getEntityList().getEnemies()) {
+            positions.add(enemy.getX() + "," + enemy.getY());
+        }
+
+        return positions;
+    }
+
+    private void addEnemies(GameEngine engine) {
+        Grid<GridObject> grid = engine.getGameGrid();
+        List<int[]> free = new ArrayList<>();
+        grid.forEach((object, x, y) -> {
+            if (!grid.isBlocked(x, y)) {
+                free.add(new int[]{x, y});
+            }
+        });
+
+        Random random = new Random(42);
+        for (int i = 0; i < EXTRA_ENEMIES; i++) {
+            int[] tile = free.get(random.nextInt(free.size()));
+            Enemy enemy = new Enemy();
+            enemy.setPosition(tile[0], tile[1]);
+            engine.getEntityList().add(enemy);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import algorithms.Path;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * PathTest
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class PathTest {
+
+    private static final int STEPS = 1000;
+
+    @Test
+    public void testPrependKeepsOrder() {
+        Path path = new Path();
+
+        for (int i = STEPS - 1; i >= 0; i--) {
+            path.prependStep(i, -i);
+        }
+
+        assertSteps(path);
+    }
+
+    @Test
+    public void testAppendKeepsOrder() {
+        Path path = new Path(1, false);
+
+        for (int i = 0; i < STEPS; i++) {
+            path.appendStep(i, -i);
+        }
+
+        assertSteps(path);
+    }
+
+    @Test
+    public void testSizedForOneEnd() {
+        Path prepended = new Path(STEPS, true);
+        Path appended = new Path(STEPS, false);
+
+        for (int i = 0; i < STEPS; i++) {
+            prepended.prependStep(STEPS - 1 - i, -(STEPS - 1 - i));
+            appended.appendStep(i, -i);
+        }
+
+        assertSteps(prepended);
+        assertSteps(appended);
+    }
+
+    @Test
+    public void testBuildFromBothEnds() {
+        Path path = new Path();
+
+        for (int i = STEPS / 2; i < STEPS; i++) {
+            path.appendStep(i, -i);
+        }
+        for (int i = STEPS / 2 - 1; i >= 0; i--) {
+            path.prependStep(i, -i);
+        }
+
+        assertSteps(path);
+    }
+
+    @Test
+    public void testContains() {
+        Path path = new Path();
+        path.appendStep(1, 2);
+        path.appendStep(2, 2);
+
+        Assert.assertTrue(path.contains(1, 2));
+        Assert.assertTrue(path.contains(2, 2));
+        Assert.assertFalse(path.contains(2, 1));
+        Assert.assertFalse(new Path().contains(0, 0));
+    }
+
+    @Test
+    public void testStepHashCodeSpreadsAlongAxes() {
+        Path path = new Path();
+        Set<Integer> hashes = new HashSet<>();
+
+        for (int i = 0; i < 10; i++) {
+            path.appendStep(i, 0);
+            path.appendStep(0, i + 1);
+        }
+        for (int i = 0; i < path.getLength(); i++) {
+            hashes.add(path.getStep(i).hashCode());
+        }
+
+        Assert.assertEquals(path.getLength(), hashes.size());
+        Assert.assertEquals(path.getStep(0), path.getStep(0));
+        Assert.assertEquals(path.getStep(0).hashCode(), path.getStep(0).hashCode());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testStepOutOfBounds() {
+        Path path = new Path();
+        path.appendStep(0, 0);
+
+        path.getX(1);
+    }
+
+    private void assertSteps(Path path) {
+        Assert.assertEquals(STEPS, path.getLength());
+
+        for (int i = 0; i < STEPS; i++) {
+            Assert.assertEquals(i, path.getX(i));
+            Assert.assertEquals(-i, path.getY(i));
+            Assert.assertEquals(i, path.getStep(i).getX());
+            Assert.assertEquals(-i, path.getStep(i).getY());
+        }
+    }
+}
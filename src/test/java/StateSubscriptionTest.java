@@ -0,0 +1,111 @@
+import client.StateSubscription;
+import game.GameEngine;
+import game.LevelCodec;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the engine tells of every new state version, and a
+ * {@link StateSubscription} reads the frames pushed for them.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class StateSubscriptionTest {
+
+    @Test
+    public void testEngineTellsNewVersions() {
+        GameEngine engine = new GameEngine();
+        List<Long> versions = new ArrayList<>();
+        engine.addStateListener(versions::add);
+
+        engine.openDoors('O');
+        engine.openDoors('O');
+        engine.closeDoors('O');
+        engine.initializeGame();
+
+        Assert.assertFalse(versions.isEmpty());
+        Assert.assertEquals(engine.getStateVersion(), (long) versions.get(versions.size() - 1));
+        for (int i = 1; i < versions.size(); i++) {
+            Assert.assertTrue(versions.get(i) > versions.get(i - 1));
+        }
+
+        // open twice, but only changed once
+        Assert.assertEquals(versions.get(0) + 1, (long) versions.get(1));
+    }
+
+    @Test
+    public void testPushedFrames() throws Exception {
+        GameEngine engine = new GameEngine();
+
+        try (GameServerStub server = new GameServerStub(engine)) {
+            Frames frames = new Frames();
+            StateSubscription subscription = new StateSubscription(server.getHost(), frames);
+            subscription.start();
+
+            LevelCodec.Frame snapshot = frames.next();
+            Assert.assertFalse(snapshot.isDelta());
+            Assert.assertEquals(engine.getStateVersion(), snapshot.getStateVersion());
+
+            synchronized (engine) {
+                engine.openDoors('O');
+            }
+
+            LevelCodec.Frame delta = frames.next();
+            Assert.assertTrue(delta.isDelta());
+            Assert.assertEquals(snapshot.getStateVersion(), delta.getBaseVersion());
+            Assert.assertEquals(engine.getStateVersion(), delta.getStateVersion());
+
+            // subscribed again once the stream ends, from a snapshot
+            server.endSubscriptions();
+            Assert.assertFalse(frames.next().isDelta());
+
+            subscription.stop();
+            Assert.assertNull(frames.failure);
+        }
+    }
+
+    @Test
+    public void testNoServer() throws Exception {
+        GameEngine engine = new GameEngine();
+        String host;
+
+        try (GameServerStub server = new GameServerStub(engine)) {
+            host = server.getHost();
+        }
+
+        Frames frames = new Frames();
+        new StateSubscription(host, frames).run();
+
+        Assert.assertNotNull(frames.failure);
+    }
+
+    private static class Frames implements StateSubscription.Listener {
+        private final BlockingQueue<LevelCodec.Frame> frames = new LinkedBlockingQueue<>();
+
+        private volatile Exception failure;
+
+        @Override
+        public void frameReceived(LevelCodec.Frame frame) {
+            frames.add(frame);
+        }
+
+        @Override
+        public void subscriptionFailed(Exception e) {
+            failure = e;
+        }
+
+        LevelCodec.Frame next() throws InterruptedException {
+            LevelCodec.Frame frame = frames.poll(5, TimeUnit.SECONDS);
+            Assert.assertNotNull("No frame pushed", frame);
+
+            return frame;
+        }
+    }
+}
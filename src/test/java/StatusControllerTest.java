@@ -0,0 +1,112 @@
+import game.GameEngine;
+import game.LevelCodec;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import server.Application;
+import server.controllers.StatusController;
+import server.responses.Status;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Checks /status answers 304 to a client that has the current state version,
+ * and the status of a version is only built once.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class StatusControllerTest {
+
+    private GameEngine previous;
+
+    private GameEngine engine;
+
+    private StatusController controller;
+
+    @Before
+    public void setUp() {
+        previous = Application.engine;
+        engine = new GameEngine();
+        Application.engine = engine;
+        controller = new StatusController();
+    }
+
+    @After
+    public void tearDown() {
+        Application.engine = previous;
+    }
+
+    @Test
+    public void testNotModified() {
+        ResponseEntity<Status> first = controller.status(null);
+        Assert.assertEquals(HttpStatus.OK, first.getStatusCode());
+
+        String eTag = first.getHeaders().getETag();
+        Assert.assertNotNull(eTag);
+
+        ResponseEntity<Status> again = controller.status(eTag);
+        Assert.assertEquals(HttpStatus.NOT_MODIFIED, again.getStatusCode());
+        Assert.assertNull(again.getBody());
+        Assert.assertEquals(eTag, again.getHeaders().getETag());
+
+        engine.openDoors('O');
+
+        ResponseEntity<Status> changed = controller.status(eTag);
+        Assert.assertEquals(HttpStatus.OK, changed.getStatusCode());
+        Assert.assertNotEquals(eTag, changed.getHeaders().getETag());
+        Assert.assertEquals(engine.getStateVersion(), changed.getBody().getStateVersion());
+    }
+
+    @Test
+    public void testEncodedNotModified() throws Exception {
+        ResponseEntity<byte[]> first = controller.encodedStatus(-1, null);
+        String eTag = first.getHeaders().getETag();
+        long version = LevelCodec.decode(ByteBuffer.wrap(first.getBody())).getStateVersion();
+
+        Assert.assertEquals(HttpStatus.NOT_MODIFIED, controller.encodedStatus(version, eTag).getStatusCode());
+
+        // the JSON and the binary status are told apart
+        Assert.assertNotEquals(eTag, controller.status(null).getHeaders().getETag());
+        Assert.assertEquals(HttpStatus.OK, controller.status(eTag).getStatusCode());
+
+        engine.openDoors('O');
+
+        ResponseEntity<byte[]> changed = controller.encodedStatus(version, eTag);
+        Assert.assertEquals(HttpStatus.OK, changed.getStatusCode());
+        Assert.assertTrue(LevelCodec.decode(ByteBuffer.wrap(changed.getBody())).isDelta());
+    }
+
+    @Test
+    public void testLayout() throws Exception {
+        ResponseEntity<byte[]> state = controller.state(-1, null);
+        String hash = LevelCodec.decode(ByteBuffer.wrap(state.getBody())).getLayoutHash();
+
+        ResponseEntity<byte[]> layout = controller.layout(hash);
+        Assert.assertEquals(HttpStatus.OK, layout.getStatusCode());
+        Assert.assertEquals(hash, LevelCodec.decodeLayout(layout.getBody()).getHash());
+        Assert.assertTrue(layout.getHeaders().getCacheControl().contains("max-age"));
+
+        Assert.assertEquals(HttpStatus.NOT_FOUND, controller.layout("not" + hash).getStatusCode());
+
+        Assert.assertEquals(HttpStatus.NOT_MODIFIED,
+                controller.state(-1, state.getHeaders().getETag()).getStatusCode());
+    }
+
+    @Test
+    public void testBuiltOncePerVersion() {
+        Assert.assertSame(Status.fromGameEngine(engine), Status.fromGameEngine(engine));
+        Assert.assertSame(LevelCodec.encode(engine, -1), LevelCodec.encode(engine, -1));
+
+        Status status = Status.fromGameEngine(engine);
+        byte[] snapshot = LevelCodec.encode(engine, -1);
+        engine.openDoors('O');
+
+        Assert.assertNotSame(status, Status.fromGameEngine(engine));
+        Assert.assertNotSame(snapshot, LevelCodec.encode(engine, -1));
+        Assert.assertEquals(engine.getStateVersion(), LevelCodec.getStateVersion(LevelCodec.encode(engine, -1)));
+    }
+}
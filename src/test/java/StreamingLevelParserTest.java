@@ -0,0 +1,73 @@
+import game.Level;
+import game.LevelParser;
+import game.StreamingLevelParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Checks {@link StreamingLevelParser} makes the same levels as
+ * {@link LevelParser}.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class StreamingLevelParserTest {
+
+    @Test
+    public void testBundledLevels() throws Exception {
+        File directory = new File(getClass().getClassLoader().getResource("Levels").toURI());
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".txt"));
+        Assert.assertTrue(files.length > 0);
+
+        for (File file : files) {
+            assertSameAsLevelParser(Files.readAllBytes(file.toPath()));
+        }
+    }
+
+    @Test
+    public void testLineEndings() throws Exception {
+        assertSameAsLevelParser("WWW\r\nWAW\rW.W\nWWW");
+        assertSameAsLevelParser("WWW\n\n\r\n\rWHW\n");
+        assertSameAsLevelParser("WWW\r\n");
+        assertSameAsLevelParser("");
+        assertSameAsLevelParser("\n");
+    }
+
+    @Test
+    public void testTrimmedAndUpperCased() throws Exception {
+        assertSameAsLevelParser("  \twxoprstq  \n W  a  h\t\n\t. . .\u0001\n   \n");
+    }
+
+    @Test
+    public void testByteBuffer() throws Exception {
+        byte[] bytes = "WWWW\nWAXW\nWWWW\n".getBytes(StandardCharsets.UTF_8);
+        Level expected = parseWithLevelParser(bytes);
+
+        TestLevels.assertSameLevel(expected, StreamingLevelParser.parse(ByteBuffer.wrap(bytes)));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        TestLevels.assertSameLevel(expected, StreamingLevelParser.parse(direct));
+    }
+
+    private void assertSameAsLevelParser(String level) throws Exception {
+        assertSameAsLevelParser(level.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void assertSameAsLevelParser(byte[] level) throws Exception {
+        TestLevels.assertSameLevel(parseWithLevelParser(level), StreamingLevelParser.parse(new ByteArrayInputStream(level)));
+    }
+
+    private Level parseWithLevelParser(byte[] level) {
+        LevelParser parser = new LevelParser(new ByteArrayInputStream(level));
+        parser.parse();
+
+        return new Level(parser);
+    }
+}
@@ -0,0 +1,83 @@
+import game.Grid;
+import game.Level;
+import game.entities.Character;
+import game.entities.Entity;
+import game.gridobjects.Door;
+import game.interfaces.Griddable;
+import org.junit.Assert;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The levels shipped with the game, and the checks shared by the tests that
+ * load, encode or copy them.
+ *
+ * @author stefano
+ * @version 1.0.0
+ */
+public class TestLevels {
+
+    private TestLevels() {
+    }
+
+    /**
+     * @return the names of the levels in the resources, sorted
+     */
+    public static List<String> names() throws Exception {
+        File directory = new File(TestLevels.class.getClassLoader().getResource("Levels").toURI());
+        List<String> names = new ArrayList<>();
+
+        String[] files = directory.list((dir, name) -> name.endsWith(".txt"));
+        Arrays.sort(files);
+        for (String file : files) {
+            names.add(file.substring(0, file.length() - ".txt".length()));
+        }
+
+        Assert.assertFalse(names.isEmpty());
+
+        return names;
+    }
+
+    /**
+     * Check two levels have the same objects, blocked tiles and entities.
+     * The doors are compared by type and state, as they are not shared.
+     */
+    public static void assertSameLevel(Level expected, Level actual) {
+        assertSameGrid(expected.getGameGrid(), actual.getGameGrid());
+        assertSameGrid(expected.getFloorGrid(), actual.getFloorGrid());
+
+        Assert.assertEquals(expected.getEntities().size(), actual.getEntities().size());
+        for (int i = 0; i < expected.getEntities().size(); i++) {
+            Entity e = expected.getEntities().get(i);
+            Entity a = actual.getEntities().get(i);
+
+            Assert.assertEquals(e.getClass(), a.getClass());
+            Assert.assertEquals(e.getX(), a.getX(), 0);
+            Assert.assertEquals(e.getY(), a.getY(), 0);
+            Assert.assertEquals(((Character) e).getHealth(), ((Character) a).getHealth());
+        }
+    }
+
+    public static void assertSameGrid(Grid<? extends Griddable> expected, Grid<? extends Griddable> actual) {
+        Assert.assertEquals(expected.getWidth(), actual.getWidth());
+        Assert.assertEquals(expected.getHeight(), actual.getHeight());
+
+        expected.forEach((object, x, y) -> {
+            Griddable other = actual.get(x, y);
+
+            if (object == null) {
+                Assert.assertNull(other);
+            } else if (object instanceof Door) {
+                Assert.assertEquals(((Door) object).getDoorType(), ((Door) other).getDoorType());
+                Assert.assertEquals(object.isBlocking(), other.isBlocking());
+            } else {
+                Assert.assertSame(object, other);
+            }
+
+            Assert.assertEquals(expected.isBlocked(x, y), actual.isBlocked(x, y));
+        });
+    }
+}